@@ -0,0 +1,251 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.MutableReversiModel;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.ReversiModelStatus;
+import model.RowColPair;
+import strategy.InfallibleStrategy;
+
+/**
+ * Plays many games between two difficulties without any view, to measure how strong and how
+ * fast the strategies are, for instance on a server with no display. The games are shared
+ * between one thread per core, each with its own strategies, and the difficulties take turns
+ * at playing black. The report gives the wins, draws and losses of the first difficulty, its
+ * average margin of discs, and the percentiles of the time each difficulty took per move.
+ */
+final class BatchGames {
+  private final ReadOnlyReversiModel.ModelType type;
+  private final int size;
+  private final ReversiGame.Difficulty first;
+  private final ReversiGame.Difficulty second;
+  private final int games;
+  private final int threads;
+
+  /**
+   * Construct the batch of games.
+   *
+   * @param type    the type of the board
+   * @param size    the size of the board, or -1 for the default size of the type
+   * @param first   the first difficulty, which plays black in the even games
+   * @param second  the second difficulty
+   * @param games   the number of games to play
+   * @param threads the number of games played at the same time
+   * @throws IllegalArgumentException if there are no games or no threads
+   */
+  BatchGames(ReadOnlyReversiModel.ModelType type, int size, ReversiGame.Difficulty first,
+             ReversiGame.Difficulty second, int games, int threads) {
+    if (games < 1 || threads < 1) {
+      throw new IllegalArgumentException("A batch needs at least one game and one thread");
+    }
+    this.type = type;
+    this.size = size;
+    this.first = first;
+    this.second = second;
+    this.games = games;
+    this.threads = threads;
+  }
+
+  /**
+   * Construct the batch of games from the command line, on one thread per core.
+   *
+   * @param args the type of the board, the two difficulties, the number of games, and
+   *             optionally the size of the board, example: SQUARE HARD MEDIUM 100 8
+   * @return the batch of games
+   * @throws IllegalArgumentException if the arguments are invalid or incomplete
+   */
+  static BatchGames fromArgs(String[] args) {
+    if (args.length != 4 && args.length != 5) {
+      throw new IllegalArgumentException("A batch needs a board type, two difficulties, "
+          + "a number of games and optionally a size");
+    }
+    return new BatchGames(ReadOnlyReversiModel.ModelType.valueOf(args[0].toUpperCase()),
+        args.length == 5 ? Integer.parseInt(args[4]) : -1,
+        ReversiGame.Difficulty.valueOf(args[1].toUpperCase()),
+        ReversiGame.Difficulty.valueOf(args[2].toUpperCase()),
+        Integer.parseInt(args[3]), Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Play all the games, and wait for them to end.
+   *
+   * @return the results of the games
+   * @throws IllegalStateException if a game fails or the waiting is interrupted
+   */
+  Results play() {
+    int workers = Math.min(games, threads);
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      List<Future<Results>> futures = new ArrayList<>();
+      for (int i = 0; i < workers; i++) {
+        int worker = i;
+        futures.add(executor.submit(() -> playShare(worker, workers)));
+      }
+      Results results = new Results();
+      for (Future<Results> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game of the batch failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while playing the batch", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Play the games of one worker, every games of the batch counting from the worker.
+   */
+  private Results playShare(int worker, int workers) {
+    InfallibleStrategy firstStrategy = first.newStrategy();
+    InfallibleStrategy secondStrategy = second.newStrategy();
+    Results results = new Results();
+    for (int game = worker; game < games; game += workers) {
+      playGame(firstStrategy, secondStrategy,
+          game % 2 == 0 ? RepresentativeColor.BLACK : RepresentativeColor.WHITE, results);
+    }
+    return results;
+  }
+
+  /**
+   * Play one game to its end, and add its result and the time of its moves to the results.
+   */
+  private void playGame(InfallibleStrategy firstStrategy, InfallibleStrategy secondStrategy,
+                        RepresentativeColor firstColor, Results results) {
+    ReversiModelStatus status = new ReversiModelStatus();
+    MutableReversiModel model = size < 0 ? ModelCreator.create(type, status)
+        : ModelCreator.create(type, size, status);
+    model.startGame();
+    while (!model.isGameOver()) {
+      RepresentativeColor turn = model.getTurn();
+      if (model.hasToPass()) {
+        model.makePass(turn);
+        continue;
+      }
+      boolean firstMoves = turn == firstColor;
+      long start = System.nanoTime();
+      RowColPair position = (firstMoves ? firstStrategy : secondStrategy)
+          .choosePosition(model, turn);
+      (firstMoves ? results.firstTimes : results.secondTimes).add(System.nanoTime() - start);
+      model.placeMove(position, turn);
+    }
+    int margin = model.getScore(firstColor) - model.getScore(firstColor.getOpposite());
+    results.margins += margin;
+    if (margin > 0) {
+      results.wins++;
+    } else if (margin == 0) {
+      results.draws++;
+    } else {
+      results.losses++;
+    }
+  }
+
+  /**
+   * The results of the games of a batch, counted for the first difficulty.
+   */
+  final class Results {
+    private final List<Long> firstTimes = new ArrayList<>();
+    private final List<Long> secondTimes = new ArrayList<>();
+    private int wins;
+    private int draws;
+    private int losses;
+    private long margins;
+
+    /**
+     * Add the results of other games to these ones.
+     */
+    private void add(Results other) {
+      firstTimes.addAll(other.firstTimes);
+      secondTimes.addAll(other.secondTimes);
+      wins += other.wins;
+      draws += other.draws;
+      losses += other.losses;
+      margins += other.margins;
+    }
+
+    /**
+     * Get the number of games the first difficulty won.
+     *
+     * @return the number of wins
+     */
+    int getWins() {
+      return wins;
+    }
+
+    /**
+     * Get the number of games that ended in a tie.
+     *
+     * @return the number of draws
+     */
+    int getDraws() {
+      return draws;
+    }
+
+    /**
+     * Get the number of games the first difficulty lost.
+     *
+     * @return the number of losses
+     */
+    int getLosses() {
+      return losses;
+    }
+
+    /**
+     * Get the number of moves of one of the difficulties, the passes excluded.
+     *
+     * @param firstDifficulty whether to count the moves of the first difficulty
+     * @return the number of moves
+     */
+    int getMoves(boolean firstDifficulty) {
+      return (firstDifficulty ? firstTimes : secondTimes).size();
+    }
+
+    /**
+     * Print the report of the games.
+     *
+     * @param out where to print the report
+     */
+    void print(PrintStream out) {
+      out.printf("%s board, %s against %s, %d games on %d threads%n", type, first, second,
+          games, Math.min(games, threads));
+      out.printf("%s: %d wins, %d draws, %d losses, average margin %+.2f discs%n", first,
+          wins, draws, losses, (double) margins / games);
+      out.printf("%-12s %8s %10s %10s %10s %10s%n", "ms per move", "moves", "p50", "p90",
+          "p99", "max");
+      printTimes(out, first, firstTimes);
+      printTimes(out, second, secondTimes);
+    }
+
+    /**
+     * Print the percentiles of the time per move of one difficulty.
+     */
+    private void printTimes(PrintStream out, ReversiGame.Difficulty difficulty,
+                            List<Long> times) {
+      long[] sorted = times.stream().mapToLong(Long::longValue).toArray();
+      Arrays.sort(sorted);
+      out.printf("%-12s %8d %10.3f %10.3f %10.3f %10.3f%n", difficulty, sorted.length,
+          percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+          percentile(sorted, 100));
+    }
+
+    /**
+     * Get a percentile of sorted times, with the nearest rank, in milliseconds.
+     */
+    private double percentile(long[] sorted, int percent) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+      return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+  }
+}
@@ -0,0 +1,370 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import model.MutableReversiModel;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.ReversiModelStatus;
+import model.RowColPair;
+import view.TextBoardRenderer;
+
+/**
+ * Hosts many games of reversi at the same time, square and hex, for players connected over
+ * tcp. The players speak a protocol of one line of ascii text per request and per answer:
+ * <ul>
+ *   <li>NEW board [size] starts a game, answered by GAME id. The player who starts a game
+ *   plays both colors until another player joins it.</li>
+ *   <li>JOIN id makes the sender the white player of a game, answered by JOINED id to both
+ *   players.</li>
+ *   <li>MOVE id row col places a disc for the player to move, and PASS id passes, answered by
+ *   MOVED id row col and PASSED id to both players. When the game ends, both players also get
+ *   OVER id winner blackScore whiteScore, the winner being BLACK, WHITE or TIE, and the game is
+ *   closed.</li>
+ *   <li>BOARD id answers BOARD id and the board, in the layout of the textual views with /
+ *   between the lines.</li>
+ * </ul>
+ * A request that can not be carried out is answered by ERROR and the reason, and the game of
+ * a player who leaves is closed, the other player getting LEFT id. Boards are at most
+ * {@value #MAX_SIZE} cells wide, a player takes part in at most {@value #MAX_GAMES} games at
+ * a time, and a player who lets more answers wait than it could ever need is dropped, so that
+ * no player can take more than a bounded share of the memory and the time of the server.
+ * All the connections and games are served by one thread with a selector, which owns the
+ * models, so that no game needs a lock or a thread of its own: a game waiting for its players
+ * costs nothing but its board, and a move costs the time of the model to check and place it.
+ * For the same reason, the requests are carried out on the models directly rather than
+ * through a {@link controller.Controller} and its {@link view.Features} per player, which
+ * are made for views that are told of every change, and for players whose moves are chosen
+ * on their side: here the protocol is the view, and the remote player chooses.
+ */
+final class GameServer {
+  /**
+   * The widest board a game may be started on.
+   */
+  static final int MAX_SIZE = 64;
+
+  /**
+   * The most games a player takes part in at a time, started or joined.
+   */
+  static final int MAX_GAMES = 16;
+
+  private final Selector selector;
+  private final ServerSocketChannel server;
+  private final Map<Integer, Game> games;
+  private final Map<LineChannel, Set<Game>> players;
+  private final Set<LineChannel> unflushed;
+  private int lastId;
+  private volatile boolean running;
+
+  /**
+   * Construct the server, listening on the given address, which serves once
+   * {@link #serve()} is called.
+   *
+   * @param address the address, with port 0 for any free port
+   * @throws IOException if the address can not be listened on
+   */
+  GameServer(InetSocketAddress address) throws IOException {
+    selector = Selector.open();
+    server = ServerSocketChannel.open();
+    server.bind(address);
+    server.configureBlocking(false);
+    server.register(selector, SelectionKey.OP_ACCEPT);
+    games = new HashMap<>();
+    players = new HashMap<>();
+    unflushed = new LinkedHashSet<>();
+    running = true;
+  }
+
+  /**
+   * Get the port the server listens on.
+   *
+   * @return the port
+   */
+  int getPort() {
+    return server.socket().getLocalPort();
+  }
+
+  /**
+   * Serve the players until the server is stopped, then close every connection.
+   *
+   * @throws IOException if the server can not wait for the players any more
+   */
+  void serve() throws IOException {
+    try {
+      while (running) {
+        selector.select();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (key.isAcceptable()) {
+            accept();
+          } else {
+            serve((LineChannel) key.attachment(), key);
+          }
+        }
+        // leaving players may send to others, so the set is emptied one player at a time.
+        while (!unflushed.isEmpty()) {
+          Iterator<LineChannel> next = unflushed.iterator();
+          LineChannel player = next.next();
+          next.remove();
+          try {
+            if (players.containsKey(player)) {
+              player.flush();
+            }
+          } catch (IOException e) {
+            leave(player);
+          }
+        }
+      }
+    } finally {
+      for (SelectionKey key : selector.keys()) {
+        key.channel().close();
+      }
+      selector.close();
+    }
+  }
+
+  /**
+   * Stop the server, from any thread.
+   */
+  void stop() {
+    running = false;
+    selector.wakeup();
+  }
+
+  /**
+   * Accept a new player.
+   */
+  private void accept() throws IOException {
+    SocketChannel channel = server.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    channel.socket().setTcpNoDelay(true);
+    LineChannel player = new LineChannel(channel);
+    player.register(selector);
+    players.put(player, new LinkedHashSet<>());
+  }
+
+  /**
+   * Carry out the requests of a player, whose answers are sent to all the players concerned
+   * once the ready players have all been served.
+   */
+  private void serve(LineChannel player, SelectionKey key) {
+    if (!players.containsKey(player)) {
+      return;
+    }
+    unflushed.add(player);
+    try {
+      if (key.isReadable() && !player.read(line -> handle(player, line))) {
+        leave(player);
+      }
+    } catch (IOException e) {
+      leave(player);
+    }
+  }
+
+  /**
+   * Carry out one request of a player.
+   */
+  private void handle(LineChannel player, String line) {
+    String[] words = line.split(" ");
+    try {
+      switch (words[0]) {
+        case "NEW":
+          start(player, words);
+          break;
+        case "JOIN":
+          join(player, find(player, words, 2, false));
+          break;
+        case "MOVE": {
+          Game game = find(player, words, 4, true);
+          RowColPair pair = new RowColPair(Integer.parseInt(words[2]),
+              Integer.parseInt(words[3]));
+          game.model.placeMove(pair, game.model.getTurn());
+          send(game, "MOVED " + game.id + " " + pair.getRow() + " " + pair.getCol());
+          endIfOver(game);
+          break;
+        }
+        case "PASS": {
+          Game game = find(player, words, 2, true);
+          game.model.makePass(game.model.getTurn());
+          send(game, "PASSED " + game.id);
+          endIfOver(game);
+          break;
+        }
+        case "BOARD": {
+          Game game = find(player, words, 2, false);
+          send(player, "BOARD " + game.id + " "
+              + TextBoardRenderer.of(game.model).render(game.model).replace('\n', '/'));
+          break;
+        }
+        default:
+          throw new IllegalArgumentException("Unknown request " + words[0]);
+      }
+    } catch (RuntimeException e) {
+      // a request that fails only fails for its sender, never for the other games.
+      send(player, "ERROR " + e.getMessage());
+    }
+  }
+
+  /**
+   * Start a game for a player, who plays both colors until another player joins.
+   */
+  private void start(LineChannel player, String[] words) {
+    if (words.length != 2 && words.length != 3) {
+      throw new IllegalArgumentException("NEW needs a board type and optionally a size");
+    }
+    ReadOnlyReversiModel.ModelType type = ReadOnlyReversiModel.ModelType.valueOf(words[1]);
+    if (words.length == 3 && Integer.parseInt(words[2]) > MAX_SIZE) {
+      throw new IllegalArgumentException("Boards are at most " + MAX_SIZE + " cells wide");
+    }
+    checkGames(player);
+    MutableReversiModel model = words.length == 2
+        ? ModelCreator.create(type, new ReversiModelStatus())
+        : ModelCreator.create(type, Integer.parseInt(words[2]), new ReversiModelStatus());
+    model.startGame();
+    Game game = new Game(++lastId, model, player);
+    games.put(game.id, game);
+    players.get(player).add(game);
+    send(player, "GAME " + game.id);
+  }
+
+  /**
+   * Make a player the white player of a game.
+   */
+  private void join(LineChannel player, Game game) {
+    if (game.black != game.white || game.black == player) {
+      throw new IllegalStateException("Game " + game.id + " can not be joined");
+    }
+    checkGames(player);
+    game.white = player;
+    players.get(player).add(game);
+    send(game, "JOINED " + game.id);
+  }
+
+  /**
+   * Check that a player may take part in one more game.
+   */
+  private void checkGames(LineChannel player) {
+    if (players.get(player).size() >= MAX_GAMES) {
+      throw new IllegalStateException("At most " + MAX_GAMES + " games at a time");
+    }
+  }
+
+  /**
+   * Find the game a request is about.
+   *
+   * @param words the words of the request, the id of the game being the second one
+   * @param count the number of words of the request
+   * @param move  whether the request is a move, which only the player to move may make
+   * @return the game
+   */
+  private Game find(LineChannel player, String[] words, int count, boolean move) {
+    if (words.length != count) {
+      throw new IllegalArgumentException(words[0] + " needs " + (count - 1) + " arguments");
+    }
+    Game game = games.get(Integer.parseInt(words[1]));
+    if (game == null) {
+      throw new IllegalArgumentException("No game " + words[1]);
+    }
+    if (move && (game.model.getTurn() == RepresentativeColor.BLACK ? game.black
+        : game.white) != player) {
+      throw new IllegalStateException("It's not your turn");
+    }
+    return game;
+  }
+
+  /**
+   * Tell the players of a game that it is over, and close it, if it is.
+   */
+  private void endIfOver(Game game) {
+    if (!game.model.isGameOver()) {
+      return;
+    }
+    RepresentativeColor winner = game.model.getWinner();
+    send(game, "OVER " + game.id + " " + (winner == null ? "TIE" : winner.name()) + " "
+        + game.model.getScore(RepresentativeColor.BLACK) + " "
+        + game.model.getScore(RepresentativeColor.WHITE));
+    close(game);
+  }
+
+  /**
+   * Send a line to a player at the next flush.
+   */
+  private void send(LineChannel player, String line) {
+    player.send(line);
+    unflushed.add(player);
+  }
+
+  /**
+   * Send a line to the players of a game, once to a player playing both colors.
+   */
+  private void send(Game game, String line) {
+    send(game.black, line);
+    if (game.white != game.black) {
+      send(game.white, line);
+    }
+  }
+
+  /**
+   * Drop a player who left, and close their games.
+   */
+  private void leave(LineChannel player) {
+    Set<Game> left = players.remove(player);
+    if (left == null) {
+      return;
+    }
+    player.close();
+    for (Game game : new ArrayList<>(left)) {
+      LineChannel other = game.black == player ? game.white : game.black;
+      close(game);
+      if (other != player) {
+        send(other, "LEFT " + game.id);
+      }
+    }
+  }
+
+  /**
+   * Close a game.
+   */
+  private void close(Game game) {
+    games.remove(game.id);
+    for (LineChannel player : new LineChannel[] {game.black, game.white}) {
+      Set<Game> played = players.get(player);
+      if (played != null) {
+        played.remove(game);
+      }
+    }
+  }
+
+  /**
+   * A game being played, and its players.
+   */
+  private static final class Game {
+    private final int id;
+    private final MutableReversiModel model;
+    private final LineChannel black;
+    private LineChannel white;
+
+    /**
+     * Construct a game whose both colors are played by the player who started it.
+     */
+    private Game(int id, MutableReversiModel model, LineChannel player) {
+      this.id = id;
+      this.model = model;
+      this.black = player;
+      this.white = player;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking socket channel that reads and writes lines of ascii text, for the protocol of
+ * the {@link GameServer}. The lines read are handed over as soon as they are complete, however
+ * the bytes were split over the reads, and the lines sent are kept in a buffer until the
+ * channel takes them, so that many requests may be sent before their answers come back.
+ */
+final class LineChannel {
+  /**
+   * The longest line accepted, much longer than any line of the protocol.
+   */
+  private static final int MAX_LINE = 1024;
+
+  /**
+   * The most bytes kept waiting for the other side to read them, far more than the answers to
+   * any number of requests a player reading its answers has in flight.
+   */
+  private static final int MAX_PENDING = 1 << 20;
+
+  private final SocketChannel channel;
+  private final ByteBuffer in;
+  private final StringBuilder line;
+  private ByteBuffer out;
+  private SelectionKey key;
+  private boolean overflowed;
+
+  /**
+   * Construct the line channel over a socket channel.
+   *
+   * @param channel the socket channel, in non-blocking mode
+   */
+  LineChannel(SocketChannel channel) {
+    this.channel = channel;
+    in = ByteBuffer.allocate(8192);
+    line = new StringBuilder();
+    out = ByteBuffer.allocate(8192);
+  }
+
+  /**
+   * Register the channel in a selector, to be told when it can be read.
+   *
+   * @param selector the selector
+   * @throws IOException if the channel is closed
+   */
+  void register(Selector selector) throws IOException {
+    key = channel.register(selector, SelectionKey.OP_READ, this);
+  }
+
+  /**
+   * Read what the channel has, and hand over every line completed by it, without its line
+   * break.
+   *
+   * @param lines takes the lines read
+   * @return false if the other side closed the connection
+   * @throws IOException if reading fails, or a line is too long
+   */
+  boolean read(Consumer<String> lines) throws IOException {
+    int read;
+    while ((read = channel.read(in)) > 0) {
+      in.flip();
+      while (in.hasRemaining()) {
+        char c = (char) (in.get() & 0xff);
+        if (c == '\n') {
+          int end = line.length();
+          if (end > 0 && line.charAt(end - 1) == '\r') {
+            line.setLength(end - 1);
+          }
+          lines.accept(line.toString());
+          line.setLength(0);
+        } else if (line.length() == MAX_LINE) {
+          throw new IOException("Line too long");
+        } else {
+          line.append(c);
+        }
+      }
+      in.clear();
+    }
+    return read >= 0;
+  }
+
+  /**
+   * Add a line to send, which is sent at the next flush. When the other side lets too many
+   * lines wait, the line is dropped and the next flush fails.
+   *
+   * @param text the line, without its line break
+   */
+  void send(String text) {
+    if (overflowed || out.position() + text.length() + 1 > MAX_PENDING) {
+      overflowed = true;
+      return;
+    }
+    if (out.remaining() < text.length() + 1) {
+      ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * out.capacity(),
+          out.position() + text.length() + 1));
+      out.flip();
+      out = bigger.put(out);
+    }
+    for (int i = 0; i < text.length(); i++) {
+      out.put((byte) text.charAt(i));
+    }
+    out.put((byte) '\n');
+  }
+
+  /**
+   * Write as many of the lines to send as the channel takes, and ask the selector to tell when
+   * the channel can take the rest, if any are left.
+   *
+   * @throws IOException if writing fails, or the other side let too many lines wait
+   */
+  void flush() throws IOException {
+    if (overflowed) {
+      throw new IOException("Too many lines waiting to be read");
+    }
+    out.flip();
+    channel.write(out);
+    out.compact();
+    key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+        : SelectionKey.OP_READ);
+  }
+
+  /**
+   * Close the channel.
+   */
+  void close() {
+    key.cancel();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // the connection is dropped either way.
+    }
+  }
+}
@@ -0,0 +1,274 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import model.MutableReversiModel;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.ReversiModelStatus;
+import model.RowColPair;
+import strategy.AnyOpenTileStrategy;
+import strategy.FallibleStrategy;
+
+/**
+ * Loads a {@link GameServer} with many games played at the same time, to measure how many
+ * moves it carries out per second and how long a player waits for the answer to a move. Every
+ * connection starts its share of the games at once, and plays both colors of each of them,
+ * one move at a time per game, with the first legal move it finds on a copy of the board it
+ * keeps up to date from the answers, so that choosing a move costs little next to the server.
+ * All the connections are driven by one thread with a selector.
+ */
+final class LoadGenerator {
+  private final InetSocketAddress address;
+  private final ReadOnlyReversiModel.ModelType type;
+  private final int size;
+  private final int connections;
+  private final int games;
+  private final FallibleStrategy strategy;
+  private long[] latencies;
+  private int moves;
+  private int finished;
+
+  /**
+   * Construct the load of games.
+   *
+   * @param address     the address of the server
+   * @param type        the type of the boards
+   * @param size        the size of the boards, or -1 for the default size of the type
+   * @param connections the number of connections to the server
+   * @param games       the number of games played on each connection at the same time, at
+   *                    most {@link GameServer#MAX_GAMES}
+   * @throws IllegalArgumentException if there are no connections, or no games or more games
+   *                                  than a player of the server may play at a time
+   */
+  LoadGenerator(InetSocketAddress address, ReadOnlyReversiModel.ModelType type, int size,
+                int connections, int games) {
+    if (connections < 1 || games < 1 || games > GameServer.MAX_GAMES) {
+      throw new IllegalArgumentException("A load needs at least one connection, and between "
+          + "one and " + GameServer.MAX_GAMES + " games per connection");
+    }
+    this.address = address;
+    this.type = type;
+    this.size = size;
+    this.connections = connections;
+    this.games = games;
+    this.strategy = new AnyOpenTileStrategy();
+  }
+
+  /**
+   * Construct the load of games from the command line.
+   *
+   * @param args the host and port of the server, the type of the boards, the number of
+   *             connections, the number of games per connection, and optionally the size of
+   *             the boards, example: localhost 7531 SQUARE 100 10 8
+   * @return the load of games
+   * @throws IllegalArgumentException if the arguments are invalid or incomplete
+   */
+  static LoadGenerator fromArgs(String[] args) {
+    if (args.length != 5 && args.length != 6) {
+      throw new IllegalArgumentException("A load needs a host, a port, a board type, a number "
+          + "of connections, a number of games per connection and optionally a size");
+    }
+    return new LoadGenerator(new InetSocketAddress(args[0], Integer.parseInt(args[1])),
+        ReadOnlyReversiModel.ModelType.valueOf(args[2].toUpperCase()),
+        args.length == 6 ? Integer.parseInt(args[5]) : -1,
+        Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+  }
+
+  /**
+   * Play all the games, and wait for them to end.
+   *
+   * @return the results of the load
+   * @throws IOException           if the server can not be reached or drops a connection
+   * @throws IllegalStateException if the server refuses a request
+   */
+  Results run() throws IOException {
+    latencies = new long[1024];
+    moves = 0;
+    finished = 0;
+    long start = System.nanoTime();
+    Map<LineChannel, Connection> opened = new HashMap<>();
+    try (Selector selector = Selector.open()) {
+      for (int i = 0; i < connections; i++) {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(new LineChannel(channel));
+        connection.channel.register(selector);
+        opened.put(connection.channel, connection);
+        for (int game = 0; game < games; game++) {
+          connection.channel.send(size < 0 ? "NEW " + type : "NEW " + type + " " + size);
+        }
+        connection.channel.flush();
+      }
+      while (finished < connections * games) {
+        selector.select();
+        for (SelectionKey key : selector.selectedKeys()) {
+          Connection connection = opened.get((LineChannel) key.attachment());
+          if (key.isReadable() && !connection.channel.read(connection::answer)) {
+            throw new IOException("The server closed a connection");
+          }
+          connection.channel.flush();
+        }
+        selector.selectedKeys().clear();
+      }
+    } finally {
+      for (LineChannel channel : opened.keySet()) {
+        channel.close();
+      }
+    }
+    return new Results(System.nanoTime() - start);
+  }
+
+  /**
+   * Count the answer to a move, which took the given time.
+   */
+  private void count(long latency) {
+    if (moves == latencies.length) {
+      latencies = Arrays.copyOf(latencies, 2 * moves);
+    }
+    latencies[moves++] = latency;
+  }
+
+  /**
+   * A connection to the server, and the games played on it.
+   */
+  private final class Connection {
+    private final LineChannel channel;
+    private final Map<Integer, MutableReversiModel> boards;
+    private final Map<Integer, Long> sent;
+
+    /**
+     * Construct the connection.
+     */
+    private Connection(LineChannel channel) {
+      this.channel = channel;
+      boards = new HashMap<>();
+      sent = new HashMap<>();
+    }
+
+    /**
+     * Follow an answer of the server, and play the next move of its game.
+     */
+    private void answer(String line) {
+      String[] words = line.split(" ");
+      int id = words.length > 1 ? Integer.parseInt(words[1]) : 0;
+      switch (words[0]) {
+        case "GAME": {
+          MutableReversiModel board = size < 0
+              ? ModelCreator.create(type, new ReversiModelStatus())
+              : ModelCreator.create(type, size, new ReversiModelStatus());
+          board.startGame();
+          boards.put(id, board);
+          play(id, board);
+          break;
+        }
+        case "MOVED": {
+          count(System.nanoTime() - sent.remove(id));
+          MutableReversiModel board = boards.get(id);
+          board.placeMove(new RowColPair(Integer.parseInt(words[2]),
+              Integer.parseInt(words[3])), board.getTurn());
+          play(id, board);
+          break;
+        }
+        case "PASSED": {
+          count(System.nanoTime() - sent.remove(id));
+          MutableReversiModel board = boards.get(id);
+          board.makePass(board.getTurn());
+          play(id, board);
+          break;
+        }
+        case "OVER":
+          boards.remove(id);
+          finished++;
+          break;
+        default:
+          throw new IllegalStateException("The server answered " + line);
+      }
+    }
+
+    /**
+     * Send the next move of a game, unless it is over.
+     */
+    private void play(int id, MutableReversiModel board) {
+      if (board.isGameOver()) {
+        return;
+      }
+      RepresentativeColor turn = board.getTurn();
+      Optional<RowColPair> move = strategy.choosePosition(board, turn);
+      sent.put(id, System.nanoTime());
+      if (move.isPresent()) {
+        channel.send("MOVE " + id + " " + move.get().getRow() + " " + move.get().getCol());
+      } else {
+        channel.send("PASS " + id);
+      }
+    }
+  }
+
+  /**
+   * The results of a load: how many moves the server carried out per second, and the
+   * percentiles of the time the answer to each of them took.
+   */
+  final class Results {
+    private final long elapsed;
+    private final long[] sorted;
+
+    /**
+     * Construct the results of a load that took the given time, in nanoseconds.
+     */
+    private Results(long elapsed) {
+      this.elapsed = elapsed;
+      sorted = Arrays.copyOf(latencies, moves);
+      Arrays.sort(sorted);
+    }
+
+    /**
+     * Get the number of games played to their end.
+     *
+     * @return the number of games
+     */
+    int getGames() {
+      return finished;
+    }
+
+    /**
+     * Get the number of moves answered, the passes included.
+     *
+     * @return the number of moves
+     */
+    int getMoves() {
+      return sorted.length;
+    }
+
+    /**
+     * Print the report of the load.
+     *
+     * @param out where to print the report
+     */
+    void print(PrintStream out) {
+      double seconds = elapsed / 1e9;
+      out.printf("%s board, %d games on %d connections, %d moves in %.2f s, %.0f moves/s%n",
+          type, finished, connections, sorted.length, seconds, sorted.length / seconds);
+      out.printf("%-12s %10s %10s %10s %10s%n", "ms per move", "p50", "p90", "p99", "max");
+      out.printf("%-12s %10.3f %10.3f %10.3f %10.3f%n", "latency", percentile(50),
+          percentile(90), percentile(99), percentile(100));
+    }
+
+    /**
+     * Get a percentile of the times, with the nearest rank, in milliseconds.
+     */
+    private double percentile(int percent) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+      return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+  }
+}
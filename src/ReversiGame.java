@@ -1,5 +1,18 @@
 import controller.Controller;
 import controller.ControllerListeners;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
 import model.ModelStatus;
 import model.MutableReversiModel;
 import model.Player;
@@ -8,12 +21,23 @@ import model.ReversiAiPlayer;
 import model.ReversiHumanPlayer;
 import model.ReversiModelStatus;
 import strategy.AvoidCellsNextToCornersStrategy;
+import strategy.BudgetedStrategy;
 import strategy.CaptureMaxPieces;
 import strategy.CompleteStrategy;
 import strategy.CompositeStrategy;
 import strategy.CornerStrategy;
+import strategy.EndgameStrategy;
+import strategy.FallibleStrategy;
 import strategy.InfallibleStrategy;
-import strategy.MinimaxStrategy;
+import strategy.InstrumentedStrategy;
+import strategy.MctsStrategy;
+import strategy.OpeningBookStrategy;
+import strategy.PonderingStrategy;
+import strategy.PvsStrategy;
+import strategy.SearchBudget;
+import strategy.SearchStats;
+import view.AnsiTerminalView;
+import view.IView;
 import view.ReversiGraphicView;
 
 /**
@@ -25,11 +49,29 @@ import view.ReversiGraphicView;
  * our most simple strategy, it will only looking for the position that can capture most
  * piece, medium is based on the easy strategy and it will also prefer to take the corner
  * positions first. For the medium plus, it not only has the behavior for the medium strategy,
- * it also AvoidCellsNextToCorners Finally, for the hard level, this strategy is minimax ,
- * which means it will simulate the action and then take the best action.
+ * it also AvoidCellsNextToCorners Finally, for the hard level, this strategy searches ahead
+ * as deep as it can in about a second, which means it will simulate the action and then take
+ * the best action. Medium plus and hard both solve the end of the game exactly once few empty
+ * cells are left, within a budget of positions and time, so that every level answers in a
+ * bounded time on any board size. Starting the arguments with batch plays many games between
+ * two difficulties without any window instead, see {@link BatchGames}, and starting them with
+ * terminal plays the game in the terminal, see {@link AnsiTerminalView}. Starting them with
+ * server hosts games for players over the network, see {@link GameServer}, and starting them
+ * with load measures such a server, see {@link LoadGenerator}.
  */
 public class ReversiGame {
 
+  /**
+   * The thread the Ai players search on, so that the Swing event dispatch thread keeps
+   * painting and handling input while they think. The chosen moves are placed back on the
+   * event dispatch thread, which owns the model and the views.
+   */
+  private static final Executor AI_EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+    Thread thread = new Thread(task, "ai");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   /**
    * The main method for starting a Reversi game based on command-line arguments.
    * It initializes players, board type, and size based on the provided arguments,
@@ -38,9 +80,35 @@ public class ReversiGame {
    * @param args Command-line arguments containing board type, players, and optionally size.
    *             The expected format is: [BoardType] [Player1Type] [Player2Type] [Size (optional)]
    *             Example: SQUARE HUMAN COMPUTER 8
+   *             With BATCH first, the format is: BATCH [BoardType] [Difficulty] [Difficulty]
+   *             [Games] [Size (optional)], example: BATCH SQUARE HARD MEDIUM 100 8
+   *             With TERMINAL first, the other arguments are the same as for a window,
+   *             example: TERMINAL HEX HUMAN HARD 6
+   *             With SERVER first, the format is: SERVER [Port], example: SERVER 7531
+   *             With LOAD first, the format is: LOAD [Host] [Port] [BoardType] [Connections]
+   *             [Games per connection] [Size (optional)], example: LOAD localhost 7531 HEX
+   *             100 10 6
    * @throws IllegalArgumentException If the command line arguments are invalid or incomplete.
+   * @throws IOException              If the server can not listen on its port, or the load
+   *                                  can not reach the server.
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
+    if (args.length > 0 && args[0].equalsIgnoreCase("BATCH")) {
+      BatchGames.fromArgs(Arrays.copyOfRange(args, 1, args.length)).play().print(System.out);
+      return;
+    }
+    if (args.length == 2 && args[0].equalsIgnoreCase("SERVER")) {
+      new GameServer(new InetSocketAddress(Integer.parseInt(args[1]))).serve();
+      return;
+    }
+    if (args.length > 0 && args[0].equalsIgnoreCase("LOAD")) {
+      LoadGenerator.fromArgs(Arrays.copyOfRange(args, 1, args.length)).run().print(System.out);
+      return;
+    }
+    boolean terminal = args.length > 0 && args[0].equalsIgnoreCase("TERMINAL");
+    if (terminal) {
+      args = Arrays.copyOfRange(args, 1, args.length);
+    }
     Player player1 = new ReversiHumanPlayer();
     Player player2 = new ReversiHumanPlayer();
     if (args.length != 3 && args.length != 4) {
@@ -57,11 +125,11 @@ public class ReversiGame {
           continue;
         }
         case 1: {
-          player1 = generatePlayer(type);
+          player1 = generatePlayer(type, terminal);
           continue;
         }
         case 2: {
-          player2 = generatePlayer(type);
+          player2 = generatePlayer(type, terminal);
           continue;
         }
         case 3: {
@@ -80,25 +148,56 @@ public class ReversiGame {
     } else {
       model = ModelCreator.create(modelType, size, status);
     }
+    if (terminal) {
+      playInTerminal(model, player1, player2, status);
+      return;
+    }
     ReversiGraphicView view = new ReversiGraphicView(model);
     ReversiGraphicView view2 = new ReversiGraphicView(model);
-    Controller controller = new Controller(model, view, player1, status);
-    Controller controller2 = new Controller(model, view2, player2, status);
+    Controller controller = new Controller(model, view, player1, status,
+        SwingUtilities::invokeLater);
+    Controller controller2 = new Controller(model, view2, player2, status,
+        SwingUtilities::invokeLater);
     ControllerListeners listeners = new ControllerListeners();
     listeners.register(controller);
     listeners.register(controller2);
     model.addListener(listeners);
-    model.startGame();
+    SwingUtilities.invokeLater(model::startGame);
   }
 
-  private static Player generatePlayer(String type) {
+  /**
+   * Play the game in the terminal, on one view shared by the human players, whose keys are
+   * read on the thread of the view. The game is started on that thread too, and the Ai players
+   * choose their moves on it, right after the move they answer, so that the model is only
+   * changed by one thread, the first move of an Ai player included.
+   */
+  private static void playInTerminal(MutableReversiModel model, Player player1, Player player2,
+                                     ModelStatus status) {
+    Writer out = new PrintWriter(System.out);
+    AnsiTerminalView terminal = new AnsiTerminalView(model,
+        new InputStreamReader(System.in), out);
+    // a game between two Ai players is watched through the view of the first of them.
+    boolean watched = !(player1 instanceof ReversiHumanPlayer)
+        && !(player2 instanceof ReversiHumanPlayer);
+    ControllerListeners listeners = new ControllerListeners();
+    for (Player player : new Player[] {player1, player2}) {
+      IView view = player instanceof ReversiHumanPlayer || watched && player == player1
+          ? terminal : new AnsiTerminalView(model, null, Writer.nullWriter());
+      listeners.register(new Controller(model, view, player, status));
+    }
+    model.addListener(listeners);
+    terminal.runBeforeKeys(model::startGame);
+  }
+
+  private static Player generatePlayer(String type, boolean terminal) {
     Player player = new ReversiHumanPlayer();
     if (type.equals("HUMAN")) {
       player = new ReversiHumanPlayer();
     } else {
       try {
         InfallibleStrategy strategy = Difficulty.valueOf(type).getStrategy();
-        player = new ReversiAiPlayer(strategy);
+        player = terminal ? new ReversiAiPlayer(strategy)
+            : new ReversiAiPlayer(strategy, AI_EXECUTOR, null);
       } catch (IllegalArgumentException e) {
         throw new IllegalArgumentException("No such type of game player supported");
       }
@@ -116,37 +215,84 @@ public class ReversiGame {
      * our most simple strategy, it will only looking for the position that can capture most
      * * piece.
      */
-    EASY(new CompleteStrategy(new CaptureMaxPieces())),
+    EASY(CaptureMaxPieces::new),
 
     /**
      * medium is based on the easy strategy and it will also prefer to take the corner
      * positions first.
      */
-    MEDIUM(new CompleteStrategy(new CompositeStrategy(new CornerStrategy(),
-        new CaptureMaxPieces()))),
+    MEDIUM(() -> new CompositeStrategy(new CornerStrategy(), new CaptureMaxPieces())),
 
     /**
      * For the medium plus, it not only has the behavior for the medium strategy,
-     * it also AvoidCellsNextToCorners.
+     * it also AvoidCellsNextToCorners, and it plays perfectly once 10 cells are left, when
+     * the game can be solved within 100000 positions and 100 milliseconds.
      */
-    MEDIUMPLUS(new CompleteStrategy(new CompositeStrategy(new CompositeStrategy(
-        new CornerStrategy(), new AvoidCellsNextToCornersStrategy()), new CaptureMaxPieces()))),
+    MEDIUMPLUS(() -> new BudgetedStrategy(new EndgameStrategy(new CompositeStrategy(
+        new CompositeStrategy(new CornerStrategy(), new AvoidCellsNextToCornersStrategy()),
+        new CaptureMaxPieces()), 10), new SearchBudget(100_000, Duration.ofMillis(100)))),
 
     /**
-     * for the hard level, this strategy is minimax ,
-     * which means it will simulate the action and then take the best action.
+     * for the hard level, this strategy searches one more ply at a time with a principal
+     * variation search until it has visited 2000000 positions or spent a second, and plays the
+     * best move of the deepest search, which means it will simulate the action and then take
+     * the best action, once 14 cells are left, it solves the rest of the game within the same
+     * budget and plays perfectly. The first moves are taken from the opening books of the
+     * directory named by the reversi.books property, "books" by default, when a book of the
+     * board exists there. It keeps searching while the opponent moves, so that its replies
+     * to the expected moves come almost at once.
      */
-    HARD(new CompleteStrategy(new MinimaxStrategy()));
+    HARD(() -> new OpeningBookStrategy(
+        Paths.get(System.getProperty("reversi.books", "books")),
+        new BudgetedStrategy(new EndgameStrategy(new PvsStrategy(PvsStrategy.MAX_DEPTH), 14),
+            new SearchBudget(2_000_000, Duration.ofSeconds(1)))), true),
 
+    /**
+     * the monte carlo level plays many random games from the current position for a second,
+     * on every core, and plays the move that won the most often. It needs no evaluation and
+     * its strength does not depend on how far it can search, so it is the level for the big
+     * hex boards, where the searches of the other levels only see a few moves ahead. The tree
+     * of random games is kept from one move to the next.
+     */
+    MONTECARLO(MctsStrategy::new);
+
+    private final Supplier<FallibleStrategy> factory;
+    private final InstrumentedStrategy instrumented;
     private final InfallibleStrategy strategy;
 
     /**
-     * Every level of difficulty will has a corresponding strategy.
+     * Every level of difficulty will has a corresponding strategy. The decisions of the strategy
+     * are measured, and their statistics are printed to the standard error when the
+     * reversi.stats property is true.
+     *
+     * @param factory makes the corresponding strategy
+     */
+    Difficulty(Supplier<FallibleStrategy> factory) {
+      this(factory, false);
+    }
+
+    /**
+     * Every level of difficulty will has a corresponding strategy, which may keep searching
+     * while the opponent moves.
+     *
+     * @param factory makes the corresponding strategy, without pondering
+     * @param ponders whether the strategy of the games keeps searching while the opponent moves
+     */
+    Difficulty(Supplier<FallibleStrategy> factory, boolean ponders) {
+      this.factory = factory;
+      this.instrumented = new InstrumentedStrategy(name(),
+          ponders ? new PonderingStrategy(factory.get()) : factory.get(),
+          Boolean.getBoolean("reversi.stats") ? System.err::println : stats -> { });
+      this.strategy = new CompleteStrategy(instrumented);
+    }
+
+    /**
+     * get the statistics of the last move chosen at this difficulty.
      *
-     * @param strategy the corresponding strategy
+     * @return the statistics, or empty if no move was chosen yet
      */
-    Difficulty(InfallibleStrategy strategy) {
-      this.strategy = strategy;
+    public Optional<SearchStats> getLastStats() {
+      return instrumented.getLastStats();
     }
 
     /**
@@ -157,6 +303,20 @@ public class ReversiGame {
     public InfallibleStrategy getStrategy() {
       return strategy;
     }
+
+    /**
+     * make a new strategy of this difficulty, which shares nothing with the other strategies of
+     * it, so that games played at the same time do not get in the way of each other. The new
+     * strategy never ponders: when both players are strategies of one thread, the opponent
+     * takes no time to ponder in, and the background search would only take a core from the
+     * other games and leave a thread behind. The decisions of the new strategy are not
+     * measured.
+     *
+     * @return the new strategy
+     */
+    public InfallibleStrategy newStrategy() {
+      return new CompleteStrategy(factory.get());
+    }
   }
 
 }
@@ -1,6 +1,11 @@
 package controller;
 
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
 import model.ModelStatus;
 import model.MutableReversiModel;
 import model.Player;
@@ -19,6 +24,8 @@ public final class Controller implements Features {
   private final IView view;
   private final Player player;
   private final ModelStatus status;
+  private final Executor moveExecutor;
+  private CompletableFuture<Optional<RowColPair>> pendingMove;
 
   /**
    * Construct the controller with given parameters.
@@ -30,6 +37,27 @@ public final class Controller implements Features {
    */
   public Controller(MutableReversiModel model, IView view, Player player,
                     ModelStatus status) {
+    this(model, view, player, status, Runnable::run);
+  }
+
+  /**
+   * Construct the controller with given parameters, placing the moves chosen by an Ai player
+   * with the given executor. The Ai player may choose its move on another thread, so the
+   * executor hands the move back to the thread that owns the model and the view, such as the
+   * Swing event dispatch thread, before it is placed.
+   *
+   * @param model        the current model
+   * @param view         the current view
+   * @param player       the player that will interact with this controller
+   * @param status       the status that represents the most recent states of game
+   * @param moveExecutor the executor that places the moves chosen by an Ai player
+   */
+  public Controller(MutableReversiModel model, IView view, Player player,
+                    ModelStatus status, Executor moveExecutor) {
+    if (moveExecutor == null) {
+      throw new IllegalArgumentException("The executor of the moves can not be null");
+    }
+    this.moveExecutor = moveExecutor;
     this.model = model;
     this.view = view;
     this.view.addFeatures(this);
@@ -49,13 +77,28 @@ public final class Controller implements Features {
    */
   public void update() {
     view.update(model, player.getColor());
+    if (status.getStatus() == ModelStatus.Status.END) {
+      cancelPendingMove();
+    }
+  }
+
+  /**
+   * Stop the search of the Ai player for its next move, if it is still searching.
+   */
+  public void cancelPendingMove() {
+    if (pendingMove != null) {
+      pendingMove.cancel(true);
+    }
   }
 
   /**
    * If the current player is an Ai player, let it try to find next move and execute it or
    * make pass for it if there is no valid move exist in the game. Under this circumstance,
    * if we checked there exist valid move in this board but the strategy can not find it,
-   * it can only be some thing wrong with the strategy.
+   * it can only be some thing wrong with the strategy. The move is asked for without waiting,
+   * and placed once the player has chosen it, so that a slow search does not hold up the
+   * model; until the move is placed, asking again does nothing. The chosen move is placed
+   * through the executor of the moves of this controller.
    */
   public void tryToPlace() {
     if (status.getStatus() == ModelStatus.Status.END) {
@@ -69,17 +112,42 @@ public final class Controller implements Features {
         makePass();
         return;
       }
-      try {
-        Optional<RowColPair> pair = player.chooseNextMove(model);
-        if (pair.isPresent()) {
-          placeMove(pair.get());
-        } else {
-          view.showMessage("Some thing wrong with the Ai strategy");
-        }
-      } catch (IllegalStateException e) {
-        e.printStackTrace();
-        view.showMessage("Some thing wrong with the Ai strategy");
+      if (pendingMove != null) {
+        return;
       }
+      CompletableFuture<Optional<RowColPair>> move = player.chooseNextMoveAsync(model);
+      pendingMove = move;
+      move.whenCompleteAsync((pair, error) -> {
+        // the move stays pending until it is placed, not only until it is chosen.
+        if (pendingMove == move) {
+          pendingMove = null;
+          placeChosenMove(pair, error);
+        }
+      }, moveExecutor);
+    }
+  }
+
+  /**
+   * Place the move chosen by the Ai player, or report why there is none.
+   *
+   * @param pair  the chosen move, or null if the search failed
+   * @param error the reason of the failure, or null if the search succeeded
+   */
+  private void placeChosenMove(Optional<RowColPair> pair, Throwable error) {
+    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+    if (cause instanceof CancellationException) {
+      // the search was stopped on purpose, such as at the end of the game.
+      return;
+    }
+    if (cause instanceof TimeoutException) {
+      view.showMessage("The Ai strategy ran out of time");
+    } else if (cause != null) {
+      cause.printStackTrace();
+      view.showMessage("Some thing wrong with the Ai strategy");
+    } else if (pair.isPresent()) {
+      placeMove(pair.get());
+    } else {
+      view.showMessage("Some thing wrong with the Ai strategy");
     }
   }
 
@@ -10,10 +10,17 @@ import model.RepresentativeColor;
 
 /**
  * A ControllerListeners class represents a model listener of the controller, used to register as
- * a listener in the model.
+ * a listener in the model. A move placed while the controllers are being notified, such as the
+ * move of an Ai player answering the previous move, does not notify them again from inside the
+ * notification: it is only recorded, and the controllers are notified once more when the
+ * current notification is over. So a game between two Ai players is played turn after turn in
+ * one loop, whose stack does not grow with the length of the game, and the moves placed during
+ * one notification are shown by one update of the views.
  */
 public class ControllerListeners implements ModelListener {
   private final List<Controller> controllers;
+  private boolean notifying;
+  private boolean changed;
 
   /**
    * construct the ControllerListeners.
@@ -39,7 +46,7 @@ public class ControllerListeners implements ModelListener {
     * At the beginning of the game, assign the color for the players that the first player
     * join the game is placing black cell and the second player is placing white cell.
     * During the game, update the current game state to all the controller that shared the
-    * same model.
+    * same model, and notify them again if the model changed meanwhile.
     */
   @Override
   public void update() {
@@ -63,11 +70,23 @@ public class ControllerListeners implements ModelListener {
       // second player is placing white cell
       controllers.get(1).checkPlayer().assignColor(RepresentativeColor.WHITE);
     }
-    for (Controller c : controllers) {
-      c.update();
+    if (notifying) {
+      changed = true;
+      return;
     }
-    for (Controller c : controllers) {
-      c.tryToPlace();
+    notifying = true;
+    try {
+      do {
+        changed = false;
+        for (Controller c : controllers) {
+          c.update();
+        }
+        for (Controller c : controllers) {
+          c.tryToPlace();
+        }
+      } while (changed);
+    } finally {
+      notifying = false;
     }
   }
 }
@@ -21,6 +21,7 @@ public abstract class AbstractReversiModel implements MutableReversiModel {
   protected RepresentativeColor turn = null;
   protected List<ModelListener> listeners;
   protected boolean hasGameStarted = false;
+  private long version;
 
   /**
    * initialize the game with the given size. the 2 should be the smallest size for a board
@@ -162,10 +163,7 @@ public abstract class AbstractReversiModel implements MutableReversiModel {
     }
     passTimes++;
     turn = turn.getOpposite();
-    status.updateStatus(this);
-    for (ModelListener listener : listeners) {
-      listener.update();
-    }
+    notifyChanged();
   }
 
   /**
@@ -245,10 +243,7 @@ public abstract class AbstractReversiModel implements MutableReversiModel {
     }
     this.hasGameStarted = true;
     turn = RepresentativeColor.BLACK;
-    status.updateStatus(this);
-    for (ModelListener listener : listeners) {
-      listener.update();
-    }
+    notifyChanged();
   }
 
   @Override
@@ -281,4 +276,21 @@ public abstract class AbstractReversiModel implements MutableReversiModel {
   public void addListener(ModelListener listener) {
     listeners.add(listener);
   }
+
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Record that the game state changed: count a new version, update the status, and notify
+   * all the listeners.
+   */
+  protected void notifyChanged() {
+    version++;
+    status.updateStatus(this);
+    for (ModelListener listener : listeners) {
+      listener.update();
+    }
+  }
 }
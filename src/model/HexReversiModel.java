@@ -224,10 +224,7 @@ public final class HexReversiModel extends AbstractReversiModel {
       throw new IllegalStateException("Invalid move");
     }
     turn = turn.getOpposite();
-    status.updateStatus(this);
-    for (ModelListener listener : listeners) {
-      listener.update();
-    }
+    notifyChanged();
   }
 
 
@@ -97,6 +97,11 @@ final class MockModel implements MutableReversiModel {
     return model.getScore(color);
   }
 
+  @Override
+  public long getVersion() {
+    return model.getVersion();
+  }
+
   @Override
   public MutableReversiModel getDeepCopy(RepresentativeColor color) {
     return model.getDeepCopy(color);
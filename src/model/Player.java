@@ -1,6 +1,7 @@
 package model;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a player for a game of Reversi. Reversi games controller will assign each player
@@ -17,6 +18,22 @@ public interface Player {
    */
   Optional<RowColPair> chooseNextMove(ReadOnlyReversiModel model);
 
+  /**
+   * Ask the player to choose next possible move without waiting for it. By default, the move is
+   * chosen at once on the calling thread.
+   *
+   * @param model the current model
+   * @return the future position, empty if there is no valid move
+   */
+  default CompletableFuture<Optional<RowColPair>> chooseNextMoveAsync(
+      ReadOnlyReversiModel model) {
+    try {
+      return CompletableFuture.completedFuture(chooseNextMove(model));
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
   /**
    * get the color of the cell that this player will place.
    *
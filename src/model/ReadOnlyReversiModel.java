@@ -86,6 +86,16 @@ public interface ReadOnlyReversiModel {
    */
   int getScore(RepresentativeColor color);
 
+  /**
+   * Get the version of the game state: the number of times the model was changed by starting
+   * the game, placing a move or making a pass. Two calls returning the same version see the
+   * same board, turn and status, so what was computed from the model can be kept until its
+   * version changes.
+   *
+   * @return the version of the game state
+   */
+  long getVersion();
+
   /**
    * Get a copy of the game state in the current game.
    *
@@ -1,7 +1,10 @@
 package model;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import strategy.InfallibleStrategy;
 
 /**
@@ -10,15 +13,33 @@ import strategy.InfallibleStrategy;
 public final class ReversiAiPlayer implements Player {
   private RepresentativeColor color;
   private final InfallibleStrategy strategy;
+  private final Executor executor;
+  private final Duration timeLimit;
 
   /**
    * Construct the current player with the strategy the player will use for choose next move.
+   * The moves are chosen on the thread asking for them, without a time limit.
    *
    * @param strategy the strategy
    */
   public ReversiAiPlayer(InfallibleStrategy strategy) {
+    this(strategy, Runnable::run, null);
+  }
+
+  /**
+   * Construct the current player with the strategy the player will use for choose next move,
+   * chosen on the given executor when asked with {@link #chooseNextMoveAsync}.
+   *
+   * @param strategy  the strategy
+   * @param executor  the executor searching the moves
+   * @param timeLimit the time the strategy has for each move, or null for no limit
+   */
+  public ReversiAiPlayer(InfallibleStrategy strategy, Executor executor, Duration timeLimit) {
     Objects.requireNonNull(strategy);
+    Objects.requireNonNull(executor);
     this.strategy = strategy;
+    this.executor = executor;
+    this.timeLimit = timeLimit;
     color = null;
   }
 
@@ -43,6 +64,28 @@ public final class ReversiAiPlayer implements Player {
     return Optional.ofNullable(strategy.choosePosition(model, color));
   }
 
+  /**
+   * Choose the next move on the executor of this player. Cancelling the returned future stops
+   * the search, which frees the executor for the next one.
+   *
+   * @param model the model
+   * @return the future move, empty if the player has to pass
+   */
+  @Override
+  public CompletableFuture<Optional<RowColPair>> chooseNextMoveAsync(
+      ReadOnlyReversiModel model) {
+    CompletableFuture<RowColPair> search = strategy.choosePositionAsync(model, color, executor,
+        timeLimit);
+    CompletableFuture<Optional<RowColPair>> move = search.thenApply(Optional::ofNullable);
+    // cancelling the move does not reach the search it was derived from, so it is passed on.
+    move.whenComplete((pair, error) -> {
+      if (move.isCancelled()) {
+        search.cancel(true);
+      }
+    });
+    return move;
+  }
+
   @Override
   public RepresentativeColor getColor() {
     return color;
@@ -1,7 +1,5 @@
 package model;
 
-import java.util.Objects;
-
 /**
  * Represents row-column pair. Rows and cols are both zero-indexed. (0,0) means the middle cell
  * in our board.
@@ -59,9 +57,15 @@ public final class RowColPair implements Comparable<RowColPair> {
     return row == ((RowColPair) obj).getRow() && col == ((RowColPair) obj).getCol();
   }
 
+  /**
+   * Hash the coordinators as Objects.hash(row, col) does, without boxing them into an array,
+   * since cells are looked up on every render and every search.
+   *
+   * @return the hash code
+   */
   @Override
   public int hashCode() {
-    return Objects.hash(row, col);
+    return 31 * (31 + row) + col;
   }
 
   @Override
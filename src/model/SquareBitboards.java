@@ -0,0 +1,143 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * Move generation for the standard 8 x 8 square board, with the discs of each color kept as one
+ * 64 bit word. Bit {@code row * 8 + col} stands for the cell in the given row and column,
+ * counted from the top left corner. All the legal moves of a player are found at once with a
+ * Kogge-Stone fill in each direction, which takes three shift-and-mask steps per direction
+ * whatever the board looks like, instead of walking each direction from each empty cell. The
+ * discs flipped by a move are found the same way, starting from the move.
+ */
+final class SquareBitboards {
+  /**
+   * The side length of the boards these bitboards stand for.
+   */
+  static final int SIZE = 8;
+
+  private static final long NOT_LEFT_COLUMN = ~0x0101010101010101L;
+  private static final long NOT_RIGHT_COLUMN = ~0x8080808080808080L;
+
+  private SquareBitboards() {
+  }
+
+  /**
+   * Get the bit index of a cell of an 8 x 8 square model, whose coordinators are shifted so
+   * that (0, 0) is near the middle of the board.
+   *
+   * @param pair the cell
+   * @return the bit index
+   */
+  static int index(RowColPair pair) {
+    int offset = SIZE / 2 - 1;
+    return (pair.getRow() + offset) * SIZE + pair.getCol() + offset;
+  }
+
+  /**
+   * Get the discs of each color on a board.
+   *
+   * @param board the cells of an 8 x 8 square model
+   * @return the black discs and the white discs
+   */
+  static long[] of(Map<RowColPair, CellPiece> board) {
+    long[] discs = new long[2];
+    for (Map.Entry<RowColPair, CellPiece> entry : board.entrySet()) {
+      RepresentativeColor color = entry.getValue().getColor();
+      if (color == RepresentativeColor.BLACK) {
+        discs[0] |= 1L << index(entry.getKey());
+      } else if (color == RepresentativeColor.WHITE) {
+        discs[1] |= 1L << index(entry.getKey());
+      }
+    }
+    return discs;
+  }
+
+  /**
+   * Find all the legal moves of a player.
+   *
+   * @param own      the discs of the player
+   * @param opponent the discs of the opponent
+   * @return the empty cells where the player can place a disc
+   */
+  static long moves(long own, long opponent) {
+    long empty = ~(own | opponent);
+    long moves = 0;
+    for (SquareDirection direction : SquareDirection.values()) {
+      int shift = shift(direction);
+      long mask = mask(direction);
+      long run = fill(own, opponent & mask, shift) & ~own;
+      moves |= shift(run, shift) & mask & empty;
+    }
+    return moves;
+  }
+
+  /**
+   * Find the discs flipped in one direction by a move.
+   *
+   * @param own       the discs of the player
+   * @param opponent  the discs of the opponent
+   * @param move      the bit index of the move
+   * @param direction the direction to look at from the move
+   * @return the discs of the opponent flipped in that direction
+   */
+  static long flips(long own, long opponent, int move, SquareDirection direction) {
+    int shift = shift(direction);
+    long mask = mask(direction);
+    long run = fill(1L << move, opponent & mask, shift) & opponent;
+    if ((shift(run | 1L << move, shift) & mask & own) == 0) {
+      return 0;
+    }
+    return run;
+  }
+
+  /**
+   * Spread the given discs in one direction through the given cells, with the Kogge-Stone
+   * prefix: each step doubles the distance the discs have spread.
+   *
+   * @param discs   the discs to spread from
+   * @param through the cells to spread through, without the cells the shift wraps onto
+   * @param shift   the bit distance of one step in the direction
+   * @return the discs, and every cell reached from them through an unbroken run of the cells
+   */
+  private static long fill(long discs, long through, int shift) {
+    discs |= through & shift(discs, shift);
+    through &= shift(through, shift);
+    discs |= through & shift(discs, 2 * shift);
+    through &= shift(through, 2 * shift);
+    discs |= through & shift(discs, 4 * shift);
+    return discs;
+  }
+
+  /**
+   * Get the bit distance of one step in a direction.
+   *
+   * @param direction the direction
+   * @return the distance, positive when the step goes to a higher bit
+   */
+  private static int shift(SquareDirection direction) {
+    return direction.getRowOffset() * SIZE + direction.getLeftColOffset();
+  }
+
+  /**
+   * Get the cells that one step in a direction may land on without wrapping to the other side
+   * of the board.
+   *
+   * @param direction the direction
+   * @return the cells
+   */
+  private static long mask(SquareDirection direction) {
+    switch (direction.getLeftColOffset()) {
+      case 1:
+        return NOT_LEFT_COLUMN;
+      case -1:
+        return NOT_RIGHT_COLUMN;
+      default:
+        return -1L;
+    }
+  }
+
+  private static long shift(long bits, int shift) {
+    return shift > 0 ? bits << shift : bits >>> -shift;
+  }
+}
@@ -6,11 +6,15 @@ import java.util.Map;
 /**
  * The SquareReversiModel class represents a Reversi game model based on a square board.
  * It extends AbstractReversiModel and provides specific implementations for a square-shaped board.
- * This class is marked as final to prevent further extension.
+ * This class is marked as final to prevent further extension. On the standard 8 x 8 board, the
+ * moves are found with {@link SquareBitboards}, and on the other sizes by walking each direction
+ * from the cell.
  *
  * @see AbstractReversiModel
  */
 public final class SquareReversiModel extends AbstractReversiModel {
+  // the black and white discs as bitboards, or null until they are needed after a change.
+  private long[] discs;
 
   /**
    * Constructs a SquareReversiModel with the specified size and initial status.
@@ -137,11 +141,9 @@ public final class SquareReversiModel extends AbstractReversiModel {
     if (!canPlace) {
       throw new IllegalStateException("Invalid move");
     }
+    discs = null;
     turn = turn.getOpposite();
-    status.updateStatus(this);
-    for (ModelListener listener : listeners) {
-      listener.update();
-    }
+    notifyChanged();
   }
 
   @Override
@@ -151,6 +153,11 @@ public final class SquareReversiModel extends AbstractReversiModel {
 
   @Override
   protected boolean checkHasToPass() {
+    if (usesBitboards(turn)) {
+      long[] discs = getDiscs();
+      int own = turn == RepresentativeColor.BLACK ? 0 : 1;
+      return SquareBitboards.moves(discs[own], discs[1 - own]) == 0;
+    }
     for (RowColPair pair : board.keySet()) {
       if (board.get(pair).getColor() != RepresentativeColor.NONE) {
         continue;
@@ -175,12 +182,46 @@ public final class SquareReversiModel extends AbstractReversiModel {
     checkIfGameOver();
     checkCoordinators(pair);
     Map<ModelDirection, Integer> value = new HashMap<>();
+    if (usesBitboards(color)) {
+      long[] discs = getDiscs();
+      int own = color == RepresentativeColor.BLACK ? 0 : 1;
+      int move = SquareBitboards.index(pair);
+      for (SquareDirection direction : SquareDirection.values()) {
+        value.put(direction, Long.bitCount(
+            SquareBitboards.flips(discs[own], discs[1 - own], move, direction)));
+      }
+      return value;
+    }
     for (SquareDirection direction : SquareDirection.values()) {
       value.put(direction, checkFlip(pair, direction, color));
     }
     return value;
   }
 
+  /**
+   * Check if the moves of the given color can be found with bitboards: the board must be a
+   * complete 8 x 8 board, and the color one of the players.
+   *
+   * @param color the color to move
+   * @return true if the bitboards can be used
+   */
+  private boolean usesBitboards(RepresentativeColor color) {
+    return size == SquareBitboards.SIZE && board.size() == size * size
+        && (color == RepresentativeColor.BLACK || color == RepresentativeColor.WHITE);
+  }
+
+  /**
+   * Get the discs on the board as bitboards, built from the cells after each change.
+   *
+   * @return the black discs and the white discs
+   */
+  private long[] getDiscs() {
+    if (discs == null) {
+      discs = SquareBitboards.of(board);
+    }
+    return discs;
+  }
+
   private boolean isInBounds(RowColPair pair) {
     return board.containsKey(pair);
   }
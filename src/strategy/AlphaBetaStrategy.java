@@ -20,6 +20,7 @@ public final class AlphaBetaStrategy extends AbstractStrategy implements Fallibl
                                              RepresentativeColor player) {
     Optional<Move> move = getMyMove(model.getDeepCopy(player), defaultDepth, -Double.MAX_VALUE,
             Double.MAX_VALUE, player);
+    SearchCounters.reachDepth(defaultDepth);
     return move.isEmpty() ? Optional.empty() : Optional.of(move.get().getPosition());
   }
 
@@ -39,6 +40,7 @@ public final class AlphaBetaStrategy extends AbstractStrategy implements Fallibl
     if (depth < 0) {
       throw new IllegalArgumentException();
     }
+    SearchCounters.addNodes(1);
     if (depth == 0 || model.isGameOver()) {
       //if we have reached our max depth or the game is over...
       //Return a move containing the evaluation of the current baord.
@@ -47,11 +49,14 @@ public final class AlphaBetaStrategy extends AbstractStrategy implements Fallibl
 
     Move bestMove = null;
     double value = Integer.MIN_VALUE; //represents how good a move is for us
+    int searched = 0;
     for (RowColPair position : findAvailablePosition(model, turn).keySet()) {
       if (alpha > beta) {
         //if the best max value (alpha) ever exceeds the best min value (beta), we can prune
+        SearchCounters.addCutoffs(1, searched == 1 ? 1 : 0);
         break;
       }
+      searched++;
       MutableReversiModel newModel = model.getDeepCopy(turn);
       newModel.placeMove(position, turn);
       double childValue = getOpponentValue(newModel, depth - 1, alpha, beta,
@@ -90,6 +95,7 @@ public final class AlphaBetaStrategy extends AbstractStrategy implements Fallibl
     if (depth < 0) {
       throw new IllegalArgumentException();
     }
+    SearchCounters.addNodes(1);
     if (depth == 0 || model.isGameOver()) {
       return getValue(model, color.getOpposite());
     }
@@ -0,0 +1,27 @@
+package strategy;
+
+import java.util.List;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+
+/**
+ * Represents strategies that can rank several moves in one search, for hints and for the
+ * analysis of a finished game. Instead of the single best position, the analysis returns the
+ * best few moves with their scores and principal variations.
+ */
+public interface AnalysisStrategy {
+
+  /**
+   * Find the best moves of the player, best first. The scores of the returned moves are exact
+   * for the search, so they can be compared with each other; the moves that are not returned
+   * are only known to be no better than the last returned one.
+   *
+   * @param model  the current model
+   * @param player the player to analyze the moves of
+   * @param count  the number of moves wanted
+   * @return the best moves, as many as wanted or as there are legal moves, and none if the
+   *         player has to pass
+   * @throws IllegalArgumentException if the count is not positive
+   */
+  List<Variation> analyze(ReadOnlyReversiModel model, RepresentativeColor player, int count);
+}
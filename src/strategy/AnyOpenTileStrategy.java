@@ -16,7 +16,12 @@ public final class AnyOpenTileStrategy extends AbstractStrategy implements Falli
   public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
                                              RepresentativeColor player) throws
           IllegalStateException {
-    Map<RowColPair, Integer> positions = findAvailablePosition(model, player);
+    return choosePosition(new MoveContext(model, player));
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(MoveContext context) {
+    Map<RowColPair, Integer> positions = context.getMoves();
     for (RowColPair position : positions.keySet()) {
       if (positions.get(position) > 0) {
         return Optional.ofNullable(position);
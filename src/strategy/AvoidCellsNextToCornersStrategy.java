@@ -1,6 +1,5 @@
 package strategy;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import model.ReadOnlyReversiModel;
@@ -19,12 +18,16 @@ public final class AvoidCellsNextToCornersStrategy extends AbstractStrategy impl
   @Override
   public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
                                              RepresentativeColor player) {
-    List<RowColPair> cornerPoints = getCornerPoints(model);
-    Map<RowColPair, Integer> pairs = findAvailablePosition(model, player);
+    return choosePosition(new MoveContext(model, player));
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(MoveContext context) {
+    Map<RowColPair, Integer> pairs = context.getMoves();
     RowColPair pair = null;
     int value = -1;
     for (RowColPair position : pairs.keySet()) {
-      if (!(isNextToCorner(model, position, cornerPoints))) {
+      if (!(context.isNextToCorner(position))) {
         if (pair == null) {
           pair = position;
           value = pairs.get(position);
@@ -0,0 +1,414 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import model.HexDirection;
+import model.ModelDirection;
+import model.ReadOnlyReversiModel;
+import model.RowColPair;
+import model.SquareDirection;
+
+/**
+ * The shape of a reversi board, laid out as a one-dimensional "mailbox". Every cell of the board
+ * gets an index into an array that is surrounded by one padding column and one padding row on
+ * each side, so that walking from any cell in any direction either lands on another cell or on
+ * the padding, and never outside the array. Geometries never change, so they are built once per
+ * board type and size and shared by every search.
+ */
+public final class BoardGeometry {
+  private static final Map<String, BoardGeometry> CACHE = new ConcurrentHashMap<>();
+
+  private final ReadOnlyReversiModel.ModelType type;
+  private final int size;
+  private final int minRow;
+  private final int minCol;
+  private final int rowSpan;
+  private final int colSpan;
+  private final int width;
+  private final int length;
+  private final int[] cells;
+  private final int[] offsets;
+  private final boolean[] onBoard;
+  private final long[] cellBits;
+  private final RowColPair[] pairs;
+  private final int[] corners;
+  private final int[] regions;
+  private final int[][] symmetries;
+  private final long[] zobrist;
+  private final long whiteToMoveKey;
+
+  /**
+   * Builds the geometry of the given board type and size.
+   *
+   * @param type the type of the board
+   * @param size the size of the board, as understood by the model of that type
+   */
+  private BoardGeometry(ReadOnlyReversiModel.ModelType type, int size) {
+    this.type = type;
+    this.size = size;
+    ModelDirection[] directions;
+    if (type == ReadOnlyReversiModel.ModelType.SQUARE) {
+      minRow = -(size / 2 - 1);
+      minCol = minRow;
+      rowSpan = size;
+      colSpan = size;
+      directions = SquareDirection.values();
+    } else if (type == ReadOnlyReversiModel.ModelType.HEX) {
+      minRow = -(size - 1);
+      minCol = minRow;
+      rowSpan = 2 * size - 1;
+      colSpan = rowSpan;
+      directions = HexDirection.values();
+    } else {
+      throw new IllegalArgumentException("strategy can not applied on this model");
+    }
+    width = colSpan + 1;
+    length = (rowSpan + 2) * width + 2;
+    offsets = new int[directions.length];
+    for (int i = 0; i < directions.length; i++) {
+      offsets[i] = directions[i].getRowOffset() * width + directions[i].getLeftColOffset();
+    }
+    onBoard = new boolean[length];
+    pairs = new RowColPair[length];
+    List<Integer> indices = new ArrayList<>();
+    for (int row = minRow; row < minRow + rowSpan; row++) {
+      for (int col = minCol; col < minCol + colSpan; col++) {
+        if (type == ReadOnlyReversiModel.ModelType.HEX && Math.abs(row + col) > size - 1) {
+          continue;
+        }
+        int index = toIndex(row, col);
+        onBoard[index] = true;
+        pairs[index] = new RowColPair(row, col);
+        indices.add(index);
+      }
+    }
+    cells = indices.stream().mapToInt(Integer::intValue).toArray();
+    cellBits = new long[(length + 63) >>> 6];
+    for (int index : cells) {
+      cellBits[index >>> 6] |= 1L << index;
+    }
+    corners = findCorners();
+    regions = new int[length];
+    for (int index : cells) {
+      regions[index] = findRegion(pairs[index]);
+    }
+    symmetries = findSymmetries();
+    // a fixed seed keeps position keys identical between runs, so keys can be stored on disk.
+    SplittableRandom random = new SplittableRandom(31L * size + type.ordinal());
+    zobrist = new long[length * 2];
+    for (int i = 0; i < zobrist.length; i++) {
+      zobrist[i] = random.nextLong();
+    }
+    whiteToMoveKey = random.nextLong();
+  }
+
+  /**
+   * Get the shared geometry of the given board type and size.
+   *
+   * @param type the type of the board
+   * @param size the size of the board
+   * @return the geometry
+   * @throws IllegalArgumentException if the board type is not supported
+   */
+  public static BoardGeometry of(ReadOnlyReversiModel.ModelType type, int size) {
+    if (type == null) {
+      throw new IllegalArgumentException("strategy can not applied on this model");
+    }
+    return CACHE.computeIfAbsent(type + ":" + size, key -> new BoardGeometry(type, size));
+  }
+
+  /**
+   * Get the shared geometry of the board used by the given model.
+   *
+   * @param model the model
+   * @return the geometry
+   */
+  public static BoardGeometry of(ReadOnlyReversiModel model) {
+    return of(model.checkType(), model.getSize());
+  }
+
+  /**
+   * Find the corner cells, in the same order as {@link AbstractStrategy#getCornerPoints}.
+   *
+   * @return the indices of the corner cells
+   */
+  private int[] findCorners() {
+    int far = size - 1;
+    if (type == ReadOnlyReversiModel.ModelType.SQUARE) {
+      int maxRow = minRow + size - 1;
+      int maxCol = minCol + size - 1;
+      return new int[]{toIndex(minRow, minCol), toIndex(minRow, maxCol),
+        toIndex(maxRow, minCol), toIndex(maxRow, maxCol)};
+    }
+    return new int[]{toIndex(-far, 0), toIndex(-far, far), toIndex(far, -far),
+      toIndex(far, 0), toIndex(0, far), toIndex(0, -far)};
+  }
+
+  /**
+   * Find the region of a cell. Square boards are split into their four quadrants, and hexagon
+   * boards into the six triangles between the center and two neighbouring corners, so that
+   * moves late in the game mostly stay inside of one region.
+   *
+   * @param pair the position of the cell
+   * @return the region, between 0 and 5
+   */
+  private int findRegion(RowColPair pair) {
+    if (type == ReadOnlyReversiModel.ModelType.SQUARE) {
+      int half = minRow + size / 2;
+      return (pair.getRow() < half ? 0 : 2) + (pair.getCol() < half ? 0 : 1);
+    }
+    double x = pair.getCol() + pair.getRow() / 2.0;
+    double y = pair.getRow() * Math.sqrt(3) / 2;
+    double angle = Math.atan2(y, x) + Math.PI;
+    return Math.min(5, (int) (angle / (Math.PI / 3)));
+  }
+
+  /**
+   * Find every rotation and reflection that maps the board onto itself: the eight symmetries of
+   * the square, or the twelve symmetries of the hexagon, whose cells are rotated and reflected
+   * in cube coordinates.
+   *
+   * @return for each symmetry, the index each cell is mapped to, -1 for the padding
+   */
+  private int[][] findSymmetries() {
+    int count = type == ReadOnlyReversiModel.ModelType.SQUARE ? 8 : 12;
+    int[][] result = new int[count][length];
+    for (int[] symmetry : result) {
+      Arrays.fill(symmetry, -1);
+    }
+    for (int index : cells) {
+      int row = pairs[index].getRow();
+      int col = pairs[index].getCol();
+      for (int symmetry = 0; symmetry < count; symmetry++) {
+        int[] image;
+        if (type == ReadOnlyReversiModel.ModelType.SQUARE) {
+          image = transformSquare(row - minRow, col - minCol, symmetry);
+          image[0] += minRow;
+          image[1] += minCol;
+        } else {
+          image = transformHex(row, col, symmetry);
+        }
+        result[symmetry][index] = toIndex(image[0], image[1]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Apply one of the eight symmetries of the square to zero-based coordinates.
+   */
+  private int[] transformSquare(int row, int col, int symmetry) {
+    int last = size - 1;
+    int newRow = (symmetry & 1) == 0 ? row : col;
+    int newCol = (symmetry & 1) == 0 ? col : row;
+    if ((symmetry & 2) != 0) {
+      newRow = last - newRow;
+    }
+    if ((symmetry & 4) != 0) {
+      newCol = last - newCol;
+    }
+    return new int[]{newRow, newCol};
+  }
+
+  /**
+   * Apply one of the twelve symmetries of the hexagon, a reflection followed by up to five
+   * rotations of 60 degrees around the center cell.
+   */
+  private int[] transformHex(int row, int col, int symmetry) {
+    int q = col;
+    int r = row;
+    if (symmetry >= 6) {
+      q = row;
+      r = col;
+    }
+    for (int i = 0; i < symmetry % 6; i++) {
+      int s = -q - r;
+      int rotatedQ = -r;
+      r = -s;
+      q = rotatedQ;
+    }
+    return new int[]{r, q};
+  }
+
+  /**
+   * Convert a position into its mailbox index, without checking that it is on the board.
+   *
+   * @param row the row of the position
+   * @param col the column of the position
+   * @return the mailbox index
+   */
+  private int toIndex(int row, int col) {
+    return 1 + (row - minRow + 1) * width + (col - minCol);
+  }
+
+  /**
+   * Get the mailbox index of the given position.
+   *
+   * @param pair the position
+   * @return the index, or -1 if the position is not on the board
+   */
+  public int indexOf(RowColPair pair) {
+    int row = pair.getRow();
+    int col = pair.getCol();
+    if (row < minRow || row >= minRow + rowSpan || col < minCol || col >= minCol + colSpan) {
+      return -1;
+    }
+    int index = toIndex(row, col);
+    return onBoard[index] ? index : -1;
+  }
+
+  /**
+   * Get the position of the given mailbox index.
+   *
+   * @param index the index of an on-board cell
+   * @return the position, shared and immutable
+   */
+  public RowColPair pairOf(int index) {
+    return pairs[index];
+  }
+
+  /**
+   * Check if the given mailbox index is a cell of the board.
+   *
+   * @param index the index
+   * @return true if it is a cell, false if it is padding
+   */
+  public boolean isOnBoard(int index) {
+    return index >= 0 && index < length && onBoard[index];
+  }
+
+  /**
+   * Get the type of the board.
+   *
+   * @return the type
+   */
+  public ReadOnlyReversiModel.ModelType getType() {
+    return type;
+  }
+
+  /**
+   * Get the size of the board.
+   *
+   * @return the size
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Get the length of a mailbox array for this board, padding included.
+   *
+   * @return the length
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Get the distance between two vertically adjacent indices.
+   *
+   * @return the width of a mailbox row
+   */
+  public int width() {
+    return width;
+  }
+
+  /**
+   * Get the mailbox indices of all the cells, in row major order. Callers must not modify it.
+   *
+   * @return the indices of the cells
+   */
+  int[] cells() {
+    return cells;
+  }
+
+  /**
+   * Get the number of 64-bit words of a bit set holding one bit per mailbox index.
+   *
+   * @return the number of words
+   */
+  public int words() {
+    return cellBits.length;
+  }
+
+  /**
+   * Get the bit set of the cells of the board, bit i of word i / 64 standing for the mailbox
+   * index i. Callers must not modify it.
+   *
+   * @return the bits of the cells, padding bits cleared
+   */
+  long[] cellBits() {
+    return cellBits;
+  }
+
+  /**
+   * Get the index offset of each direction of this board. Callers must not modify it.
+   *
+   * @return the offsets, in the order of the model's direction enum
+   */
+  int[] offsets() {
+    return offsets;
+  }
+
+  /**
+   * Get the mailbox indices of the corner cells. Callers must not modify it.
+   *
+   * @return the indices of the corners
+   */
+  int[] corners() {
+    return corners;
+  }
+
+  /**
+   * Get the region of the given cell, used to reason about the parity of the empty cells.
+   *
+   * @param index the index of the cell
+   * @return the region, between 0 and 5
+   */
+  int regionOf(int index) {
+    return regions[index];
+  }
+
+  /**
+   * Get the rotations and reflections of the board. The first one is the identity. Callers must
+   * not modify it.
+   *
+   * @return for each symmetry, the index each cell is mapped to
+   */
+  int[][] symmetries() {
+    return symmetries;
+  }
+
+  /**
+   * Get the number of cells on the board.
+   *
+   * @return the number of cells
+   */
+  public int cellCount() {
+    return cells.length;
+  }
+
+  /**
+   * Get the random key of a disc of the given side on the given cell.
+   *
+   * @param index the index of the cell
+   * @param side  {@link SearchBoard#BLACK} or {@link SearchBoard#WHITE}
+   * @return the key
+   */
+  long zobrist(int index, int side) {
+    return zobrist[index * 2 + side - 1];
+  }
+
+  /**
+   * Get the key mixed into a position key when white is the side to move.
+   *
+   * @return the key
+   */
+  long whiteToMoveKey() {
+    return whiteToMoveKey;
+  }
+}
@@ -0,0 +1,58 @@
+package strategy;
+
+import java.util.Objects;
+import java.util.Optional;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A strategy that gives each decision of another strategy a {@link SearchBudget}. The searches
+ * run by the strategy on the deciding thread stop once the budget is spent: the principal
+ * variation search plays the move of the deepest search it completed, and the endgame solver
+ * leaves the decision to the midgame strategy. A decision then takes at most about the time of
+ * the budget, plus the search of the first ply, whatever the size of the board. Strategies
+ * that do not search are not affected. Budgeted strategies are fallible when the strategy they
+ * limit is.
+ */
+public final class BudgetedStrategy implements FallibleStrategy {
+  private final FallibleStrategy strategy;
+  private final SearchBudget budget;
+
+  /**
+   * Construct the budgeted strategy.
+   *
+   * @param strategy the strategy to limit
+   * @param budget   the budget of each decision
+   * @throws NullPointerException if an argument is null
+   */
+  public BudgetedStrategy(FallibleStrategy strategy, SearchBudget budget) {
+    this.strategy = Objects.requireNonNull(strategy);
+    this.budget = Objects.requireNonNull(budget);
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
+                                             RepresentativeColor player) {
+    return choosePosition(new MoveContext(model, player));
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(MoveContext context) {
+    SearchDeadline outer = SearchDeadline.begin(budget);
+    try {
+      return strategy.choosePosition(context);
+    } finally {
+      SearchDeadline.end(outer);
+    }
+  }
+
+  /**
+   * Get the budget of each decision.
+   *
+   * @return the budget
+   */
+  public SearchBudget getBudget() {
+    return budget;
+  }
+}
@@ -15,8 +15,12 @@ public final class CaptureMaxPieces extends AbstractStrategy implements Fallible
   @Override
   public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
                                              RepresentativeColor player) {
-    Map<RowColPair, Integer> map =
-        findAvailablePosition(model, player);
+    return choosePosition(new MoveContext(model, player));
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(MoveContext context) {
+    Map<RowColPair, Integer> map = context.getMoves();
     RowColPair leftTopMost = null; //we will prefer the upper-left-most pair to break ties
     int value = -1;
     for (RowColPair pair : map.keySet()) {
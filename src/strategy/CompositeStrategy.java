@@ -11,7 +11,9 @@ import model.RowColPair;
  * strategies as their first option. If the fallible strategies finds a move to make, this
  * strategy selects that move. Otherwise, the strategy will use its second fallible strategy as a
  * backup. Due to this, Composite strategies can be composed of fallible strategies with other
- * composite strategies, allowing for flexible and advanced strategies to be created.
+ * composite strategies, allowing for flexible and advanced strategies to be created. Both
+ * strategies are given the same {@link MoveContext}, so the legal moves of the player are
+ * computed once per decision however long the chain is.
  */
 public final class CompositeStrategy implements FallibleStrategy {
   private final FallibleStrategy fallibleStrategy;
@@ -34,11 +36,16 @@ public final class CompositeStrategy implements FallibleStrategy {
   @Override
   public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
                                              RepresentativeColor player) {
+    return choosePosition(new MoveContext(model, player));
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(MoveContext context) {
     Optional<RowColPair> firstChoice =
-        fallibleStrategy.choosePosition(model, player);
+        fallibleStrategy.choosePosition(context);
     if (firstChoice.isPresent()) {
       return firstChoice;
     }
-    return backUpStrategy.choosePosition(model, player);
+    return backUpStrategy.choosePosition(context);
   }
 }
@@ -1,10 +1,8 @@
 package strategy;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-import model.ModelDirection;
 import model.ReadOnlyReversiModel;
 import model.RepresentativeColor;
 import model.RowColPair;
@@ -19,22 +17,17 @@ public final class CornerStrategy extends AbstractStrategy implements FallibleSt
   @Override
   public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
                                              RepresentativeColor player) {
-    List<RowColPair> cornerPoints = getCornerPoints(model);
+    return choosePosition(new MoveContext(model, player));
+  }
 
-    for (RowColPair position : cornerPoints) {
-      if (model.getColorAt(position) != RepresentativeColor.NONE) {
-        continue;
-      }
-      Map<ModelDirection, Integer> value = model.checkMove(position, player);
-      int pointsCanGet = 0;
-      for (Integer i : value.values()) {
-        pointsCanGet += i;
-      }
-      if (pointsCanGet > 0) {
+  @Override
+  public Optional<RowColPair> choosePosition(MoveContext context) {
+    Map<RowColPair, Integer> pairs = context.getMoves();
+    for (RowColPair position : context.getCorners()) {
+      if (pairs.containsKey(position)) {
         return Optional.of(position);
       }
     }
-    Map<RowColPair, Integer> pairs = findAvailablePosition(model, player);
     RowColPair pair = null;
     int value = -1;
     for (RowColPair position : pairs.keySet()) {
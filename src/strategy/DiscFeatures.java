@@ -0,0 +1,240 @@
+package strategy;
+
+import java.util.Arrays;
+
+/**
+ * Evaluation features of a position, computed on the bit sets of a {@link SearchBoard}: bit i
+ * of a set stands for the mailbox index i, so that moving every disc one cell in a direction is
+ * a shift of the set by the index offset of that direction. Since the mailbox is padded, a
+ * shift never wraps from one edge of the board onto the other: discs shifted off the board land
+ * on padding bits, which are masked away. Each feature is then a handful of shifts and masks per
+ * direction and a {@link Long#bitCount} at the end, on square and hexagon boards alike.
+ */
+public final class DiscFeatures {
+  private DiscFeatures() {
+  }
+
+  /**
+   * Count the legal moves of the given side.
+   *
+   * @param board the position
+   * @param side  {@link SearchBoard#BLACK} or {@link SearchBoard#WHITE}
+   * @return the number of cells the side can play
+   */
+  public static int mobility(SearchBoard board, int side) {
+    long[] moves = new long[board.getGeometry().words()];
+    moves(board, side, moves);
+    return bitCount(moves);
+  }
+
+  /**
+   * Count the empty cells next to a disc of the opponent of the given side, which are the cells
+   * the side may be able to play later.
+   *
+   * @param board the position
+   * @param side  {@link SearchBoard#BLACK} or {@link SearchBoard#WHITE}
+   * @return the potential mobility of the side
+   */
+  public static int potentialMobility(SearchBoard board, int side) {
+    long[] empty = empty(board);
+    long[] near = neighbours(board.getGeometry(), board.bits(SearchBoard.opponent(side)));
+    and(near, empty);
+    return bitCount(near);
+  }
+
+  /**
+   * Count the discs of the given side next to an empty cell. Frontier discs give moves to the
+   * opponent, so fewer of them is better.
+   *
+   * @param board the position
+   * @param side  {@link SearchBoard#BLACK} or {@link SearchBoard#WHITE}
+   * @return the number of frontier discs of the side
+   */
+  public static int frontier(SearchBoard board, int side) {
+    long[] near = neighbours(board.getGeometry(), empty(board));
+    and(near, board.bits(side));
+    return bitCount(near);
+  }
+
+  /**
+   * Count the discs of the given side that can never be flipped because they are anchored to
+   * the edges. A disc is stable when, along every line through it, one of its two neighbours
+   * is off the board or is itself a stable disc of the same side: the disc can then never be
+   * surrounded along that line. Stable discs grow from the corners along the edges, one cell
+   * per round, until no disc is added. Discs kept by full lines are not counted, so this is a
+   * lower bound of the stable discs.
+   *
+   * @param board the position
+   * @param side  {@link SearchBoard#BLACK} or {@link SearchBoard#WHITE}
+   * @return the number of stable discs of the side
+   */
+  public static int stable(SearchBoard board, int side) {
+    BoardGeometry geometry = board.getGeometry();
+    long[] own = board.bits(side);
+    long[] cells = geometry.cellBits();
+    int words = own.length;
+    long[] stable = new long[words];
+    long[] anchors = new long[words];
+    long[] candidates = new long[words];
+    long[] before = new long[words];
+    long[] after = new long[words];
+    boolean grown = true;
+    while (grown) {
+      for (int w = 0; w < words; w++) {
+        anchors[w] = ~cells[w] | stable[w];
+        candidates[w] = own[w] & ~stable[w];
+      }
+      // each line is checked once, from the directions pointing to higher indices.
+      for (int offset : geometry.offsets()) {
+        if (offset > 0) {
+          shift(anchors, -offset, before);
+          shift(anchors, offset, after);
+          for (int w = 0; w < words; w++) {
+            candidates[w] &= before[w] | after[w];
+          }
+        }
+      }
+      grown = false;
+      for (int w = 0; w < words; w++) {
+        if (candidates[w] != 0) {
+          stable[w] |= candidates[w];
+          grown = true;
+        }
+      }
+    }
+    return bitCount(stable);
+  }
+
+  /**
+   * Compute the legal moves of the given side. In each direction, the runs of opponent discs
+   * next to a disc of the side are extended one cell at a time, and the empty cells just past
+   * the runs are the moves.
+   *
+   * @param board the position
+   * @param side  {@link SearchBoard#BLACK} or {@link SearchBoard#WHITE}
+   * @param moves the bit set receiving the moves
+   */
+  static void moves(SearchBoard board, int side, long[] moves) {
+    long[] own = board.bits(side);
+    long[] opponent = board.bits(SearchBoard.opponent(side));
+    long[] empty = empty(board);
+    int words = own.length;
+    long[] run = new long[words];
+    long[] next = new long[words];
+    Arrays.fill(moves, 0);
+    for (int offset : board.getGeometry().offsets()) {
+      shift(own, offset, run);
+      and(run, opponent);
+      boolean growing = !isEmpty(run);
+      while (growing) {
+        shift(run, offset, next);
+        growing = false;
+        for (int w = 0; w < words; w++) {
+          long added = next[w] & opponent[w] & ~run[w];
+          if (added != 0) {
+            run[w] |= added;
+            growing = true;
+          }
+        }
+      }
+      shift(run, offset, next);
+      for (int w = 0; w < words; w++) {
+        moves[w] |= next[w] & empty[w];
+      }
+    }
+  }
+
+  /**
+   * Get the empty cells of a position.
+   *
+   * @param board the position
+   * @return a new bit set of the empty cells
+   */
+  private static long[] empty(SearchBoard board) {
+    long[] cells = board.getGeometry().cellBits();
+    long[] black = board.bits(SearchBoard.BLACK);
+    long[] white = board.bits(SearchBoard.WHITE);
+    long[] empty = new long[cells.length];
+    for (int w = 0; w < cells.length; w++) {
+      empty[w] = cells[w] & ~black[w] & ~white[w];
+    }
+    return empty;
+  }
+
+  /**
+   * Get the cells next to any cell of the given set, padding included.
+   *
+   * @param geometry the board
+   * @param set      the set
+   * @return a new bit set of the neighbours
+   */
+  private static long[] neighbours(BoardGeometry geometry, long[] set) {
+    long[] near = new long[set.length];
+    long[] shifted = new long[set.length];
+    for (int offset : geometry.offsets()) {
+      shift(set, offset, shifted);
+      for (int w = 0; w < near.length; w++) {
+        near[w] |= shifted[w];
+      }
+    }
+    return near;
+  }
+
+  /**
+   * Move every bit of a set by the given number of indices, dropping the bits moved past
+   * either end of the set.
+   *
+   * @param set      the set
+   * @param distance the number of indices to move by, towards higher indices if positive
+   * @param out      the set receiving the result, distinct from the source
+   */
+  static void shift(long[] set, int distance, long[] out) {
+    int n = out.length;
+    if (distance >= 0) {
+      int words = distance >>> 6;
+      int bits = distance & 63;
+      for (int w = n - 1; w >= words; w--) {
+        long value = set[w - words] << bits;
+        if (bits != 0 && w > words) {
+          value |= set[w - words - 1] >>> (64 - bits);
+        }
+        out[w] = value;
+      }
+      Arrays.fill(out, 0, Math.min(words, n), 0);
+    } else {
+      int words = -distance >>> 6;
+      int bits = -distance & 63;
+      for (int w = 0; w < n - words; w++) {
+        long value = set[w + words] >>> bits;
+        if (bits != 0 && w + words + 1 < n) {
+          value |= set[w + words + 1] << (64 - bits);
+        }
+        out[w] = value;
+      }
+      Arrays.fill(out, Math.max(n - words, 0), n, 0);
+    }
+  }
+
+  private static void and(long[] set, long[] mask) {
+    for (int w = 0; w < set.length; w++) {
+      set[w] &= mask[w];
+    }
+  }
+
+  private static boolean isEmpty(long[] set) {
+    for (long word : set) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int bitCount(long[] set) {
+    int count = 0;
+    for (long word : set) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+}
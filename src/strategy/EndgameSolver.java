@@ -0,0 +1,316 @@
+package strategy;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Solves reversi endgames exactly. Once few empty cells remain, the whole rest of the game can
+ * be searched, so the solver returns the final disc margin under perfect play instead of an
+ * estimation. The search is a negamax alpha-beta search on a {@link SearchBoard}, with three
+ * classical endgame improvements: moves of the previous best line are taken from a small
+ * dedicated hash table first, moves that leave the opponent with the fewest replies are tried
+ * first while many cells are empty (fastest-first), and near the end of the game moves in
+ * regions with an odd number of empty cells are tried before the others (parity).
+ * A solver keeps its hash table between searches, so it should not be shared between threads.
+ * A search stops with a {@link CancellationException} when its thread is interrupted, and
+ * within a {@link BudgetedStrategy} it gives up once the budget is spent.
+ */
+public final class EndgameSolver {
+  private static final int DEFAULT_TABLE_BITS = 18;
+  private static final int FASTEST_FIRST_EMPTIES = 7;
+  private static final int NO_MOVE = -1;
+  private static final int INTERRUPT_CHECK_MASK = 0xFFF;
+
+  private final int mask;
+  private final long[] keys;
+  private final short[] lowers;
+  private final short[] uppers;
+  private final int[] bestMoves;
+  private int[][] moves;
+  private int[][] orderKeys;
+  private int[] flips;
+  private int parity;
+  private BoardGeometry geometry;
+  private long nodes;
+  private long betaCutoffs;
+  private long firstMoveCutoffs;
+  private long hashProbes;
+  private long hashHits;
+
+  /**
+   * Construct a solver with a hash table of 2^18 entries.
+   */
+  public EndgameSolver() {
+    this(DEFAULT_TABLE_BITS);
+  }
+
+  /**
+   * Construct a solver with a hash table of 2^tableBits entries.
+   *
+   * @param tableBits the logarithm of the number of entries of the hash table
+   * @throws IllegalArgumentException if the table size is not between 2^1 and 2^26
+   */
+  public EndgameSolver(int tableBits) {
+    if (tableBits < 1 || tableBits > 26) {
+      throw new IllegalArgumentException("Invalid hash table size");
+    }
+    int entries = 1 << tableBits;
+    mask = entries - 1;
+    keys = new long[entries];
+    lowers = new short[entries];
+    uppers = new short[entries];
+    bestMoves = new int[entries];
+  }
+
+  /**
+   * Find the best move of the given side and its exact final disc margin.
+   *
+   * @param board the position to solve, which is left unchanged
+   * @param side  the side to move
+   * @return the best cell and its margin, or a move without a position if the side has to pass
+   */
+  public Move solve(SearchBoard board, int side) {
+    long[] before = counters();
+    try {
+      return solveRoot(board, side);
+    } finally {
+      report(before, board.empties());
+    }
+  }
+
+  /**
+   * The search of {@link #solve(SearchBoard, int)}, at the root of the game tree.
+   */
+  private Move solveRoot(SearchBoard board, int side) {
+    SearchBoard copy = prepare(board);
+    int alpha = -geometry.cellCount() - 1;
+    int beta = geometry.cellCount() + 1;
+    int count = copy.generateMoves(side, moves[0]);
+    if (count == 0) {
+      return new Move(search(copy, side, alpha, beta, 0));
+    }
+    int best = NO_MOVE;
+    int bestScore = alpha;
+    order(copy, side, moves[0], count, 0, NO_MOVE);
+    for (int i = 0; i < count; i++) {
+      int move = moves[0][i];
+      int flipped = play(copy, move, side, 0);
+      int score = -search(copy, SearchBoard.opponent(side), -beta, -Math.max(alpha, bestScore), 1);
+      undo(copy, move, side, 0, flipped);
+      if (score > bestScore) {
+        bestScore = score;
+        best = move;
+      }
+    }
+    return new Move(copy.pairOf(best), bestScore);
+  }
+
+  /**
+   * Compute the exact final disc margin of the given side, or a bound of it when the margin is
+   * outside of the given window: the result is at most alpha if the real margin is at most
+   * alpha, and at least beta if the real margin is at least beta. A window of (-1, 1) only
+   * decides whether the game is won, lost or drawn, which is much faster.
+   *
+   * @param board the position to solve, which is left unchanged
+   * @param side  the side to move
+   * @param alpha the lower end of the window
+   * @param beta  the upper end of the window
+   * @return the margin, or a bound of it
+   */
+  public int solve(SearchBoard board, int side, int alpha, int beta) {
+    long[] before = counters();
+    try {
+      return search(prepare(board), side, alpha, beta, 0);
+    } finally {
+      report(before, board.empties());
+    }
+  }
+
+  private long[] counters() {
+    return new long[] {nodes, betaCutoffs, firstMoveCutoffs, hashProbes, hashHits};
+  }
+
+  /**
+   * Report the work done since the given counters to the decision being measured.
+   */
+  private void report(long[] before, int empties) {
+    SearchCounters.addNodes(nodes - before[0]);
+    SearchCounters.reachDepth(empties);
+    SearchCounters.addCutoffs(betaCutoffs - before[1], firstMoveCutoffs - before[2]);
+    SearchCounters.addHashProbes(hashProbes - before[3], hashHits - before[4]);
+  }
+
+  /**
+   * Get the number of positions visited since this solver was created.
+   *
+   * @return the number of positions
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Copy the board to solve and size the per-ply buffers for it.
+   *
+   * @param board the position to solve
+   * @return a copy that can be modified by the search
+   */
+  private SearchBoard prepare(SearchBoard board) {
+    SearchBoard copy = board.copy();
+    if (geometry != board.getGeometry()) {
+      geometry = board.getGeometry();
+      // every move may follow a pass, so a line of play can be twice as long as the cells.
+      int plies = 2 * geometry.cellCount() + 2;
+      moves = new int[plies][geometry.cellCount()];
+      orderKeys = new int[plies][geometry.cellCount()];
+      flips = new int[plies * geometry.cellCount()];
+    }
+    parity = 0;
+    for (int index : geometry.cells()) {
+      if (copy.get(index) == SearchBoard.EMPTY) {
+        parity ^= 1 << geometry.regionOf(index);
+      }
+    }
+    return copy;
+  }
+
+  private int play(SearchBoard board, int move, int side, int ply) {
+    parity ^= 1 << geometry.regionOf(move);
+    return board.play(move, side, flips, ply * geometry.cellCount());
+  }
+
+  private void undo(SearchBoard board, int move, int side, int ply, int flipped) {
+    parity ^= 1 << geometry.regionOf(move);
+    board.undo(move, side, flips, ply * geometry.cellCount(), flipped);
+  }
+
+  /**
+   * The negamax search.
+   *
+   * @return the margin of the side to move, or a bound of it outside the window
+   */
+  private int search(SearchBoard board, int side, int alpha, int beta, int ply) {
+    if ((++nodes & INTERRUPT_CHECK_MASK) == 0) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new CancellationException("Search interrupted");
+      }
+      if (SearchDeadline.spend(INTERRUPT_CHECK_MASK + 1)) {
+        throw new SearchDeadline.Exceeded();
+      }
+    }
+    int opponent = SearchBoard.opponent(side);
+    if (board.empties() == 0) {
+      return board.discDifference(side);
+    }
+    long key = board.key(side);
+    int slot = (int) (key ^ (key >>> 32)) & mask;
+    int tableMove = NO_MOVE;
+    hashProbes++;
+    if (keys[slot] == key) {
+      hashHits++;
+      if (lowers[slot] >= beta) {
+        return lowers[slot];
+      }
+      if (uppers[slot] <= alpha) {
+        return uppers[slot];
+      }
+      alpha = Math.max(alpha, lowers[slot]);
+      beta = Math.min(beta, uppers[slot]);
+      tableMove = bestMoves[slot];
+    }
+    int[] candidates = moves[ply];
+    int count = board.generateMoves(side, candidates);
+    if (count == 0) {
+      if (!board.hasMove(opponent)) {
+        return board.discDifference(side);
+      }
+      return -search(board, opponent, -beta, -alpha, ply + 1);
+    }
+    order(board, side, candidates, count, ply, tableMove);
+    int originalAlpha = alpha;
+    int bestScore = -geometry.cellCount() - 1;
+    int best = NO_MOVE;
+    for (int i = 0; i < count; i++) {
+      int move = candidates[i];
+      int flipped = play(board, move, side, ply);
+      int score = -search(board, opponent, -beta, -Math.max(alpha, bestScore), ply + 1);
+      undo(board, move, side, ply, flipped);
+      if (score > bestScore) {
+        bestScore = score;
+        best = move;
+        if (score >= beta) {
+          betaCutoffs++;
+          if (i == 0) {
+            firstMoveCutoffs++;
+          }
+          break;
+        }
+      }
+    }
+    store(slot, key, originalAlpha, beta, bestScore, best);
+    return bestScore;
+  }
+
+  /**
+   * Remember the result of a search in the hash table, always replacing the previous entry.
+   */
+  private void store(int slot, long key, int alpha, int beta, int score, int best) {
+    int cells = geometry.cellCount();
+    keys[slot] = key;
+    lowers[slot] = (short) (score > alpha ? score : -cells - 1);
+    uppers[slot] = (short) (score < beta ? score : cells + 1);
+    bestMoves[slot] = best;
+  }
+
+  /**
+   * Sort the candidate moves, best first. The hash table move comes first. With many empty
+   * cells, the other moves are sorted by the number of replies they leave to the opponent;
+   * with few empty cells, counting replies costs more than it saves, so the moves in regions
+   * with an odd number of empty cells simply come first.
+   */
+  private void order(SearchBoard board, int side, int[] candidates, int count, int ply,
+                     int tableMove) {
+    int[] scores = orderKeys[ply];
+    boolean fastestFirst = board.empties() > FASTEST_FIRST_EMPTIES;
+    int opponent = SearchBoard.opponent(side);
+    for (int i = 0; i < count; i++) {
+      int move = candidates[i];
+      int score;
+      if (move == tableMove) {
+        score = Integer.MIN_VALUE;
+      } else if (fastestFirst) {
+        int flipped = board.play(move, side, flips, (ply + 1) * geometry.cellCount());
+        score = countMoves(board, opponent) * 4;
+        board.undo(move, side, flips, (ply + 1) * geometry.cellCount(), flipped);
+      } else {
+        score = 0;
+      }
+      if ((parity & (1 << geometry.regionOf(move))) == 0) {
+        score += 1;
+      }
+      scores[i] = score;
+    }
+    // insertion sort, the lists are short.
+    for (int i = 1; i < count; i++) {
+      int move = candidates[i];
+      int score = scores[i];
+      int j = i - 1;
+      while (j >= 0 && scores[j] > score) {
+        candidates[j + 1] = candidates[j];
+        scores[j + 1] = scores[j];
+        j--;
+      }
+      candidates[j + 1] = move;
+      scores[j + 1] = score;
+    }
+  }
+
+  private int countMoves(SearchBoard board, int side) {
+    int count = 0;
+    for (int index : geometry.cells()) {
+      if (board.isLegal(index, side)) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,84 @@
+package strategy;
+
+import java.util.Optional;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A strategy that plays perfectly at the end of the game. When the number of empty cells drops
+ * to its threshold, the position is solved exactly by an {@link EndgameSolver} and the move with
+ * the best final disc margin is chosen. Before that, the choice is left to another strategy, as
+ * it is when a {@link BudgetedStrategy} stops the solver before the end: the solver only has
+ * half of the budget, so that the other strategy still has the other half to search.
+ * Endgame strategies are fallible: they return no move when the player can not place anywhere,
+ * or when the other strategy does not make a choice.
+ */
+public final class EndgameStrategy implements FallibleStrategy {
+  /**
+   * The default number of empty cells from which the game is solved exactly. On the standard
+   * eight by eight board, this keeps every solved move well under a second.
+   */
+  public static final int DEFAULT_THRESHOLD = 16;
+
+  /**
+   * The share of the budget of a decision the solver may spend.
+   */
+  private static final double SOLVER_SHARE = 0.5;
+
+  private final FallibleStrategy midgameStrategy;
+  private final int threshold;
+  private final ThreadLocal<EndgameSolver> solvers;
+
+  /**
+   * Construct the strategy with the default threshold.
+   *
+   * @param midgameStrategy the strategy used while there are more empty cells
+   * @throws IllegalArgumentException if the strategy is null
+   */
+  public EndgameStrategy(FallibleStrategy midgameStrategy) {
+    this(midgameStrategy, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Construct the strategy with the given threshold.
+   *
+   * @param midgameStrategy the strategy used while there are more empty cells
+   * @param threshold       the number of empty cells from which the game is solved exactly
+   * @throws IllegalArgumentException if the strategy is null or the threshold is negative
+   */
+  public EndgameStrategy(FallibleStrategy midgameStrategy, int threshold) {
+    if (midgameStrategy == null) {
+      throw new IllegalArgumentException("The midgame strategy can not be null");
+    }
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Invalid threshold");
+    }
+    this.midgameStrategy = midgameStrategy;
+    this.threshold = threshold;
+    // solvers keep a hash table between searches, each thread needs its own.
+    this.solvers = ThreadLocal.withInitial(EndgameSolver::new);
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
+                                             RepresentativeColor player) {
+    SearchBoard board = SearchBoard.of(model);
+    if (board.empties() > threshold) {
+      return midgameStrategy.choosePosition(model, player);
+    }
+    int side = SearchBoard.toSide(player);
+    if (side == SearchBoard.EMPTY || !board.hasMove(side)) {
+      return Optional.empty();
+    }
+    SearchDeadline outer = SearchDeadline.beginShare(SOLVER_SHARE);
+    try {
+      return Optional.of(solvers.get().solve(board, side).getPosition());
+    } catch (SearchDeadline.Exceeded e) {
+      // the game could not be solved within its share, the other strategy has the rest.
+    } finally {
+      SearchDeadline.end(outer);
+    }
+    return midgameStrategy.choosePosition(model, player);
+  }
+}
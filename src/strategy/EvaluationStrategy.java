@@ -0,0 +1,72 @@
+package strategy;
+
+import java.util.Objects;
+import java.util.Optional;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A strategy that plays the move leading to the best position according to a
+ * {@link PatternEvaluator}, without looking further ahead. It replaces chains of hand-written
+ * rules such as corners first and avoid the cells next to corners with a single table lookup
+ * per pattern and per move. A move that ends the game is judged by its final result instead.
+ * Ties go to the uppermost-leftmost move. Evaluation strategies are fallible: they return no
+ * move when the player can not place anywhere.
+ */
+public final class EvaluationStrategy implements FallibleStrategy {
+  private final PatternEvaluator evaluator;
+
+  /**
+   * Construct the strategy with the shared evaluator of each board.
+   */
+  public EvaluationStrategy() {
+    this.evaluator = null;
+  }
+
+  /**
+   * Construct the strategy with the given evaluator, such as freshly tuned weights, used on the
+   * board of that evaluator. Other boards use their shared evaluator.
+   *
+   * @param evaluator the evaluator
+   */
+  public EvaluationStrategy(PatternEvaluator evaluator) {
+    this.evaluator = Objects.requireNonNull(evaluator);
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
+                                             RepresentativeColor player) {
+    SearchBoard board = SearchBoard.of(model);
+    int side = SearchBoard.toSide(player);
+    if (side == SearchBoard.EMPTY) {
+      return Optional.empty();
+    }
+    PatternEvaluator evaluator = this.evaluator != null
+        && this.evaluator.getGeometry() == board.getGeometry() ? this.evaluator
+        : PatternEvaluator.of(board.getGeometry());
+    int[] moves = new int[board.getGeometry().cellCount()];
+    int[] flips = new int[board.getGeometry().cellCount()];
+    int count = board.generateMoves(side, moves);
+    SearchCounters.addNodes(count + 1);
+    SearchCounters.reachDepth(1);
+    int best = -1;
+    long bestScore = Long.MIN_VALUE;
+    for (int i = 0; i < count; i++) {
+      int flipped = board.play(moves[i], side, flips, 0);
+      long score;
+      if (board.isGameOver()) {
+        // a won game beats any evaluation, a lost game is worse than any evaluation.
+        score = (long) Integer.signum(board.discDifference(side)) * Integer.MAX_VALUE;
+      } else {
+        score = evaluator.evaluate(board, side);
+      }
+      board.undo(moves[i], side, flips, 0, flipped);
+      if (score > bestScore) {
+        bestScore = score;
+        best = moves[i];
+      }
+    }
+    return best < 0 ? Optional.empty() : Optional.of(board.pairOf(best));
+  }
+}
@@ -0,0 +1,422 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import model.HexReversiModel;
+import model.MutableReversiModel;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+import model.SquareReversiModel;
+
+/**
+ * Tunes the weights of a {@link PatternEvaluator} offline. The tuner first plays self-play
+ * games in parallel between the existing strategies, with some random moves for variety, and
+ * stores every position met with the final disc margin of the game into a binary dataset. It
+ * then fits the pattern weights of each game phase to predict the final margin from the
+ * position, by gradient descent on the squared error, the gradient of each step being computed
+ * by several threads on separate parts of the dataset. The fitted weights are saved into a
+ * weight file, which is what the evaluator loads at startup.
+ * A dataset file is a small header followed by one record per position: the color of each cell
+ * on two bits, in the order of the cells of the board, then the final margin of black on two
+ * bytes.
+ */
+public final class EvaluationTuner {
+  /**
+   * The default number of game phases of the tuned weights.
+   */
+  public static final int DEFAULT_PHASES = 4;
+
+  private static final int MAGIC = 0x52564453;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 20;
+  private static final double RANDOM_MOVE_RATE = 0.1;
+  private static final int MAX_RANDOM_OPENING = 6;
+  private static final double REGULARIZATION = 2;
+
+  private final BoardGeometry geometry;
+  private final PatternSet patterns;
+  private final int threads;
+  private final int phases;
+  private final int recordBytes;
+
+  /**
+   * Construct a tuner.
+   *
+   * @param type    the type of the board
+   * @param size    the size of the board
+   * @param threads the number of games played, or parts of the dataset fitted, in parallel
+   * @param phases  the number of game phases with their own weights
+   * @throws IllegalArgumentException if the board is not supported or a count is not positive
+   */
+  public EvaluationTuner(ReadOnlyReversiModel.ModelType type, int size, int threads,
+                         int phases) {
+    if (threads <= 0 || phases <= 0) {
+      throw new IllegalArgumentException("Invalid number of threads or phases");
+    }
+    this.geometry = BoardGeometry.of(type, size);
+    this.patterns = PatternSet.of(geometry);
+    this.threads = threads;
+    this.phases = phases;
+    this.recordBytes = (geometry.cellCount() + 3) / 4 + 2;
+  }
+
+  /**
+   * Play self-play games into a dataset, fit the weights on it and save them.
+   * Usage: EvaluationTuner TYPE SIZE GAMES EPOCHS DATASET WEIGHTS [THREADS], for example
+   * EvaluationTuner SQUARE 8 20000 200 square-8.dataset weights/square-8.weights
+   *
+   * @param args the board type, the board size, the number of games, the number of steps of
+   *             gradient descent, the dataset file, the weight file and optionally the number
+   *             of threads
+   * @throws IOException          if a file can not be read or written
+   * @throws InterruptedException if the tuning is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length != 6 && args.length != 7) {
+      throw new IllegalArgumentException("Usage: EvaluationTuner TYPE SIZE GAMES EPOCHS "
+          + "DATASET WEIGHTS [THREADS]");
+    }
+    int threads = args.length == 7 ? Integer.parseInt(args[6])
+        : Runtime.getRuntime().availableProcessors();
+    EvaluationTuner tuner = new EvaluationTuner(
+        ReadOnlyReversiModel.ModelType.valueOf(args[0].toUpperCase()),
+        Integer.parseInt(args[1]), threads, DEFAULT_PHASES);
+    Path dataset = Paths.get(args[4]);
+    int positions = tuner.generate(dataset, Integer.parseInt(args[2]), System.nanoTime());
+    System.out.println(positions + " positions added to " + dataset);
+    int epochs = Integer.parseInt(args[3]);
+    tuner.fit(dataset, epochs, (epoch, error) -> {
+      if (epoch % 10 == 0 || epoch == epochs - 1) {
+        System.out.printf("epoch %d: error %.2f discs%n", epoch, error);
+      }
+    }).save(Paths.get(args[5]));
+  }
+
+  /**
+   * Play self-play games and append their positions to a dataset, creating it if needed.
+   *
+   * @param dataset the dataset file
+   * @param games   the number of games
+   * @param seed    the seed of the random choices
+   * @return the number of positions added
+   * @throws IOException          if the dataset can not be written
+   * @throws InterruptedException if the games are interrupted
+   */
+  public int generate(Path dataset, int games, long seed)
+      throws IOException, InterruptedException {
+    List<Callable<List<byte[]>>> tasks = new ArrayList<>();
+    for (int game = 0; game < games; game++) {
+      SplittableRandom random = new SplittableRandom(seed + game);
+      tasks.add(() -> playGame(random));
+    }
+    List<byte[]> records = new ArrayList<>();
+    for (Future<List<byte[]>> future : runAll(tasks)) {
+      records.addAll(getResult(future));
+    }
+    try (FileChannel channel = FileChannel.open(dataset, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      int existing = 0;
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      if (channel.size() > 0) {
+        channel.read(header, 0);
+        header.flip();
+        existing = checkHeader(header, channel.size());
+        header.clear();
+      }
+      header.putInt(MAGIC).putInt(VERSION).putInt(geometry.getType().ordinal())
+          .putInt(geometry.getSize()).putInt(existing + records.size()).flip();
+      channel.write(header, 0);
+      ByteBuffer body = ByteBuffer.allocate(records.size() * recordBytes);
+      records.forEach(body::put);
+      body.flip();
+      long position = HEADER_BYTES + (long) existing * recordBytes;
+      while (body.hasRemaining()) {
+        position += channel.write(body, position);
+      }
+    }
+    return records.size();
+  }
+
+  /**
+   * Check the header of a dataset against the board of this tuner.
+   *
+   * @param header the header
+   * @param length the length of the file
+   * @return the number of records of the dataset
+   * @throws IllegalArgumentException if the file is not a dataset of this board
+   */
+  private int checkHeader(ByteBuffer header, long length) {
+    if (header.remaining() < HEADER_BYTES || header.getInt(0) != MAGIC
+        || header.getInt(4) != VERSION || header.getInt(8) != geometry.getType().ordinal()
+        || header.getInt(12) != geometry.getSize()
+        || length != HEADER_BYTES + (long) header.getInt(16) * recordBytes) {
+      throw new IllegalArgumentException("Not a dataset of this board");
+    }
+    return header.getInt(16);
+  }
+
+  /**
+   * Play one self-play game between two strategies drawn at random.
+   *
+   * @param random the random choices of this game
+   * @return a record for each position where a move was played
+   */
+  private List<byte[]> playGame(SplittableRandom random) {
+    FallibleStrategy[] pool = {new EvaluationStrategy(), new CaptureMaxPieces(),
+        new CompositeStrategy(new CornerStrategy(), new CaptureMaxPieces()),
+        new CompositeStrategy(new CompositeStrategy(new CornerStrategy(),
+            new AvoidCellsNextToCornersStrategy()), new CaptureMaxPieces())};
+    FallibleStrategy[] players = {pool[random.nextInt(pool.length)],
+        pool[random.nextInt(pool.length)]};
+    int randomOpening = random.nextInt(MAX_RANDOM_OPENING + 1);
+    MutableReversiModel model = newModel();
+    model.startGame();
+    List<SearchBoard> positions = new ArrayList<>();
+    int[] moves = new int[geometry.cellCount()];
+    while (!model.isGameOver()) {
+      RepresentativeColor turn = model.getTurn();
+      SearchBoard board = SearchBoard.of(model);
+      int side = SearchBoard.toSide(turn);
+      int count = board.generateMoves(side, moves);
+      if (count == 0) {
+        model.makePass(turn);
+        continue;
+      }
+      positions.add(board);
+      Optional<RowColPair> move = Optional.empty();
+      if (positions.size() > randomOpening && random.nextDouble() >= RANDOM_MOVE_RATE) {
+        move = players[side - 1].choosePosition(model, turn);
+      }
+      model.placeMove(move.orElse(board.pairOf(moves[random.nextInt(count)])), turn);
+    }
+    SearchBoard last = SearchBoard.of(model);
+    int margin = last.discDifference(SearchBoard.BLACK);
+    List<byte[]> records = new ArrayList<>();
+    for (SearchBoard position : positions) {
+      records.add(encode(position, margin));
+    }
+    return records;
+  }
+
+  /**
+   * Pack a position and the final margin of its game into a record.
+   */
+  private byte[] encode(SearchBoard board, int margin) {
+    byte[] record = new byte[recordBytes];
+    int[] cells = geometry.cells();
+    for (int i = 0; i < cells.length; i++) {
+      record[i / 4] |= (byte) (board.get(cells[i]) << (2 * (i % 4)));
+    }
+    record[recordBytes - 2] = (byte) (margin >> 8);
+    record[recordBytes - 1] = (byte) margin;
+    return record;
+  }
+
+  /**
+   * Fit the weights of every phase on a dataset, as {@link #fit(Path, int, BiConsumer)} does,
+   * without following the progress.
+   *
+   * @param dataset the dataset file
+   * @param epochs  the number of steps of gradient descent
+   * @return the evaluator with the fitted weights
+   * @throws IOException          if the dataset can not be read
+   * @throws InterruptedException if the fitting is interrupted
+   */
+  public PatternEvaluator fit(Path dataset, int epochs) throws IOException, InterruptedException {
+    return fit(dataset, epochs, (epoch, error) -> { });
+  }
+
+  /**
+   * Fit the weights of every phase on a dataset, starting from the weights of the default
+   * evaluator. Each step of gradient descent moves every weight against the average error of
+   * the positions using it, damped for the weights seen in few positions.
+   *
+   * @param dataset  the dataset file
+   * @param epochs   the number of steps of gradient descent
+   * @param progress takes the number of each step and the root mean squared error of the
+   *                 weights before it, in discs
+   * @return the evaluator with the fitted weights
+   * @throws IOException          if the dataset can not be read
+   * @throws InterruptedException if the fitting is interrupted
+   */
+  public PatternEvaluator fit(Path dataset, int epochs, BiConsumer<Integer, Double> progress)
+      throws IOException, InterruptedException {
+    int instances = patterns.instanceCount();
+    int count;
+    char[] indices;
+    byte[] phaseOf;
+    float[] targets;
+    try (FileChannel channel = FileChannel.open(dataset, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      count = checkHeader(buffer, channel.size());
+      indices = new char[count * instances];
+      phaseOf = new byte[count];
+      targets = new float[count];
+      SearchBoard board = new SearchBoard(geometry);
+      int[] cells = geometry.cells();
+      int[] current = new int[instances];
+      for (int record = 0; record < count; record++) {
+        int start = HEADER_BYTES + record * recordBytes;
+        SearchBoard position = new SearchBoard(geometry);
+        for (int i = 0; i < cells.length; i++) {
+          int color = (buffer.get(start + i / 4) >> (2 * (i % 4))) & 3;
+          if (color != SearchBoard.EMPTY) {
+            position.set(cells[i], color);
+          }
+        }
+        board.copyFrom(position);
+        patterns.computeIndices(board, current);
+        for (int i = 0; i < instances; i++) {
+          indices[record * instances + i] = (char) current[i];
+        }
+        phaseOf[record] = (byte) PatternEvaluator.phaseOf(geometry.cellCount(),
+            board.empties(), phases);
+        targets[record] = 100f * buffer.getShort(start + recordBytes - 2);
+      }
+    }
+    double[][][] weights = newTables();
+    int[][] initial = PatternEvaluator.withDefaultWeights(geometry).weights()[0];
+    for (int phase = 0; phase < phases; phase++) {
+      for (int family = 0; family < patterns.familyCount(); family++) {
+        for (int index = 0; index < initial[family].length; index++) {
+          weights[phase][family][index] = initial[family][index];
+        }
+      }
+    }
+    double[][][] uses = newTables();
+    for (int record = 0; record < count; record++) {
+      for (int i = 0; i < instances; i++) {
+        uses[phaseOf[record]][patterns.familyOf(i)][indices[record * instances + i]]++;
+      }
+    }
+    int chunk = (count + threads - 1) / threads;
+    double[][][][] gradients = new double[threads][][][];
+    for (int epoch = 0; epoch < epochs; epoch++) {
+      List<Callable<Double>> tasks = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int worker = t;
+        tasks.add(() -> {
+          if (gradients[worker] == null) {
+            gradients[worker] = newTables();
+          }
+          return accumulate(gradients[worker], weights, indices, phaseOf, targets,
+              worker * chunk, Math.min(count, (worker + 1) * chunk));
+        });
+      }
+      double squaredError = 0;
+      for (Future<Double> future : runAll(tasks)) {
+        squaredError += getResult(future);
+      }
+      double rate = 1.0 / instances;
+      for (int phase = 0; phase < phases; phase++) {
+        for (int family = 0; family < patterns.familyCount(); family++) {
+          double[] table = weights[phase][family];
+          for (int index = 0; index < table.length; index++) {
+            double gradient = 0;
+            for (double[][][] each : gradients) {
+              gradient += each[phase][family][index];
+            }
+            table[index] -= rate * gradient / (uses[phase][family][index] + REGULARIZATION);
+          }
+        }
+      }
+      progress.accept(epoch, Math.sqrt(squaredError / Math.max(1, count)) / 100);
+    }
+    int[][][] rounded = new int[phases][patterns.familyCount()][];
+    for (int phase = 0; phase < phases; phase++) {
+      for (int family = 0; family < patterns.familyCount(); family++) {
+        double[] table = weights[phase][family];
+        rounded[phase][family] = new int[table.length];
+        for (int index = 0; index < table.length; index++) {
+          rounded[phase][family][index] = (int) Math.round(table[index]);
+        }
+      }
+    }
+    return new PatternEvaluator(patterns, rounded);
+  }
+
+  /**
+   * Compute the gradient of the squared error over a part of the dataset.
+   *
+   * @return the sum of the squared errors of the part
+   */
+  private double accumulate(double[][][] gradient, double[][][] weights, char[] indices,
+                            byte[] phaseOf, float[] targets, int from, int to) {
+    for (double[][] phase : gradient) {
+      for (double[] table : phase) {
+        Arrays.fill(table, 0);
+      }
+    }
+    int instances = patterns.instanceCount();
+    double squaredError = 0;
+    for (int record = from; record < to; record++) {
+      double[][] tables = weights[phaseOf[record]];
+      double prediction = 0;
+      for (int i = 0; i < instances; i++) {
+        prediction += tables[patterns.familyOf(i)][indices[record * instances + i]];
+      }
+      double error = prediction - targets[record];
+      squaredError += error * error;
+      double[][] gradientTables = gradient[phaseOf[record]];
+      for (int i = 0; i < instances; i++) {
+        gradientTables[patterns.familyOf(i)][indices[record * instances + i]] += error;
+      }
+    }
+    return squaredError;
+  }
+
+  private double[][][] newTables() {
+    double[][][] tables = new double[phases][patterns.familyCount()][];
+    for (int phase = 0; phase < phases; phase++) {
+      for (int family = 0; family < patterns.familyCount(); family++) {
+        tables[phase][family] =
+            new double[PatternEvaluator.tableSize(patterns.familyCells(family).length)];
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * Run the given tasks on a pool of this tuner's threads and wait for all of them.
+   */
+  private <T> List<Future<T>> runAll(List<Callable<T>> tasks) throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      return executor.invokeAll(tasks);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <T> T getResult(Future<T> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Tuning failed", e.getCause());
+    }
+  }
+
+  private MutableReversiModel newModel() {
+    if (geometry.getType() == ReadOnlyReversiModel.ModelType.SQUARE) {
+      return new SquareReversiModel.ModelBuilder().setSize(geometry.getSize()).build();
+    }
+    return new HexReversiModel.ModelBuilder().setSize(geometry.getSize()).build();
+  }
+}
@@ -20,4 +20,17 @@ public interface FallibleStrategy {
    * @return the position
    */
   Optional<RowColPair> choosePosition(ReadOnlyReversiModel model, RepresentativeColor player);
+
+  /**
+   * get the position for the decision described by the given context. Strategies that look at
+   * the legal moves or the corners of the board read them from the context, so that the
+   * strategies chained by a {@link CompositeStrategy} share them instead of computing them
+   * again. By default, the context is ignored.
+   *
+   * @param context the model and the player of the decision, with what is known about it
+   * @return the position
+   */
+  default Optional<RowColPair> choosePosition(MoveContext context) {
+    return choosePosition(context.getModel(), context.getPlayer());
+  }
 }
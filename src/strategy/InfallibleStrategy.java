@@ -1,5 +1,8 @@
 package strategy;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import model.ReadOnlyReversiModel;
 import model.RepresentativeColor;
 import model.RowColPair;
@@ -21,4 +24,26 @@ public interface InfallibleStrategy {
    * @throws IllegalStateException if there is no valid move
    */
   RowColPair choosePosition(ReadOnlyReversiModel model, RepresentativeColor player);
+
+  /**
+   * get the position in the background, without waiting for the strategy. The strategy searches
+   * a copy of the model on the given executor, so the model can keep changing meanwhile.
+   * Cancelling the future, or missing the deadline, interrupts the search, which makes the
+   * searching strategies stop early.
+   *
+   * @param model    the current model
+   * @param player   the current player that need to choose next move
+   * @param executor the executor running the strategy, such as Runnable::run to run it at once
+   *                 on the calling thread
+   * @param timeout  the time after which the future fails with a
+   *                 {@link java.util.concurrent.TimeoutException}, or null for no deadline
+   * @return the future position, failing with an {@link IllegalStateException} if there is no
+   *         valid move
+   */
+  default CompletableFuture<RowColPair> choosePositionAsync(ReadOnlyReversiModel model,
+                                                            RepresentativeColor player,
+                                                            Executor executor,
+                                                            Duration timeout) {
+    return StrategyTask.submit(this, model, player, executor, timeout);
+  }
 }
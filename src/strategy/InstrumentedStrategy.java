@@ -0,0 +1,99 @@
+package strategy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A strategy that measures the decisions of another strategy: the time spent, the memory
+ * allocated by the deciding thread, and the nodes, depth, cutoffs and hash lookups reported by
+ * the searches it runs on that thread (see {@link SearchStats}). The statistics of the last
+ * decision can be read back, and are also handed to an optional sink after every decision,
+ * for instance to log them. Work done on other threads, such as pondering in the background or
+ * the workers of a Monte Carlo search, is reported by the strategy that waits for it, when it
+ * does. Instrumented strategies are fallible when the strategy they measure is.
+ */
+public final class InstrumentedStrategy implements FallibleStrategy {
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private final String name;
+  private final FallibleStrategy strategy;
+  private final Consumer<SearchStats> sink;
+  private volatile SearchStats lastStats;
+
+  /**
+   * Construct the instrumented strategy without a sink.
+   *
+   * @param name     the name of the strategy, used in the statistics
+   * @param strategy the strategy to measure
+   */
+  public InstrumentedStrategy(String name, FallibleStrategy strategy) {
+    this(name, strategy, stats -> { });
+  }
+
+  /**
+   * Construct the instrumented strategy with a sink receiving the statistics of every decision.
+   *
+   * @param name     the name of the strategy, used in the statistics
+   * @param strategy the strategy to measure
+   * @param sink     the sink, called on the deciding thread
+   * @throws NullPointerException if an argument is null
+   */
+  public InstrumentedStrategy(String name, FallibleStrategy strategy,
+                              Consumer<SearchStats> sink) {
+    this.name = Objects.requireNonNull(name);
+    this.strategy = Objects.requireNonNull(strategy);
+    this.sink = Objects.requireNonNull(sink);
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
+                                             RepresentativeColor player) {
+    return choosePosition(new MoveContext(model, player));
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(MoveContext context) {
+    SearchCounters outer = SearchCounters.begin();
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return strategy.choosePosition(context);
+    } finally {
+      long nanos = System.nanoTime() - start;
+      long bytes = allocated < 0 ? -1 : allocatedBytes() - allocated;
+      SearchStats stats = SearchCounters.end(outer).toStats(name, nanos, bytes);
+      lastStats = stats;
+      sink.accept(stats);
+    }
+  }
+
+  /**
+   * Get the statistics of the last decision made by this strategy, on any thread.
+   *
+   * @return the statistics, or empty if no decision was made yet
+   */
+  public Optional<SearchStats> getLastStats() {
+    return Optional.ofNullable(lastStats);
+  }
+
+  /**
+   * Get the memory allocated by the current thread so far.
+   *
+   * @return the number of bytes, or -1 if the virtual machine does not measure it
+   */
+  private static long allocatedBytes() {
+    if (THREADS instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+      if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+}
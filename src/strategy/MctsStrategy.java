@@ -0,0 +1,377 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A strategy that chooses its move with a Monte Carlo tree search. Instead of evaluating
+ * positions, it plays many quick random games from the current position on a
+ * {@link SearchBoard}, and grows a tree towards the moves that win most often, balancing
+ * exploitation and exploration with the UCT formula. The search runs for a fixed time budget
+ * on several workers, each of them growing its own tree from the same root (root
+ * parallelization), and the move visited most by all the workers together is chosen. The trees
+ * are kept after a decision, so the next decision starts from the subtree of the position that
+ * was actually reached instead of starting from scratch. A search whose thread is interrupted
+ * stops with a {@link CancellationException}, and throws its trees away, since the workers may
+ * still be growing them. Monte Carlo strategies are fallible: they return no move when the
+ * player can not place anywhere.
+ */
+public final class MctsStrategy implements FallibleStrategy {
+  private static final double EXPLORATION = Math.sqrt(2);
+  private static final long DEFAULT_BUDGET_MILLIS = 1000;
+  private static final int MAX_NODES_PER_WORKER = 200_000;
+  private static final int PASS = -1;
+
+  private final long budgetMillis;
+  private final int maxIterations;
+  private final int workers;
+  private final ExecutorService executor;
+  private Node[] retained;
+
+  /**
+   * Construct the strategy with a one second budget and one worker per available processor.
+   */
+  public MctsStrategy() {
+    this(DEFAULT_BUDGET_MILLIS, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Construct the strategy with the given time budget and number of workers.
+   *
+   * @param budgetMillis the time spent on each decision, in milliseconds
+   * @param workers      the number of trees searched in parallel
+   * @throws IllegalArgumentException if the budget or the number of workers is not positive
+   */
+  public MctsStrategy(long budgetMillis, int workers) {
+    this(budgetMillis, workers, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Construct the strategy with the given time budget, number of workers and maximum number of
+   * playouts per worker and per decision, whichever runs out first.
+   *
+   * @param budgetMillis  the time spent on each decision, in milliseconds
+   * @param workers       the number of trees searched in parallel
+   * @param maxIterations the maximum number of playouts of each worker
+   * @throws IllegalArgumentException if any of the parameters is not positive
+   */
+  public MctsStrategy(long budgetMillis, int workers, int maxIterations) {
+    if (budgetMillis <= 0 || workers <= 0 || maxIterations <= 0) {
+      throw new IllegalArgumentException("Invalid search budget");
+    }
+    this.budgetMillis = budgetMillis;
+    this.workers = workers;
+    this.maxIterations = maxIterations;
+    this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+      Thread thread = new Thread(runnable, "mcts-worker");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Choose the move visited the most by the workers within the budget.
+   *
+   * @param model  the current model
+   * @param player the player to move
+   * @return the chosen position, or empty if the player can not place anywhere
+   * @throws CancellationException if the thread is interrupted during the search
+   */
+  @Override
+  public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
+                                             RepresentativeColor player) {
+    SearchBoard board = SearchBoard.of(model);
+    int side = SearchBoard.toSide(player);
+    if (side == SearchBoard.EMPTY || !board.hasMove(side)) {
+      return Optional.empty();
+    }
+    long key = board.key(side);
+    long deadline = System.currentTimeMillis() + budgetMillis;
+    Node[] roots = new Node[workers];
+    List<Future<?>> futures = new ArrayList<>();
+    long playouts = 0;
+    int reusedTrees = 0;
+    synchronized (this) {
+      for (int i = 0; i < workers; i++) {
+        Node reused = retained == null ? null : findReusable(retained[i], key);
+        roots[i] = reused == null ? new Node(null, PASS, SearchBoard.opponent(side), key)
+            : reused.detach();
+        playouts -= roots[i].visits;
+        reusedTrees += reused == null ? 0 : 1;
+        Node root = roots[i];
+        long seed = key ^ (0x9E3779B97F4A7C15L * (i + 1));
+        futures.add(executor.submit(() -> search(board, side, root, deadline, seed)));
+      }
+      try {
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } catch (InterruptedException e) {
+        // the workers only see the interrupt between playouts and may still change the trees,
+        // which are neither read nor kept.
+        futures.forEach(future -> future.cancel(true));
+        retained = null;
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Search interrupted");
+      } catch (ExecutionException e) {
+        futures.forEach(future -> future.cancel(true));
+        retained = null;
+        throw new IllegalStateException("Monte Carlo search failed", e.getCause());
+      }
+      retained = roots;
+      for (Node root : roots) {
+        playouts += root.visits;
+      }
+    }
+    // the workers run on other threads, their playouts are reported by the deciding thread.
+    SearchCounters.addNodes(playouts);
+    SearchCounters.addHashProbes(workers, reusedTrees);
+    return Optional.ofNullable(bestMove(board, side, roots));
+  }
+
+  /**
+   * Find the move visited the most by all the workers together.
+   *
+   * @param board the root position
+   * @param side  the side to move
+   * @param roots the root of the tree of each worker
+   * @return the chosen position, or null if no worker expanded the root
+   */
+  private RowColPair bestMove(SearchBoard board, int side, Node[] roots) {
+    int[] visits = new int[board.getGeometry().length()];
+    for (Node root : roots) {
+      if (root.children == null) {
+        continue;
+      }
+      for (Node child : root.children) {
+        if (child.move != PASS) {
+          visits[child.move] += child.visits;
+        }
+      }
+    }
+    int best = -1;
+    for (int index : board.getGeometry().cells()) {
+      if (board.isLegal(index, side) && (best < 0 || visits[index] > visits[best])) {
+        best = index;
+      }
+    }
+    return best < 0 ? null : board.pairOf(best);
+  }
+
+  /**
+   * Look for the node of the given position at most three plies below the previous root, so
+   * that the statistics gathered for it during the previous decision are not thrown away.
+   *
+   * @param node the previous root
+   * @param key  the key of the current position and side to move
+   * @return the node of the current position, or null if it was never reached
+   */
+  private Node findReusable(Node node, long key) {
+    return findReusable(node, key, 3);
+  }
+
+  private Node findReusable(Node node, long key, int depth) {
+    if (node == null) {
+      return null;
+    }
+    if (node.key == key) {
+      return node;
+    }
+    if (depth == 0 || node.children == null) {
+      return null;
+    }
+    for (Node child : node.children) {
+      Node found = findReusable(child, key, depth - 1);
+      if (found != null) {
+        return found;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Grow the tree of one worker until the deadline or the iteration budget runs out.
+   *
+   * @param rootBoard the root position, which is only read
+   * @param rootSide  the side to move at the root
+   * @param root      the root of this worker's tree
+   * @param deadline  the time at which to stop, in milliseconds
+   * @param seed      the seed of this worker's random moves
+   */
+  private void search(SearchBoard rootBoard, int rootSide, Node root, long deadline,
+                      long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    SearchBoard board = rootBoard.copy();
+    int[] flips = new int[board.getGeometry().cellCount() * 8];
+    int[] moves = new int[board.getGeometry().cellCount()];
+    int[] nodes = {0};
+    for (int iteration = 0; iteration < maxIterations; iteration++) {
+      if ((iteration & 63) == 0 && (System.currentTimeMillis() >= deadline
+          || Thread.currentThread().isInterrupted())) {
+        return;
+      }
+      board.copyFrom(rootBoard);
+      Node node = root;
+      int side = rootSide;
+      // selection: descend through fully expanded nodes.
+      while (true) {
+        if (node.untried == null) {
+          expand(node, board, side, moves, nodes);
+        }
+        if (node.untriedCount > 0 || node.children == null || node.children.isEmpty()) {
+          break;
+        }
+        node = node.select();
+        if (node.move != PASS) {
+          board.play(node.move, side, flips, 0);
+        }
+        side = SearchBoard.opponent(side);
+      }
+      // expansion: add one untried move, unless the tree is already too large.
+      if (node.untriedCount > 0 && nodes[0] < MAX_NODES_PER_WORKER) {
+        int pick = random.nextInt(node.untriedCount);
+        int move = node.untried[pick];
+        node.untried[pick] = node.untried[--node.untriedCount];
+        if (move != PASS) {
+          board.play(move, side, flips, 0);
+        }
+        Node child = new Node(node, move, side, board.key(SearchBoard.opponent(side)));
+        node.children.add(child);
+        nodes[0]++;
+        node = child;
+        side = SearchBoard.opponent(side);
+      }
+      double blackResult = playout(board, side, random, moves, flips);
+      // backpropagation: every node is scored for the side that moved into it.
+      for (Node current = node; current != null; current = current.parent) {
+        current.visits++;
+        current.wins += current.side == SearchBoard.BLACK ? blackResult : 1 - blackResult;
+      }
+    }
+  }
+
+  /**
+   * Compute the moves available in the position of a node reached for the first time. A side
+   * with no legal move gets a single pass move, unless the game is over.
+   */
+  private void expand(Node node, SearchBoard board, int side, int[] moves, int[] nodes) {
+    int count = board.generateMoves(side, moves);
+    if (count == 0 && board.hasMove(SearchBoard.opponent(side))) {
+      moves[0] = PASS;
+      count = 1;
+    }
+    node.untried = new int[count];
+    System.arraycopy(moves, 0, node.untried, 0, count);
+    node.untriedCount = count;
+    node.children = new ArrayList<>(count);
+  }
+
+  /**
+   * Play random moves until the game ends. The playouts use a light policy: a corner is always
+   * taken when it is available, and any other move is chosen uniformly at random.
+   *
+   * @return 1 if black wins, 0 if white wins and 0.5 for a tie
+   */
+  private double playout(SearchBoard board, int side, SplittableRandom random, int[] moves,
+                         int[] flips) {
+    int[] corners = board.getGeometry().corners();
+    boolean passed = false;
+    while (board.empties() > 0) {
+      int move = -1;
+      for (int corner : corners) {
+        if (board.isLegal(corner, side)) {
+          move = corner;
+          break;
+        }
+      }
+      if (move < 0) {
+        int count = board.generateMoves(side, moves);
+        if (count == 0) {
+          if (passed) {
+            break;
+          }
+          passed = true;
+          side = SearchBoard.opponent(side);
+          continue;
+        }
+        move = moves[random.nextInt(count)];
+      }
+      passed = false;
+      board.play(move, side, flips, 0);
+      side = SearchBoard.opponent(side);
+    }
+    int difference = board.discDifference(SearchBoard.BLACK);
+    return difference > 0 ? 1 : difference < 0 ? 0 : 0.5;
+  }
+
+  /**
+   * A node of a search tree, representing the position reached by a move.
+   */
+  private static final class Node {
+    private Node parent;
+    private final int move;
+    private final int side;
+    private final long key;
+    private List<Node> children;
+    private int[] untried;
+    private int untriedCount;
+    private int visits;
+    private double wins;
+
+    /**
+     * Construct a node.
+     *
+     * @param parent the node of the previous position
+     * @param move   the cell played to reach this position, or {@link #PASS}
+     * @param side   the side that played the move
+     * @param key    the key of the reached position, with the opponent of side to move
+     */
+    private Node(Node parent, int move, int side, long key) {
+      this.parent = parent;
+      this.move = move;
+      this.side = side;
+      this.key = key;
+    }
+
+    /**
+     * Cut this node from its parent, so it becomes a root and the rest of the old tree can be
+     * collected.
+     *
+     * @return this node
+     */
+    private Node detach() {
+      parent = null;
+      return this;
+    }
+
+    /**
+     * Select the child with the highest upper confidence bound.
+     *
+     * @return the selected child
+     */
+    private Node select() {
+      double logVisits = Math.log(Math.max(1, visits));
+      Node best = null;
+      double bestValue = Double.NEGATIVE_INFINITY;
+      for (Node child : children) {
+        double value = child.wins / child.visits
+            + EXPLORATION * Math.sqrt(logVisits / child.visits);
+        if (value > bestValue) {
+          bestValue = value;
+          best = child;
+        }
+      }
+      return best;
+    }
+  }
+}
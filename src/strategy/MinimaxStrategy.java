@@ -1,6 +1,7 @@
 package strategy;
 
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import model.MutableReversiModel;
 import model.ReadOnlyReversiModel;
 import model.RepresentativeColor;
@@ -21,6 +22,7 @@ public final class MinimaxStrategy extends AbstractStrategy implements FallibleS
   public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
                                                 RepresentativeColor player) {
     Move move = getMyMove(model.getDeepCopy(player), MAX_DEPTH, player);
+    SearchCounters.reachDepth(MAX_DEPTH);
     if (move == null) {
       return Optional.empty();
     }
@@ -35,11 +37,17 @@ public final class MinimaxStrategy extends AbstractStrategy implements FallibleS
    * @param player the player whose turn it is on the current board
    * @return n Optional move. We will return the best move if it exists,
    *         otherwise an empty optional.
+   * @throws CancellationException if the thread is interrupted during the search
    */
   private Move getMyMove(MutableReversiModel model, int depth, RepresentativeColor player) {
     if (depth < 0) {
       throw new IllegalArgumentException();
     }
+    SearchCounters.addNodes(1);
+    // a search that is no longer needed, such as a cancelled ponder, stops early.
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("Search interrupted");
+    }
     if (depth == 0 || model.isGameOver()) {
       return new Move(getValue(model, player));
     }
@@ -72,6 +80,7 @@ public final class MinimaxStrategy extends AbstractStrategy implements FallibleS
     if (depth < 0) {
       throw new IllegalArgumentException();
     }
+    SearchCounters.addNodes(1);
     if (depth == 0 || model.isGameOver()) {
       return getValue(model, player.getOpposite());
     }
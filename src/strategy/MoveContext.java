@@ -0,0 +1,100 @@
+package strategy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * What the rule-based strategies need to know about one decision: the legal moves of the player
+ * with the number of discs each of them flips, the corners of the board, and which moves are
+ * next to a corner. Everything is computed on first use and then kept, so that the strategies
+ * of a {@link CompositeStrategy} chain, which all look at the same position for the same
+ * player, ask the model for the legal moves once instead of once per strategy. A context
+ * belongs to a single decision: it must not be kept once the model changes.
+ */
+public final class MoveContext {
+  /**
+   * Gives access to the board helpers shared by the strategies.
+   */
+  private static final AbstractStrategy HELPER = new AbstractStrategy() {
+  };
+
+  private final ReadOnlyReversiModel model;
+  private final RepresentativeColor player;
+  private Map<RowColPair, Integer> moves;
+  private List<RowColPair> corners;
+  private Map<RowColPair, Boolean> nextToCorner;
+
+  /**
+   * Construct the context of the given player choosing a move on the given model.
+   *
+   * @param model  the current model
+   * @param player the player choosing a move
+   */
+  public MoveContext(ReadOnlyReversiModel model, RepresentativeColor player) {
+    this.model = model;
+    this.player = player;
+  }
+
+  /**
+   * Get the model of this decision.
+   *
+   * @return the model
+   */
+  public ReadOnlyReversiModel getModel() {
+    return model;
+  }
+
+  /**
+   * Get the player making this decision.
+   *
+   * @return the player
+   */
+  public RepresentativeColor getPlayer() {
+    return player;
+  }
+
+  /**
+   * Get the legal moves of the player, computed once with
+   * {@link AbstractStrategy#findAvailablePosition}.
+   *
+   * @return an unmodifiable map from each legal move to the number of discs it flips
+   */
+  public Map<RowColPair, Integer> getMoves() {
+    if (moves == null) {
+      SearchCounters.addNodes(1);
+      moves = Collections.unmodifiableMap(HELPER.findAvailablePosition(model, player));
+    }
+    return moves;
+  }
+
+  /**
+   * Get the corners of the board.
+   *
+   * @return the corners, in the order of {@link AbstractStrategy#getCornerPoints}
+   */
+  public List<RowColPair> getCorners() {
+    if (corners == null) {
+      corners = HELPER.getCornerPoints(model);
+    }
+    return corners;
+  }
+
+  /**
+   * Check if the given position is next to a corner of the board.
+   *
+   * @param pair the position
+   * @return true if one of its neighbours is a corner
+   */
+  public boolean isNextToCorner(RowColPair pair) {
+    if (nextToCorner == null) {
+      nextToCorner = new HashMap<>();
+    }
+    return nextToCorner.computeIfAbsent(pair,
+        key -> HELPER.isNextToCorner(model, key, getCorners()));
+  }
+}
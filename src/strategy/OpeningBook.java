@@ -0,0 +1,242 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A precomputed book of opening moves for one board type and size. Positions are identified by
+ * their canonical key (see {@link SearchBoard}), so a single entry serves every rotation and
+ * reflection of a position, and the stored move is the best move of the canonical image.
+ * A book file is a small header followed by fixed-size records sorted by key: a key of eight
+ * bytes and a cell index of two bytes. The file is memory-mapped instead of read, so opening a
+ * book of millions of positions is immediate and a lookup is a binary search over the mapped
+ * records, which only touches a few pages of the file.
+ */
+public final class OpeningBook {
+  private static final int MAGIC = 0x5256424B;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 20;
+  private static final int RECORD_BYTES = 10;
+
+  private final BoardGeometry geometry;
+  private final ByteBuffer records;
+  private final int count;
+
+  /**
+   * Construct a book over mapped records.
+   *
+   * @param geometry the board of the book
+   * @param records  the records, starting at position 0
+   * @param count    the number of records
+   */
+  private OpeningBook(BoardGeometry geometry, ByteBuffer records, int count) {
+    this.geometry = geometry;
+    this.records = records;
+    this.count = count;
+  }
+
+  /**
+   * Open a book file by mapping it into memory.
+   *
+   * @param path the file
+   * @return the book
+   * @throws IOException              if the file can not be read
+   * @throws IllegalArgumentException if the file is not an opening book
+   */
+  public static OpeningBook open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES) {
+        throw new IllegalArgumentException("Not an opening book: " + path);
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      buffer.order(ByteOrder.BIG_ENDIAN);
+      ReadOnlyReversiModel.ModelType[] types = ReadOnlyReversiModel.ModelType.values();
+      int type = buffer.getInt(8);
+      int count = buffer.getInt(16);
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || type < 0
+          || type >= types.length || count < 0
+          || length != HEADER_BYTES + (long) count * RECORD_BYTES) {
+        throw new IllegalArgumentException("Not an opening book: " + path);
+      }
+      BoardGeometry geometry = BoardGeometry.of(types[type], buffer.getInt(12));
+      buffer.position(HEADER_BYTES);
+      return new OpeningBook(geometry, buffer.slice(), count);
+    }
+  }
+
+  /**
+   * Write a book file, replacing any existing file.
+   *
+   * @param path     the file
+   * @param geometry the board of the book
+   * @param entries  the best canonical move of each canonical key
+   * @throws IOException if the file can not be written
+   */
+  public static void write(Path path, BoardGeometry geometry, Map<Long, Integer> entries)
+      throws IOException {
+    long[] keys = new long[entries.size()];
+    int i = 0;
+    for (long key : entries.keySet()) {
+      keys[i++] = key;
+    }
+    Arrays.sort(keys);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+      buffer.putInt(MAGIC).putInt(VERSION).putInt(geometry.getType().ordinal())
+          .putInt(geometry.getSize()).putInt(keys.length);
+      for (long key : keys) {
+        if (buffer.remaining() < RECORD_BYTES) {
+          drain(channel, buffer);
+        }
+        buffer.putLong(key).putChar((char) entries.get(key).intValue());
+      }
+      drain(channel, buffer);
+    }
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Get the name of the book file of the given board, as looked up by
+   * {@link OpeningBookStrategy} in its directory.
+   *
+   * @param type the type of the board
+   * @param size the size of the board
+   * @return the file name
+   */
+  public static String fileName(ReadOnlyReversiModel.ModelType type, int size) {
+    return type.name().toLowerCase() + "-" + size + ".book";
+  }
+
+  /**
+   * Check if a file exists for the given board in the given directory.
+   *
+   * @param directory the directory
+   * @param type      the type of the board
+   * @param size      the size of the board
+   * @return true if there is a file
+   */
+  static boolean exists(Path directory, ReadOnlyReversiModel.ModelType type, int size) {
+    return Files.isRegularFile(directory.resolve(fileName(type, size)));
+  }
+
+  /**
+   * Get the board of this book.
+   *
+   * @return the geometry
+   */
+  public BoardGeometry getGeometry() {
+    return geometry;
+  }
+
+  /**
+   * Get the number of positions in this book.
+   *
+   * @return the number of positions
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Look up the book move of the given player in the position of the given model.
+   *
+   * @param model  the current model
+   * @param player the player to move
+   * @return the book move, or empty if the position is not in the book or is of another board
+   */
+  public Optional<RowColPair> lookup(ReadOnlyReversiModel model, RepresentativeColor player) {
+    if (model.checkType() != geometry.getType() || model.getSize() != geometry.getSize()) {
+      return Optional.empty();
+    }
+    SearchBoard board = SearchBoard.of(model);
+    int move = lookup(board, SearchBoard.toSide(player));
+    return move < 0 ? Optional.empty() : Optional.of(board.pairOf(move));
+  }
+
+  /**
+   * Look up the book move of the given side on a board of this book's geometry.
+   *
+   * @param board the position
+   * @param side  the side to move
+   * @return the index of the book move on this board, or -1 if the position is not in the book
+   */
+  int lookup(SearchBoard board, int side) {
+    int[] symmetry = new int[1];
+    int record = find(board.canonicalKey(side, symmetry));
+    if (record < 0) {
+      return -1;
+    }
+    int canonicalMove = moveAt(record);
+    int[] image = geometry.symmetries()[symmetry[0]];
+    for (int index : geometry.cells()) {
+      if (image[index] == canonicalMove) {
+        return board.isLegal(index, side) ? index : -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Binary search the records for the given key.
+   *
+   * @param key the canonical key
+   * @return the number of the record, or -1 if it is not in the book
+   */
+  private int find(long key) {
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long current = keyAt(middle);
+      if (current < key) {
+        low = middle + 1;
+      } else if (current > key) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Get the key of the given record.
+   *
+   * @param record the number of the record
+   * @return its canonical key
+   */
+  long keyAt(int record) {
+    return records.getLong(record * RECORD_BYTES);
+  }
+
+  /**
+   * Get the move of the given record.
+   *
+   * @param record the number of the record
+   * @return the index of its move on the canonical image of the position
+   */
+  int moveAt(int record) {
+    return records.getChar(record * RECORD_BYTES + 8);
+  }
+}
@@ -0,0 +1,286 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import model.HexReversiModel;
+import model.MutableReversiModel;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.SquareReversiModel;
+
+/**
+ * Builds {@link OpeningBook} files offline. Starting from the initial position, every position
+ * reachable within a number of moves is visited once, symmetric positions included only once,
+ * and the best move of each position is chosen by a slow but strong strategy. The positions of
+ * a move number are searched in parallel, each worker thread with its own strategy instance.
+ * An existing book is expanded: its positions are kept and are not searched again.
+ */
+public final class OpeningBookBuilder {
+  private final BoardGeometry geometry;
+  private final int threads;
+  private final Supplier<FallibleStrategy> strategies;
+  private final SearchBoard start;
+
+  /**
+   * Construct a builder.
+   *
+   * @param type       the type of the board
+   * @param size       the size of the board
+   * @param threads    the number of positions searched in parallel
+   * @param strategies creates the strategy of each worker thread
+   * @throws IllegalArgumentException if the board is not supported or threads is not positive
+   */
+  public OpeningBookBuilder(ReadOnlyReversiModel.ModelType type, int size, int threads,
+                            Supplier<FallibleStrategy> strategies) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Invalid number of threads");
+    }
+    this.geometry = BoardGeometry.of(type, size);
+    this.threads = threads;
+    this.strategies = Objects.requireNonNull(strategies);
+    MutableReversiModel model = newModel();
+    model.startGame();
+    this.start = SearchBoard.of(model);
+  }
+
+  /**
+   * Build the book of the given board with the strategy of the hardest difficulty, and one
+   * thread per processor unless given.
+   * Usage: OpeningBookBuilder TYPE SIZE MOVES FILE [THREADS], for example
+   * OpeningBookBuilder SQUARE 8 6 books/square-8.book
+   *
+   * @param args the board type, the board size, the number of moves, the book file and
+   *             optionally the number of threads
+   * @throws IOException          if the book can not be read or written
+   * @throws InterruptedException if the build is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length != 4 && args.length != 5) {
+      throw new IllegalArgumentException("Usage: OpeningBookBuilder TYPE SIZE MOVES FILE "
+          + "[THREADS]");
+    }
+    ReadOnlyReversiModel.ModelType type =
+        ReadOnlyReversiModel.ModelType.valueOf(args[0].toUpperCase());
+    int threads = args.length == 5 ? Integer.parseInt(args[4])
+        : Runtime.getRuntime().availableProcessors();
+    OpeningBookBuilder builder = new OpeningBookBuilder(type, Integer.parseInt(args[1]),
+        threads, () -> new EndgameStrategy(new MinimaxStrategy()));
+    builder.build(Paths.get(args[3]), Integer.parseInt(args[2]),
+        (move, positions, searched, entries) -> System.out.println("move " + move + ": "
+            + positions + " positions, " + searched + " searched, " + entries + " in the book"));
+  }
+
+  /**
+   * Expand the book in the given file, as {@link #build(Path, int, Progress)} does, without
+   * following the progress.
+   *
+   * @param file  the book file
+   * @param moves the number of moves covered by the book
+   * @throws IOException          if the book can not be read or written
+   * @throws InterruptedException if the build is interrupted
+   */
+  public void build(Path file, int moves) throws IOException, InterruptedException {
+    build(file, moves, (move, positions, searched, entries) -> { });
+  }
+
+  /**
+   * Expand the book in the given file, creating it if needed, so that it holds every position
+   * of the first moves of the game.
+   *
+   * @param file     the book file
+   * @param moves    the number of moves covered by the book
+   * @param progress told when the positions of each move are done
+   * @throws IOException          if the book can not be read or written
+   * @throws InterruptedException if the build is interrupted
+   */
+  public void build(Path file, int moves, Progress progress)
+      throws IOException, InterruptedException {
+    Map<Long, Integer> entries = new ConcurrentHashMap<>();
+    if (Files.exists(file)) {
+      OpeningBook existing = OpeningBook.open(file);
+      if (existing.getGeometry() != geometry) {
+        throw new IllegalArgumentException("The book is for another board");
+      }
+      for (int i = 0; i < existing.size(); i++) {
+        entries.put(existing.keyAt(i), existing.moveAt(i));
+      }
+    }
+    expand(entries, moves, progress);
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    OpeningBook.write(file, geometry, entries);
+  }
+
+  /**
+   * Add the best move of every position of the first moves of the game to the given entries.
+   *
+   * @param entries  the best canonical move of each canonical key, modified in place
+   * @param moves    the number of moves covered by the book
+   * @param progress told when the positions of each move are done
+   * @throws InterruptedException if the build is interrupted
+   */
+  public void expand(Map<Long, Integer> entries, int moves, Progress progress)
+      throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    ThreadLocal<FallibleStrategy> strategy = ThreadLocal.withInitial(strategies);
+    try {
+      List<int[]> lines = new ArrayList<>();
+      lines.add(new int[0]);
+      Set<Long> seen = new HashSet<>();
+      for (int move = 0; move < moves && !lines.isEmpty(); move++) {
+        List<int[]> positions = new ArrayList<>();
+        List<Callable<Void>> searches = new ArrayList<>();
+        int[] symmetry = new int[1];
+        for (int[] line : lines) {
+          SearchBoard board = new SearchBoard(geometry);
+          int side = replay(board, line);
+          if (side == SearchBoard.EMPTY) {
+            continue;
+          }
+          long key = board.canonicalKey(side, symmetry);
+          if (!seen.add(key)) {
+            continue;
+          }
+          positions.add(line);
+          if (!entries.containsKey(key)) {
+            int[] image = geometry.symmetries()[symmetry[0]];
+            searches.add(() -> {
+              search(line, strategy.get()).ifPresent(index -> entries.put(key, image[index]));
+              return null;
+            });
+          }
+        }
+        for (Future<Void> future : executor.invokeAll(searches)) {
+          future.get();
+        }
+        progress.moveDone(move + 1, positions.size(), searches.size(), entries.size());
+        lines = children(positions);
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Opening book search failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Play the given moves from the initial position, passing whenever a side can not move.
+   *
+   * @param board the board receiving the position
+   * @param line  the cells played, in order
+   * @return the side to move after the moves, or {@link SearchBoard#EMPTY} if the game is over
+   */
+  private int replay(SearchBoard board, int[] line) {
+    board.copyFrom(start);
+    int[] flips = new int[geometry.cellCount()];
+    int side = SearchBoard.BLACK;
+    for (int index : line) {
+      if (!board.hasMove(side)) {
+        side = SearchBoard.opponent(side);
+      }
+      board.play(index, side, flips, 0);
+      side = SearchBoard.opponent(side);
+    }
+    if (!board.hasMove(side)) {
+      side = board.hasMove(SearchBoard.opponent(side)) ? SearchBoard.opponent(side)
+          : SearchBoard.EMPTY;
+    }
+    return side;
+  }
+
+  /**
+   * Choose the best move of the position reached by the given moves, on a real model so that
+   * any strategy can be used.
+   *
+   * @param line     the cells played from the initial position
+   * @param strategy the strategy of the current thread
+   * @return the index of the chosen cell, or empty if the strategy does not choose
+   */
+  private Optional<Integer> search(int[] line, FallibleStrategy strategy) {
+    MutableReversiModel model = newModel();
+    model.startGame();
+    SearchBoard board = start.copy();
+    int[] flips = new int[geometry.cellCount()];
+    int side = SearchBoard.BLACK;
+    for (int index : line) {
+      if (!board.hasMove(side)) {
+        model.makePass(model.getTurn());
+        side = SearchBoard.opponent(side);
+      }
+      model.placeMove(board.pairOf(index), SearchBoard.toColor(side));
+      board.play(index, side, flips, 0);
+      side = SearchBoard.opponent(side);
+    }
+    if (!board.hasMove(side)) {
+      model.makePass(model.getTurn());
+    }
+    RepresentativeColor turn = model.getTurn();
+    return strategy.choosePosition(model, turn)
+        .map(geometry::indexOf)
+        .filter(index -> index >= 0 && board.isLegal(index, SearchBoard.toSide(turn)));
+  }
+
+  /**
+   * Extend each of the given lines with every legal move of its last position.
+   *
+   * @param lines the lines
+   * @return the longer lines
+   */
+  private List<int[]> children(List<int[]> lines) {
+    List<int[]> result = new ArrayList<>();
+    int[] moves = new int[geometry.cellCount()];
+    for (int[] line : lines) {
+      SearchBoard board = new SearchBoard(geometry);
+      int side = replay(board, line);
+      int count = board.generateMoves(side, moves);
+      for (int i = 0; i < count; i++) {
+        int[] child = new int[line.length + 1];
+        System.arraycopy(line, 0, child, 0, line.length);
+        child[line.length] = moves[i];
+        result.add(child);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Follows the build of a book, one move number at a time.
+   */
+  @FunctionalInterface
+  public interface Progress {
+    /**
+     * Tell that the positions of a move number are all in the book.
+     *
+     * @param move      the move number, counted from 1
+     * @param positions the number of distinct positions of the move
+     * @param searched  the number of them that were not in the book and were searched
+     * @param entries   the number of positions in the book so far
+     */
+    void moveDone(int move, int positions, int searched, int entries);
+  }
+
+  private MutableReversiModel newModel() {
+    if (geometry.getType() == ReadOnlyReversiModel.ModelType.SQUARE) {
+      return new SquareReversiModel.ModelBuilder().setSize(geometry.getSize()).build();
+    }
+    return new HexReversiModel.ModelBuilder().setSize(geometry.getSize()).build();
+  }
+}
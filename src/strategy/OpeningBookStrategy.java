@@ -0,0 +1,84 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A strategy that plays from an {@link OpeningBook} while the game is still in the book, and
+ * leaves the choice to another strategy once it is out of the book. Looking a move up costs a
+ * few microseconds, so the early moves are played without any search. Books are either given
+ * directly, or loaded on first use from a directory holding one file per board type and size,
+ * named by {@link OpeningBook#fileName}; boards without a file simply have no book. Opening
+ * book strategies are fallible: they return no move when the other strategy does not choose.
+ */
+public final class OpeningBookStrategy implements FallibleStrategy {
+  private final FallibleStrategy fallback;
+  private final Path directory;
+  private final Map<String, Optional<OpeningBook>> books;
+
+  /**
+   * Construct the strategy with the books of the given directory.
+   *
+   * @param directory the directory of the book files
+   * @param fallback  the strategy used out of the book
+   */
+  public OpeningBookStrategy(Path directory, FallibleStrategy fallback) {
+    this.directory = Objects.requireNonNull(directory);
+    this.fallback = Objects.requireNonNull(fallback);
+    this.books = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Construct the strategy with a single book, used for the board of that book only.
+   *
+   * @param book     the book
+   * @param fallback the strategy used out of the book
+   */
+  public OpeningBookStrategy(OpeningBook book, FallibleStrategy fallback) {
+    this.directory = null;
+    this.fallback = Objects.requireNonNull(fallback);
+    this.books = new ConcurrentHashMap<>();
+    BoardGeometry geometry = book.getGeometry();
+    books.put(OpeningBook.fileName(geometry.getType(), geometry.getSize()), Optional.of(book));
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
+                                             RepresentativeColor player) {
+    Optional<OpeningBook> book = findBook(model);
+    Optional<RowColPair> move = book.flatMap(found -> found.lookup(model, player));
+    if (book.isPresent()) {
+      SearchCounters.addHashProbes(1, move.isPresent() ? 1 : 0);
+    }
+    return move.isPresent() ? move : fallback.choosePosition(model, player);
+  }
+
+  /**
+   * Get the book of the board of the given model, loading it the first time.
+   *
+   * @param model the model
+   * @return the book, or empty if there is none
+   */
+  private Optional<OpeningBook> findBook(ReadOnlyReversiModel model) {
+    String name = OpeningBook.fileName(model.checkType(), model.getSize());
+    return books.computeIfAbsent(name, key -> {
+      if (directory == null || !OpeningBook.exists(directory, model.checkType(),
+          model.getSize())) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.of(OpeningBook.open(directory.resolve(key)));
+      } catch (IOException | IllegalArgumentException e) {
+        // a broken book must not stop the game, the other strategy plays instead.
+        return Optional.empty();
+      }
+    });
+  }
+}
@@ -0,0 +1,364 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+
+/**
+ * Evaluates positions with pattern tables. Every pattern of the board (see {@link PatternSet})
+ * looks up the weight of its current content in the table of its family, and the evaluation is
+ * the sum of those weights, in hundredths of a disc. Since a {@link SearchBoard} keeps the
+ * pattern indices up to date while moves are made and taken back, evaluating a position in a
+ * search costs one array lookup per pattern instead of a scan of the board.
+ * The default weights describe the usual reversi heuristics: corners are worth a lot, cells
+ * next to an empty corner are dangerous, cells next to an owned corner are safe and edges are
+ * better than the inside of the board. Unlike a table of cell values, the patterns let the
+ * value of a cell depend on its neighbours.
+ * Tuned weights (see {@link EvaluationTuner}) are split into game phases by the number of discs
+ * on the board, and are saved in weight files that are memory-mapped when loaded. The shared
+ * evaluator of a board uses the weight file of that board in the directory named by the
+ * reversi.weights property, "weights" by default, and the default weights when there is none.
+ */
+public final class PatternEvaluator {
+  private static final Map<BoardGeometry, PatternEvaluator> DEFAULTS = new ConcurrentHashMap<>();
+  private static final int CORNER = 800;
+  private static final int NEXT_TO_EMPTY_CORNER = -300;
+  private static final int NEXT_TO_OWN_CORNER = 150;
+  private static final int EDGE = 100;
+  private static final int INSIDE = 20;
+  private static final int MAGIC = 0x52564557;
+  private static final int VERSION = 1;
+
+  private final PatternSet patterns;
+  private final int[][][] weights;
+  private final int[][][] instanceWeights;
+
+  /**
+   * Construct an evaluator with the given weights.
+   *
+   * @param patterns the patterns of the board
+   * @param weights  for each phase, the table of each family, indexed by pattern index, from
+   *                 the point of view of black
+   * @throws IllegalArgumentException if there is no phase or a table does not have one weight
+   *                                  per pattern index
+   */
+  PatternEvaluator(PatternSet patterns, int[][][] weights) {
+    if (weights.length == 0) {
+      throw new IllegalArgumentException("Invalid number of phases");
+    }
+    for (int[][] phase : weights) {
+      if (phase.length != patterns.familyCount()) {
+        throw new IllegalArgumentException("Invalid number of weight tables");
+      }
+      for (int family = 0; family < phase.length; family++) {
+        if (phase[family].length != tableSize(patterns.familyCells(family).length)) {
+          throw new IllegalArgumentException("Invalid weight table size");
+        }
+      }
+    }
+    this.patterns = patterns;
+    this.weights = weights;
+    instanceWeights = new int[weights.length][patterns.instanceCount()][];
+    for (int phase = 0; phase < weights.length; phase++) {
+      for (int i = 0; i < patterns.instanceCount(); i++) {
+        instanceWeights[phase][i] = weights[phase][patterns.familyOf(i)];
+      }
+    }
+  }
+
+  /**
+   * Get the shared evaluator of the given board: the tuned weights of its weight file if there
+   * is a readable one, or the default weights.
+   *
+   * @param geometry the board
+   * @return the evaluator
+   */
+  public static PatternEvaluator of(BoardGeometry geometry) {
+    return DEFAULTS.computeIfAbsent(geometry, key -> {
+      Path file = Paths.get(System.getProperty("reversi.weights", "weights"))
+          .resolve(fileName(key.getType(), key.getSize()));
+      if (Files.isRegularFile(file)) {
+        try {
+          return load(file);
+        } catch (IOException | IllegalArgumentException e) {
+          // a broken weight file must not stop the game, the default weights are used instead.
+        }
+      }
+      return withDefaultWeights(key);
+    });
+  }
+
+  /**
+   * Build an evaluator of the given board with the default weights.
+   *
+   * @param geometry the board
+   * @return the evaluator
+   */
+  public static PatternEvaluator withDefaultWeights(BoardGeometry geometry) {
+    PatternSet patterns = PatternSet.of(geometry);
+    return new PatternEvaluator(patterns, new int[][][]{defaultWeights(patterns)});
+  }
+
+  /**
+   * Get the name of the weight file of the given board.
+   *
+   * @param type the type of the board
+   * @param size the size of the board
+   * @return the file name
+   */
+  public static String fileName(ReadOnlyReversiModel.ModelType type, int size) {
+    return type.name().toLowerCase() + "-" + size + ".weights";
+  }
+
+  /**
+   * Load the weights of a weight file. The file is mapped into memory and the weights are
+   * read from the mapping.
+   *
+   * @param path the file
+   * @return the evaluator
+   * @throws IOException              if the file can not be read
+   * @throws IllegalArgumentException if the file is not a weight file of known patterns
+   */
+  public static PatternEvaluator load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      ReadOnlyReversiModel.ModelType[] types = ReadOnlyReversiModel.ModelType.values();
+      if (buffer.remaining() < 24 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IllegalArgumentException("Not a weight file: " + path);
+      }
+      int type = buffer.getInt();
+      if (type < 0 || type >= types.length) {
+        throw new IllegalArgumentException("Not a weight file: " + path);
+      }
+      PatternSet patterns = PatternSet.of(BoardGeometry.of(types[type], buffer.getInt()));
+      int phases = buffer.getInt();
+      int families = buffer.getInt();
+      if (phases <= 0 || families != patterns.familyCount()) {
+        throw new IllegalArgumentException("The weights do not match the patterns: " + path);
+      }
+      long expected = 24L + 4L * families;
+      for (int family = 0; family < families; family++) {
+        expected += 2L * phases * tableSize(patterns.familyCells(family).length);
+      }
+      if (channel.size() != expected) {
+        throw new IllegalArgumentException("The weights do not match the patterns: " + path);
+      }
+      for (int family = 0; family < families; family++) {
+        if (buffer.getInt() != patterns.familyCells(family).length) {
+          throw new IllegalArgumentException("The weights do not match the patterns: " + path);
+        }
+      }
+      int[][][] weights = new int[phases][families][];
+      for (int phase = 0; phase < phases; phase++) {
+        for (int family = 0; family < families; family++) {
+          int[] table = new int[tableSize(patterns.familyCells(family).length)];
+          for (int i = 0; i < table.length; i++) {
+            table[i] = buffer.getShort();
+          }
+          weights[phase][family] = table;
+        }
+      }
+      return new PatternEvaluator(patterns, weights);
+    }
+  }
+
+  /**
+   * Save the weights of this evaluator into a weight file, replacing any existing file. Weights
+   * are stored on two bytes, larger weights are clamped.
+   *
+   * @param path the file
+   * @throws IOException if the file can not be written
+   */
+  public void save(Path path) throws IOException {
+    BoardGeometry geometry = patterns.getGeometry();
+    int length = 24 + 4 * patterns.familyCount();
+    for (int[] table : weights[0]) {
+      length += 2 * weights.length * table.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(geometry.getType().ordinal())
+        .putInt(geometry.getSize()).putInt(weights.length).putInt(patterns.familyCount());
+    for (int family = 0; family < patterns.familyCount(); family++) {
+      buffer.putInt(patterns.familyCells(family).length);
+    }
+    for (int[][] phase : weights) {
+      for (int[] table : phase) {
+        for (int weight : table) {
+          buffer.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, weight)));
+        }
+      }
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Get the number of pattern indices of a pattern of the given length.
+   *
+   * @param length the number of cells of the pattern
+   * @return 3 to the power of length
+   */
+  static int tableSize(int length) {
+    int size = 1;
+    for (int i = 0; i < length; i++) {
+      size *= 3;
+    }
+    return size;
+  }
+
+  /**
+   * Build the default weights from the usual heuristics. The value of each cell is shared
+   * between all the patterns it belongs to, so that a cell counts once in the evaluation.
+   *
+   * @param patterns the patterns of the board
+   * @return the table of each family
+   */
+  private static int[][] defaultWeights(PatternSet patterns) {
+    BoardGeometry geometry = patterns.getGeometry();
+    int[] cornerOf = new int[geometry.length()];
+    Arrays.fill(cornerOf, -1);
+    for (int corner : geometry.corners()) {
+      for (int offset : geometry.offsets()) {
+        if (geometry.isOnBoard(corner + offset)) {
+          cornerOf[corner + offset] = corner;
+        }
+      }
+    }
+    int[][] result = new int[patterns.familyCount()][];
+    for (int family = 0; family < result.length; family++) {
+      int[] cells = patterns.familyCells(family);
+      result[family] = new int[tableSize(cells.length)];
+      int[] colors = new int[geometry.length()];
+      for (int index = 0; index < result[family].length; index++) {
+        int rest = index;
+        for (int cell : cells) {
+          colors[cell] = rest % 3;
+          rest /= 3;
+        }
+        double value = 0;
+        for (int cell : cells) {
+          if (colors[cell] == SearchBoard.EMPTY) {
+            continue;
+          }
+          int sign = colors[cell] == SearchBoard.BLACK ? 1 : -1;
+          int covers = patterns.cellStart(cell + 1) - patterns.cellStart(cell);
+          value += sign * cellValue(geometry, cell, cornerOf[cell], colors) / (double) covers;
+        }
+        result[family][index] = (int) Math.round(value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the value of a disc on the given cell for its owner.
+   */
+  private static int cellValue(BoardGeometry geometry, int cell, int corner, int[] colors) {
+    for (int each : geometry.corners()) {
+      if (each == cell) {
+        return CORNER;
+      }
+    }
+    if (corner >= 0) {
+      // the content of a corner outside of the pattern is unknown, count it as empty.
+      if (colors[corner] == SearchBoard.EMPTY) {
+        return NEXT_TO_EMPTY_CORNER;
+      }
+      return colors[corner] == colors[cell] ? NEXT_TO_OWN_CORNER : 0;
+    }
+    for (int offset : geometry.offsets()) {
+      if (!geometry.isOnBoard(cell + offset)) {
+        return EDGE;
+      }
+    }
+    return INSIDE;
+  }
+
+  /**
+   * Get the board of this evaluator.
+   *
+   * @return the geometry
+   */
+  public BoardGeometry getGeometry() {
+    return patterns.getGeometry();
+  }
+
+  /**
+   * Evaluate the position of a search board. The first evaluation of a board starts keeping
+   * its pattern indices up to date, later evaluations only read them.
+   *
+   * @param board the position, of the board of this evaluator
+   * @param side  the side to evaluate for
+   * @return the evaluation, in hundredths of a disc, positive when the side is ahead
+   */
+  public int evaluate(SearchBoard board, int side) {
+    if (board.trackedPatterns() != patterns) {
+      board.trackPatterns(patterns);
+    }
+    int[] indices = board.patternIndices();
+    int[][] tables = instanceWeights[phaseOf(patterns.getGeometry().cellCount(),
+        board.empties(), weights.length)];
+    int score = 0;
+    for (int i = 0; i < indices.length; i++) {
+      score += tables[i][indices[i]];
+    }
+    return side == SearchBoard.BLACK ? score : -score;
+  }
+
+  /**
+   * Evaluate the position of a model.
+   *
+   * @param model  the model, of the board of this evaluator
+   * @param player the player to evaluate for
+   * @return the evaluation, in hundredths of a disc, positive when the player is ahead
+   */
+  public int evaluate(ReadOnlyReversiModel model, RepresentativeColor player) {
+    return evaluate(SearchBoard.of(model), SearchBoard.toSide(player));
+  }
+
+  /**
+   * Get the game phase of a position, phases splitting the game into parts with the same number
+   * of moves.
+   *
+   * @param cells   the number of cells of the board
+   * @param empties the number of empty cells of the position
+   * @param phases  the number of phases
+   * @return the phase, between 0 and phases - 1
+   */
+  static int phaseOf(int cells, int empties, int phases) {
+    return Math.min(phases - 1, (cells - empties) * phases / (cells + 1));
+  }
+
+  /**
+   * Get the patterns evaluated by this evaluator.
+   *
+   * @return the patterns
+   */
+  PatternSet patterns() {
+    return patterns;
+  }
+
+  /**
+   * Get the weight tables of this evaluator. Callers must not modify them.
+   *
+   * @return for each phase, the table of each family
+   */
+  int[][][] weights() {
+    return weights;
+  }
+}
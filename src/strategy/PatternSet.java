@@ -0,0 +1,284 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import model.ReadOnlyReversiModel;
+import model.RowColPair;
+
+/**
+ * The patterns of cells evaluated by a {@link PatternEvaluator} on one board. A pattern is an
+ * ordered line or block of cells, such as an edge or the cells around a corner, and the
+ * content of its cells is summarized by a single index: the sum of the color of the k-th cell
+ * times 3^k. Patterns come in families: the few base patterns of a board are mapped by every
+ * rotation and reflection of the board, and all the images of a base pattern share the same
+ * weights. Square boards use their edges, second rows, diagonals, corner blocks and corner
+ * rectangles; hexagon boards use their rims, second rims, spokes from the center to a corner
+ * and the cells around a corner. A pattern holds at most ten cells, so that the weight table
+ * of a family has at most 3^10 entries.
+ */
+final class PatternSet {
+  /**
+   * The maximum number of cells of a pattern.
+   */
+  static final int MAX_LENGTH = 10;
+
+  private static final Map<BoardGeometry, PatternSet> CACHE = new ConcurrentHashMap<>();
+
+  private final BoardGeometry geometry;
+  private final int[][] instances;
+  private final int[] families;
+  private final int[][] familyCells;
+  private final int[] cellStart;
+  private final int[] cellInstances;
+  private final int[] cellPowers;
+
+  /**
+   * Build the patterns of the given board.
+   *
+   * @param geometry the board
+   */
+  private PatternSet(BoardGeometry geometry) {
+    this.geometry = geometry;
+    List<int[]> bases = basePatterns();
+    List<int[]> instanceList = new ArrayList<>();
+    List<Integer> familyList = new ArrayList<>();
+    for (int family = 0; family < bases.size(); family++) {
+      Set<String> seen = new HashSet<>();
+      for (int[] symmetry : geometry.symmetries()) {
+        int[] image = new int[bases.get(family).length];
+        for (int k = 0; k < image.length; k++) {
+          image[k] = symmetry[bases.get(family)[k]];
+        }
+        int[] sorted = image.clone();
+        Arrays.sort(sorted);
+        if (seen.add(Arrays.toString(sorted))) {
+          instanceList.add(image);
+          familyList.add(family);
+        }
+      }
+    }
+    familyCells = bases.toArray(new int[0][]);
+    instances = instanceList.toArray(new int[0][]);
+    families = familyList.stream().mapToInt(Integer::intValue).toArray();
+    // index the instances by cell, so that a move only updates the patterns of its cells.
+    int[] counts = new int[geometry.length() + 1];
+    for (int[] instance : instances) {
+      for (int cell : instance) {
+        counts[cell + 1]++;
+      }
+    }
+    cellStart = new int[geometry.length() + 1];
+    for (int i = 1; i <= geometry.length(); i++) {
+      cellStart[i] = cellStart[i - 1] + counts[i];
+    }
+    cellInstances = new int[cellStart[geometry.length()]];
+    cellPowers = new int[cellInstances.length];
+    int[] next = Arrays.copyOf(cellStart, geometry.length());
+    for (int i = 0; i < instances.length; i++) {
+      int power = 1;
+      for (int cell : instances[i]) {
+        cellInstances[next[cell]] = i;
+        cellPowers[next[cell]] = power;
+        next[cell]++;
+        power *= 3;
+      }
+    }
+  }
+
+  /**
+   * Get the shared patterns of the given board.
+   *
+   * @param geometry the board
+   * @return the patterns
+   */
+  static PatternSet of(BoardGeometry geometry) {
+    return CACHE.computeIfAbsent(geometry, PatternSet::new);
+  }
+
+  /**
+   * Get the base pattern of each family, skipping the ones that do not fit on the board.
+   *
+   * @return the cells of each base pattern, in order
+   */
+  private List<int[]> basePatterns() {
+    List<List<RowColPair>> patterns = new ArrayList<>();
+    int size = geometry.getSize();
+    if (geometry.getType() == ReadOnlyReversiModel.ModelType.SQUARE) {
+      RowColPair corner = geometry.pairOf(geometry.corners()[0]);
+      int length = Math.min(size, MAX_LENGTH);
+      List<RowColPair> edge = new ArrayList<>();
+      List<RowColPair> secondRow = new ArrayList<>();
+      List<RowColPair> diagonal = new ArrayList<>();
+      for (int k = 0; k < length; k++) {
+        edge.add(offset(corner, 0, k));
+        secondRow.add(offset(corner, 1, k));
+        diagonal.add(offset(corner, k, k));
+      }
+      List<RowColPair> block = new ArrayList<>();
+      for (int row = 0; row < 3; row++) {
+        for (int col = 0; col < 3; col++) {
+          block.add(offset(corner, row, col));
+        }
+      }
+      List<RowColPair> rectangle = new ArrayList<>();
+      for (int row = 0; row < 2; row++) {
+        for (int col = 0; col < 5; col++) {
+          rectangle.add(offset(corner, row, col));
+        }
+      }
+      patterns.addAll(List.of(edge, secondRow, diagonal, block, rectangle));
+    } else {
+      int far = size - 1;
+      List<RowColPair> rim = new ArrayList<>();
+      List<RowColPair> secondRim = new ArrayList<>();
+      List<RowColPair> spoke = new ArrayList<>();
+      for (int k = 0; k < MAX_LENGTH; k++) {
+        if (k <= far) {
+          rim.add(new RowColPair(-far, k));
+          spoke.add(new RowColPair(-k, 0));
+        }
+        if (k <= far + 1) {
+          secondRim.add(new RowColPair(-far + 1, k - 1));
+        }
+      }
+      List<RowColPair> cornerZone = new ArrayList<>();
+      for (int distance = 0; distance <= 2; distance++) {
+        for (int row = -far; row <= -far + 2; row++) {
+          for (int col = -2; col <= 2; col++) {
+            int dr = row + far;
+            RowColPair pair = new RowColPair(row, col);
+            if ((Math.abs(dr) + Math.abs(col) + Math.abs(dr + col)) / 2 == distance
+                && geometry.indexOf(pair) >= 0 && cornerZone.size() < MAX_LENGTH) {
+              cornerZone.add(pair);
+            }
+          }
+        }
+      }
+      patterns.addAll(List.of(rim, secondRim, spoke, cornerZone));
+    }
+    List<int[]> result = new ArrayList<>();
+    for (List<RowColPair> pattern : patterns) {
+      int[] cells = pattern.stream().mapToInt(geometry::indexOf).toArray();
+      if (cells.length > 1 && Arrays.stream(cells).allMatch(cell -> cell >= 0)
+          && Arrays.stream(cells).distinct().count() == cells.length) {
+        result.add(cells);
+      }
+    }
+    return result;
+  }
+
+  private static RowColPair offset(RowColPair pair, int rows, int cols) {
+    return new RowColPair(pair.getRow() + rows, pair.getCol() + cols);
+  }
+
+  /**
+   * Get the board of these patterns.
+   *
+   * @return the geometry
+   */
+  BoardGeometry getGeometry() {
+    return geometry;
+  }
+
+  /**
+   * Get the number of pattern instances on the board.
+   *
+   * @return the number of instances
+   */
+  int instanceCount() {
+    return instances.length;
+  }
+
+  /**
+   * Get the cells of an instance. Callers must not modify it.
+   *
+   * @param instance the instance
+   * @return the cells, the k-th cell counting for 3^k in the index
+   */
+  int[] cells(int instance) {
+    return instances[instance];
+  }
+
+  /**
+   * Get the family of an instance.
+   *
+   * @param instance the instance
+   * @return its family
+   */
+  int familyOf(int instance) {
+    return families[instance];
+  }
+
+  /**
+   * Get the number of families.
+   *
+   * @return the number of families
+   */
+  int familyCount() {
+    return familyCells.length;
+  }
+
+  /**
+   * Get the cells of the base pattern of a family, which every instance of the family maps to.
+   * Callers must not modify it.
+   *
+   * @param family the family
+   * @return the cells of the base pattern
+   */
+  int[] familyCells(int family) {
+    return familyCells[family];
+  }
+
+  /**
+   * Get the position of the first instance of the given cell in {@link #cellInstances()}.
+   *
+   * @param cell the index of the cell
+   * @return the first position, the instances of the cell end at the first position of the
+   *         next index
+   */
+  int cellStart(int cell) {
+    return cellStart[cell];
+  }
+
+  /**
+   * Get the instances containing each cell, grouped by cell. Callers must not modify it.
+   *
+   * @return the instances
+   */
+  int[] cellInstances() {
+    return cellInstances;
+  }
+
+  /**
+   * Get the power of three of each cell in each of its instances, in the same order as
+   * {@link #cellInstances()}. Callers must not modify it.
+   *
+   * @return the powers
+   */
+  int[] cellPowers() {
+    return cellPowers;
+  }
+
+  /**
+   * Compute the index of every instance from scratch.
+   *
+   * @param board   the position
+   * @param indices the array receiving the index of each instance
+   */
+  void computeIndices(SearchBoard board, int[] indices) {
+    for (int i = 0; i < instances.length; i++) {
+      int index = 0;
+      int power = 1;
+      for (int cell : instances[i]) {
+        index += board.get(cell) * power;
+        power *= 3;
+      }
+      indices[i] = index;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package strategy;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.MutableReversiModel;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A strategy that keeps thinking while the opponent is moving. The controller only asks a player
+ * for a move on its own turn, so as soon as this strategy has chosen a move, it predicts the
+ * reply of the opponent with a cheap strategy and starts searching the position after that
+ * reply on a background thread. When the opponent does play the predicted reply, the next
+ * decision only waits for that search, which is usually already done; otherwise the background
+ * search is cancelled by interrupting it and the position is searched as usual. The work of a
+ * background search that is used is reported as part of the decision using it, so that its
+ * statistics show the nodes and depth of the search behind the move. Pondering is kept
+ * separately for each color, so both players of a game can share one instance.
+ * Pondering strategies are fallible: they return no move when the searching strategy does not
+ * choose.
+ */
+public final class PonderingStrategy implements FallibleStrategy {
+  private final FallibleStrategy strategy;
+  private final FallibleStrategy predictor;
+  private final ExecutorService executor;
+  private final Map<RepresentativeColor, Ponder> ponders;
+
+  /**
+   * Construct the strategy, predicting the replies of the opponent with the medium difficulty:
+   * corners first, then the move that captures the most discs.
+   *
+   * @param strategy the strategy that searches the positions
+   */
+  public PonderingStrategy(FallibleStrategy strategy) {
+    this(strategy, new CompositeStrategy(new CornerStrategy(), new CaptureMaxPieces()));
+  }
+
+  /**
+   * Construct the strategy with the given prediction of the replies of the opponent.
+   *
+   * @param strategy  the strategy that searches the positions
+   * @param predictor the strategy guessing the reply of the opponent, which should be fast
+   */
+  public PonderingStrategy(FallibleStrategy strategy, FallibleStrategy predictor) {
+    this.strategy = Objects.requireNonNull(strategy);
+    this.predictor = Objects.requireNonNull(predictor);
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "ponder");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.ponders = new EnumMap<>(RepresentativeColor.class);
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
+                                             RepresentativeColor player) {
+    SearchBoard board = SearchBoard.of(model);
+    int side = SearchBoard.toSide(player);
+    Optional<RowColPair> move = takePondered(board, side, player);
+    if (move.isEmpty()) {
+      move = strategy.choosePosition(model, player);
+    }
+    move.ifPresent(position -> startPondering(model, player, position));
+    return move;
+  }
+
+  /**
+   * Get the result of the background search of the given player if it searched the current
+   * position, or cancel it otherwise.
+   *
+   * @param board  the current position
+   * @param side   the side of the player
+   * @param player the player to move
+   * @return the pondered move, or empty if there is none for this position
+   */
+  private Optional<RowColPair> takePondered(SearchBoard board, int side,
+                                            RepresentativeColor player) {
+    Ponder ponder;
+    synchronized (ponders) {
+      ponder = ponders.remove(player);
+    }
+    if (ponder == null) {
+      return Optional.empty();
+    }
+    boolean hit = ponder.geometry == board.getGeometry() && ponder.key == board.key(side);
+    SearchCounters.addHashProbes(1, hit ? 1 : 0);
+    if (!hit) {
+      ponder.future.cancel(true);
+      return Optional.empty();
+    }
+    try {
+      Optional<RowColPair> pondered = ponder.future.get();
+      SearchCounters.addAll(ponder.counters);
+      return pondered
+          .filter(position -> {
+            int index = board.getGeometry().indexOf(position);
+            return index >= 0 && board.isLegal(index, side);
+          });
+    } catch (InterruptedException e) {
+      ponder.future.cancel(true);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | CancellationException e) {
+      // the position is searched again in the foreground.
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Predict the reply of the opponent to the chosen move, and search the position after it in
+   * the background, replacing the previous background search of the player.
+   *
+   * @param model  the current model, which is copied and left unchanged
+   * @param player the player to move
+   * @param move   the move chosen by the player
+   */
+  private void startPondering(ReadOnlyReversiModel model, RepresentativeColor player,
+                              RowColPair move) {
+    RepresentativeColor opponent = player.getOpposite();
+    MutableReversiModel copy = model.getDeepCopy(player);
+    copy.placeMove(move, player);
+    if (copy.isGameOver()) {
+      return;
+    }
+    if (SearchBoard.of(copy).hasMove(SearchBoard.toSide(opponent))) {
+      Optional<RowColPair> reply = predictor.choosePosition(copy, opponent);
+      if (reply.isEmpty()) {
+        return;
+      }
+      copy.placeMove(reply.get(), opponent);
+    } else {
+      copy.makePass(opponent);
+    }
+    SearchBoard predicted = SearchBoard.of(copy);
+    int side = SearchBoard.toSide(player);
+    if (copy.isGameOver() || !predicted.hasMove(side)) {
+      return;
+    }
+    Ponder ponder = new Ponder(predicted.getGeometry(), predicted.key(side));
+    ponder.future = executor.submit(() -> {
+      SearchCounters outer = SearchCounters.begin();
+      try {
+        return strategy.choosePosition(copy, player);
+      } finally {
+        // read once the future is done, which makes the counts visible to the reader.
+        ponder.counters = SearchCounters.end(outer);
+      }
+    });
+    Ponder previous;
+    synchronized (ponders) {
+      previous = ponders.put(player, ponder);
+    }
+    if (previous != null) {
+      previous.future.cancel(true);
+    }
+  }
+
+  /**
+   * A background search of the position after the predicted reply.
+   */
+  private static final class Ponder {
+    private final BoardGeometry geometry;
+    private final long key;
+    private Future<Optional<RowColPair>> future;
+    private SearchCounters counters;
+
+    /**
+     * Construct a background search, whose future is set once it is submitted.
+     *
+     * @param geometry the board of the searched position
+     * @param key      the key of the searched position, with the player to move
+     */
+    private Ponder(BoardGeometry geometry, long key) {
+      this.geometry = geometry;
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,472 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import model.RowColPair;
+
+/**
+ * A depth-limited principal variation search on a {@link SearchBoard}. Unlike the minimax and
+ * alpha-beta strategies, which alternate between a maximizing and a minimizing routine, the
+ * search is a single negamax routine: the score of a position is the negation of the best
+ * score of its children for the other side. A player without a move passes without using up
+ * depth, and a position where neither player can move is scored by its final result.
+ * The first move of each position is searched with the full window and the other moves with a
+ * null window, which only proves that they are not better; a move that turns out better is
+ * searched again with the full window. Since the moves are ordered well, by the best move of
+ * the hash table and then by the evaluation of the resulting position, re-searches are rare and
+ * the null windows prune much more than a plain alpha-beta search at the same depth.
+ * The search deepens one ply at a time, and from the second ply on it starts with a narrow
+ * aspiration window around the previous score, widened when the score falls outside of it.
+ * Positions are evaluated by the shared {@link PatternEvaluator} of the board, in hundredths of
+ * a disc. The search can also rank the best few moves of a position with their principal
+ * variations, see {@link #analyze}. A search keeps its hash table between calls, so it should
+ * not be shared between threads. It stops with a {@link CancellationException} when its thread
+ * is interrupted. Within a {@link BudgetedStrategy}, the deepening stops once the budget is
+ * spent, and the move of the deepest completed search is played.
+ */
+public final class PvsSearch {
+  /**
+   * The score of a won game, before the final disc margin is added. It is larger than any
+   * evaluation, so that a won game is always preferred to an unfinished one.
+   */
+  public static final int WIN = 1 << 24;
+
+  private static final int INFINITY = 1 << 25;
+  private static final int DEFAULT_TABLE_BITS = 18;
+  private static final int ASPIRATION_WINDOW = 100;
+  private static final int NO_MOVE = -1;
+  private static final int INTERRUPT_CHECK_MASK = 0xFFF;
+
+  private final int mask;
+  private final long[] keys;
+  private final int[] lowers;
+  private final int[] uppers;
+  private final byte[] depths;
+  private final int[] bestMoves;
+  private int[][] moves;
+  private int[][] orderKeys;
+  private int[] flips;
+  private BoardGeometry geometry;
+  private PatternEvaluator evaluator;
+  private int rootMove;
+  private long nodes;
+  private long betaCutoffs;
+  private long firstMoveCutoffs;
+  private long hashProbes;
+  private long hashHits;
+  private boolean budgeted;
+
+  /**
+   * Construct a search with a hash table of 2^18 entries.
+   */
+  public PvsSearch() {
+    this(DEFAULT_TABLE_BITS);
+  }
+
+  /**
+   * Construct a search with a hash table of 2^tableBits entries.
+   *
+   * @param tableBits the logarithm of the number of entries of the hash table
+   * @throws IllegalArgumentException if the table size is not between 2^1 and 2^26
+   */
+  public PvsSearch(int tableBits) {
+    if (tableBits < 1 || tableBits > 26) {
+      throw new IllegalArgumentException("Invalid hash table size");
+    }
+    int entries = 1 << tableBits;
+    mask = entries - 1;
+    keys = new long[entries];
+    lowers = new int[entries];
+    uppers = new int[entries];
+    depths = new byte[entries];
+    bestMoves = new int[entries];
+  }
+
+  /**
+   * Find the best move of the given side, looking the given number of plies ahead.
+   *
+   * @param board the position to search, which is left unchanged
+   * @param side  the side to move
+   * @param depth the number of plies to search, passes excluded, of which no more than one
+   *              past the number of empty cells are searched since the game is over there
+   * @return the best cell and its score for the side, or a move without a position if the side
+   *         has to pass
+   * @throws IllegalArgumentException if the depth is not positive
+   */
+  public Move search(SearchBoard board, int side, int depth) {
+    if (depth < 1 || depth > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid depth");
+    }
+    depth = Math.min(depth, board.empties() + 1);
+    SearchBoard copy = prepare(board, depth);
+    long[] before = counters();
+    try {
+      if (!copy.hasMove(side)) {
+        return new Move(search(copy, side, depth, -INFINITY, INFINITY, 0));
+      }
+      return deepen(copy, side, depth);
+    } finally {
+      report(before);
+    }
+  }
+
+  /**
+   * Find the best few moves of the given side with their principal variations, looking the
+   * given number of plies ahead. The root moves are searched one ply deeper at a time, best
+   * first. Each move is searched with the full window until there are enough moves, and then
+   * with a null window at the score of the last of the best moves so far, so that only the
+   * moves that enter the best ones are searched again for their exact score. Ranking the best
+   * few moves this way costs far less than one search per move, and nothing more than a search
+   * for the best move alone when only one is wanted.
+   *
+   * @param board the position to search, which is left unchanged
+   * @param side  the side to move
+   * @param depth the number of plies to search, passes excluded
+   * @param count the number of moves wanted
+   * @return the best moves with their scores for the side, best first, as many as wanted or as
+   *         there are legal moves, and none if the side has to pass
+   * @throws IllegalArgumentException if the depth or the count is not positive
+   */
+  public List<Variation> analyze(SearchBoard board, int side, int depth, int count) {
+    if (depth < 1 || depth > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid depth");
+    }
+    if (count < 1) {
+      throw new IllegalArgumentException("Invalid number of moves");
+    }
+    SearchBoard copy = prepare(board, depth);
+    long[] before = counters();
+    try {
+      int[] roots = new int[geometry.cellCount()];
+      int total = copy.generateMoves(side, roots);
+      roots = Arrays.copyOf(roots, total);
+      int[] scores = new int[total];
+      int wanted = Math.min(count, total);
+      for (int current = 1; current <= depth; current++) {
+        sortRoots(roots, scores);
+        searchRoots(copy, side, current, roots, scores, wanted);
+        SearchCounters.reachDepth(current);
+      }
+      sortRoots(roots, scores);
+      List<Variation> variations = new ArrayList<>();
+      for (int i = 0; i < wanted; i++) {
+        variations.add(new Variation(new Move(copy.pairOf(roots[i]), scores[i]),
+            principalVariation(copy, side, roots[i], depth)));
+      }
+      return variations;
+    } finally {
+      report(before);
+    }
+  }
+
+  /**
+   * Search every root move at the given depth, keeping the exact scores of the best ones.
+   *
+   * @param copy    the position to search, which is modified and restored
+   * @param side    the side to move
+   * @param depth   the number of plies to search
+   * @param roots   the legal moves, best first according to the previous depth
+   * @param scores  the scores of the moves, replaced by the scores at this depth: exact for the
+   *                best moves, and an upper bound for the others
+   * @param wanted  the number of best moves whose score must be exact
+   */
+  private void searchRoots(SearchBoard copy, int side, int depth, int[] roots, int[] scores,
+                           int wanted) {
+    int opponent = SearchBoard.opponent(side);
+    // the scores of the best moves so far, in decreasing order.
+    int[] best = new int[wanted];
+    int found = 0;
+    for (int i = 0; i < roots.length; i++) {
+      int flipped = copy.play(roots[i], side, flips, 0);
+      int score;
+      if (found < wanted) {
+        score = -search(copy, opponent, depth - 1, -INFINITY, INFINITY, 1);
+      } else {
+        int bound = best[wanted - 1];
+        score = -search(copy, opponent, depth - 1, -bound - 1, -bound, 1);
+        if (score > bound) {
+          score = -search(copy, opponent, depth - 1, -INFINITY, -bound, 1);
+        }
+      }
+      copy.undo(roots[i], side, flips, 0, flipped);
+      scores[i] = score;
+      if (found < wanted || score > best[wanted - 1]) {
+        int j = Math.min(found, wanted - 1);
+        while (j > 0 && best[j - 1] < score) {
+          best[j] = best[j - 1];
+          j--;
+        }
+        best[j] = score;
+        found = Math.min(found + 1, wanted);
+      }
+    }
+  }
+
+  /**
+   * Sort the root moves by decreasing score, keeping the order of equal scores.
+   */
+  private static void sortRoots(int[] roots, int[] scores) {
+    for (int i = 1; i < roots.length; i++) {
+      int move = roots[i];
+      int score = scores[i];
+      int j = i - 1;
+      while (j >= 0 && scores[j] < score) {
+        roots[j + 1] = roots[j];
+        scores[j + 1] = scores[j];
+        j--;
+      }
+      roots[j + 1] = move;
+      scores[j + 1] = score;
+    }
+  }
+
+  /**
+   * Follow the best moves kept in the hash table from the given root move.
+   *
+   * @param board the position of the root
+   * @param side  the side to move at the root
+   * @param move  the root move
+   * @param depth the depth of the search, which bounds the length of the variation
+   * @return the moves of the variation, starting with the root move
+   */
+  private List<RowColPair> principalVariation(SearchBoard board, int side, int move,
+                                              int depth) {
+    SearchBoard line = board.copy();
+    List<RowColPair> moves = new ArrayList<>();
+    moves.add(line.pairOf(move));
+    line.play(move, side, flips, 0);
+    side = SearchBoard.opponent(side);
+    while (moves.size() < depth) {
+      if (!line.hasMove(side)) {
+        if (!line.hasMove(SearchBoard.opponent(side))) {
+          break;
+        }
+        side = SearchBoard.opponent(side);
+      }
+      long key = line.key(side);
+      int slot = (int) (key ^ (key >>> 32)) & mask;
+      if (keys[slot] != key || bestMoves[slot] == NO_MOVE
+          || !line.isLegal(bestMoves[slot], side)) {
+        break;
+      }
+      moves.add(line.pairOf(bestMoves[slot]));
+      line.play(bestMoves[slot], side, flips, 0);
+      side = SearchBoard.opponent(side);
+    }
+    return moves;
+  }
+
+  /**
+   * Search one more ply at a time, with aspiration windows. The first ply is always searched,
+   * the deeper ones only while the budget of the decision lasts.
+   *
+   * @param copy  the position to search, which is modified, and left as is if the budget runs
+   *              out
+   * @param side  the side to move, which has a legal move
+   * @param depth the number of plies to search
+   * @return the best cell and its score at the deepest completed depth
+   */
+  private Move deepen(SearchBoard copy, int side, int depth) {
+    int score = search(copy, side, 1, -INFINITY, INFINITY, 0);
+    Move best = new Move(copy.pairOf(rootMove), score);
+    SearchCounters.reachDepth(1);
+    budgeted = true;
+    try {
+      for (int current = 2; current <= depth; current++) {
+        int window = ASPIRATION_WINDOW;
+        int alpha = score - window;
+        int beta = score + window;
+        while (true) {
+          score = search(copy, side, current, alpha, beta, 0);
+          if (score <= alpha && alpha > -INFINITY) {
+            window *= 2;
+            alpha = Math.max(score - window, -INFINITY);
+          } else if (score >= beta && beta < INFINITY) {
+            window *= 2;
+            beta = Math.min(score + window, INFINITY);
+          } else {
+            break;
+          }
+        }
+        best = new Move(copy.pairOf(rootMove), score);
+        SearchCounters.reachDepth(current);
+      }
+    } catch (SearchDeadline.Exceeded e) {
+      // the deeper search was not completed, the last completed one decides.
+    } finally {
+      budgeted = false;
+    }
+    return best;
+  }
+
+  private long[] counters() {
+    return new long[] {nodes, betaCutoffs, firstMoveCutoffs, hashProbes, hashHits};
+  }
+
+  /**
+   * Report the work done since the given counters to the decision being measured.
+   */
+  private void report(long[] before) {
+    SearchCounters.addNodes(nodes - before[0]);
+    SearchCounters.addCutoffs(betaCutoffs - before[1], firstMoveCutoffs - before[2]);
+    SearchCounters.addHashProbes(hashProbes - before[3], hashHits - before[4]);
+  }
+
+  /**
+   * Get the number of positions visited since this search was created.
+   *
+   * @return the number of positions
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Copy the board to search and size the per-ply buffers for it. Passes do not use up depth,
+   * but there can not be two passes in a row, so a search of the given depth never goes deeper
+   * than twice as many plies.
+   *
+   * @param board the position to search
+   * @param depth the depth of the search
+   * @return a copy that can be modified by the search
+   */
+  private SearchBoard prepare(SearchBoard board, int depth) {
+    int plies = 2 * depth + 2;
+    if (geometry != board.getGeometry() || moves == null || moves.length < plies) {
+      geometry = board.getGeometry();
+      evaluator = PatternEvaluator.of(geometry);
+      moves = new int[plies][geometry.cellCount()];
+      orderKeys = new int[plies][geometry.cellCount()];
+      flips = new int[plies * geometry.cellCount()];
+    }
+    SearchBoard copy = board.copy();
+    copy.trackPatterns(evaluator.patterns());
+    return copy;
+  }
+
+  /**
+   * The negamax search.
+   *
+   * @return the score of the side to move, or a bound of it outside the window
+   */
+  private int search(SearchBoard board, int side, int depth, int alpha, int beta, int ply) {
+    if ((++nodes & INTERRUPT_CHECK_MASK) == 0) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new CancellationException("Search interrupted");
+      }
+      if (SearchDeadline.spend(INTERRUPT_CHECK_MASK + 1) && budgeted) {
+        throw new SearchDeadline.Exceeded();
+      }
+    }
+    if (depth == 0) {
+      return evaluator.evaluate(board, side);
+    }
+    int opponent = SearchBoard.opponent(side);
+    long key = board.key(side);
+    int slot = (int) (key ^ (key >>> 32)) & mask;
+    int tableMove = NO_MOVE;
+    hashProbes++;
+    if (keys[slot] == key) {
+      hashHits++;
+      tableMove = bestMoves[slot];
+      if (depths[slot] >= depth && ply > 0) {
+        if (lowers[slot] >= beta) {
+          return lowers[slot];
+        }
+        if (uppers[slot] <= alpha) {
+          return uppers[slot];
+        }
+        alpha = Math.max(alpha, lowers[slot]);
+        beta = Math.min(beta, uppers[slot]);
+      }
+    }
+    int[] candidates = moves[ply];
+    int count = board.generateMoves(side, candidates);
+    if (count == 0) {
+      if (!board.hasMove(opponent)) {
+        int margin = board.discDifference(side);
+        return Integer.signum(margin) * WIN + margin;
+      }
+      return -search(board, opponent, depth, -beta, -alpha, ply + 1);
+    }
+    order(board, side, candidates, count, depth, ply, tableMove);
+    int originalAlpha = alpha;
+    int bestScore = -INFINITY;
+    int best = NO_MOVE;
+    int offset = ply * geometry.cellCount();
+    for (int i = 0; i < count; i++) {
+      int move = candidates[i];
+      int bound = Math.max(alpha, bestScore);
+      int flipped = board.play(move, side, flips, offset);
+      int score;
+      if (i == 0) {
+        score = -search(board, opponent, depth - 1, -beta, -bound, ply + 1);
+      } else {
+        // prove that the move is not better than the best one so far with a null window.
+        score = -search(board, opponent, depth - 1, -bound - 1, -bound, ply + 1);
+        if (score > bound && score < beta) {
+          score = -search(board, opponent, depth - 1, -beta, -score, ply + 1);
+        }
+      }
+      board.undo(move, side, flips, offset, flipped);
+      if (score > bestScore) {
+        bestScore = score;
+        best = move;
+        if (score >= beta) {
+          betaCutoffs++;
+          if (i == 0) {
+            firstMoveCutoffs++;
+          }
+          break;
+        }
+      }
+    }
+    if (ply == 0) {
+      rootMove = best;
+    }
+    keys[slot] = key;
+    lowers[slot] = bestScore > originalAlpha ? bestScore : -INFINITY;
+    uppers[slot] = bestScore < beta ? bestScore : INFINITY;
+    depths[slot] = (byte) depth;
+    bestMoves[slot] = best;
+    return bestScore;
+  }
+
+  /**
+   * Sort the candidate moves, best first. The hash table move comes first. Away from the leaves,
+   * the other moves are sorted by the evaluation of the position they lead to; next to the
+   * leaves, evaluating the children costs as much as searching them, so they keep their order.
+   */
+  private void order(SearchBoard board, int side, int[] candidates, int count, int depth,
+                     int ply, int tableMove) {
+    int[] scores = orderKeys[ply];
+    int offset = (ply + 1) * geometry.cellCount();
+    for (int i = 0; i < count; i++) {
+      int move = candidates[i];
+      if (move == tableMove) {
+        scores[i] = Integer.MIN_VALUE;
+      } else if (depth > 1) {
+        int flipped = board.play(move, side, flips, offset);
+        scores[i] = evaluator.evaluate(board, SearchBoard.opponent(side));
+        board.undo(move, side, flips, offset, flipped);
+      } else {
+        scores[i] = 0;
+      }
+    }
+    // insertion sort, the lists are short.
+    for (int i = 1; i < count; i++) {
+      int move = candidates[i];
+      int score = scores[i];
+      int j = i - 1;
+      while (j >= 0 && scores[j] > score) {
+        candidates[j + 1] = candidates[j];
+        scores[j + 1] = scores[j];
+        j--;
+      }
+      candidates[j + 1] = move;
+      scores[j + 1] = score;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package strategy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A strategy that looks a fixed number of plies ahead with a principal variation search (see
+ * {@link PvsSearch}), evaluating the positions with pattern tables. It searches the same depth
+ * as the minimax and alpha-beta strategies, but visits far fewer positions, and a player that
+ * has to pass in the middle of the search simply passes instead of ending the line. The same
+ * search can rank the best few moves at once, see {@link AnalysisStrategy}.
+ * PVS strategies are fallible: they return no move when the player can not place anywhere.
+ */
+public final class PvsStrategy implements FallibleStrategy, AnalysisStrategy {
+  /**
+   * The default number of plies to search, the same as {@link MinimaxStrategy}.
+   */
+  public static final int DEFAULT_DEPTH = 5;
+
+  /**
+   * The largest number of plies to search, for strategies whose depth is limited by a
+   * {@link BudgetedStrategy} instead.
+   */
+  public static final int MAX_DEPTH = Byte.MAX_VALUE;
+
+  private final int depth;
+  private final ThreadLocal<PvsSearch> searches;
+
+  /**
+   * Construct the strategy with the default depth.
+   */
+  public PvsStrategy() {
+    this(DEFAULT_DEPTH);
+  }
+
+  /**
+   * Construct the strategy with the given depth.
+   *
+   * @param depth the number of plies to search
+   * @throws IllegalArgumentException if the depth is not between 1 and 127
+   */
+  public PvsStrategy(int depth) {
+    if (depth < 1 || depth > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid depth");
+    }
+    this.depth = depth;
+    // searches keep a hash table between moves, each thread needs its own.
+    this.searches = ThreadLocal.withInitial(PvsSearch::new);
+  }
+
+  @Override
+  public Optional<RowColPair> choosePosition(ReadOnlyReversiModel model,
+                                             RepresentativeColor player) {
+    SearchBoard board = SearchBoard.of(model);
+    int side = SearchBoard.toSide(player);
+    if (side == SearchBoard.EMPTY || !board.hasMove(side)) {
+      return Optional.empty();
+    }
+    return Optional.of(searches.get().search(board, side, depth).getPosition());
+  }
+
+  @Override
+  public List<Variation> analyze(ReadOnlyReversiModel model, RepresentativeColor player,
+                                 int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Invalid number of moves");
+    }
+    SearchBoard board = SearchBoard.of(model);
+    int side = SearchBoard.toSide(player);
+    if (side == SearchBoard.EMPTY || !board.hasMove(side)) {
+      return Collections.emptyList();
+    }
+    return searches.get().analyze(board, side, depth, count);
+  }
+}
@@ -0,0 +1,502 @@
+package strategy;
+
+import java.util.Arrays;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A compact, mutable copy of a reversi position used by the searching strategies. Unlike the
+ * models, a search board stores the colors in a flat byte array laid out by its
+ * {@link BoardGeometry}, so that making and unmaking a move costs a few array writes instead of
+ * a deep copy of the whole board. Moves are applied with {@link #play} and taken back with
+ * {@link #undo}, using a caller-supplied buffer to remember which discs were flipped. A board
+ * can also keep the indices of the patterns of a {@link PatternEvaluator} up to date while
+ * moves are made and taken back, so that evaluating a position does not scan the board. The
+ * discs of each side are also kept as a bit set over the mailbox indices, which
+ * {@link DiscFeatures} reads to compute features with shifts and masks.
+ */
+public final class SearchBoard {
+  /**
+   * An empty cell.
+   */
+  public static final byte EMPTY = 0;
+
+  /**
+   * A cell with a black disc, also used as the side of the black player.
+   */
+  public static final byte BLACK = 1;
+
+  /**
+   * A cell with a white disc, also used as the side of the white player.
+   */
+  public static final byte WHITE = 2;
+
+  /**
+   * A padding cell that is not part of the board.
+   */
+  public static final byte BORDER = 3;
+
+  private final BoardGeometry geometry;
+  private final byte[] colors;
+  private final int[] discs;
+  private final long[][] bits;
+  private int empties;
+  private long hash;
+  private PatternSet patterns;
+  private int[] patternIndices;
+
+  /**
+   * Construct an empty search board of the given geometry.
+   *
+   * @param geometry the shape of the board
+   */
+  public SearchBoard(BoardGeometry geometry) {
+    this.geometry = geometry;
+    colors = new byte[geometry.length()];
+    Arrays.fill(colors, BORDER);
+    for (int index : geometry.cells()) {
+      colors[index] = EMPTY;
+    }
+    discs = new int[3];
+    bits = new long[3][geometry.words()];
+    empties = geometry.cellCount();
+    hash = 0;
+  }
+
+  /**
+   * Copy the position of the given model into a new search board. The board is read once
+   * through {@link ReadOnlyReversiModel#getColorAt}, without copying the model.
+   *
+   * @param model the model to copy
+   * @return the search board
+   */
+  public static SearchBoard of(ReadOnlyReversiModel model) {
+    BoardGeometry geometry = BoardGeometry.of(model);
+    SearchBoard board = new SearchBoard(geometry);
+    for (int index : geometry.cells()) {
+      byte color = toSide(model.getColorAt(geometry.pairOf(index)));
+      if (color != EMPTY) {
+        board.set(index, color);
+      }
+    }
+    return board;
+  }
+
+  /**
+   * Convert a color into the side used by search boards.
+   *
+   * @param color the color
+   * @return {@link #BLACK}, {@link #WHITE} or {@link #EMPTY} for any other color
+   */
+  public static byte toSide(RepresentativeColor color) {
+    if (color == RepresentativeColor.BLACK) {
+      return BLACK;
+    } else if (color == RepresentativeColor.WHITE) {
+      return WHITE;
+    }
+    return EMPTY;
+  }
+
+  /**
+   * Convert a side used by search boards into its color.
+   *
+   * @param side the side
+   * @return the color of that side
+   */
+  public static RepresentativeColor toColor(int side) {
+    switch (side) {
+      case BLACK:
+        return RepresentativeColor.BLACK;
+      case WHITE:
+        return RepresentativeColor.WHITE;
+      default:
+        return RepresentativeColor.NONE;
+    }
+  }
+
+  /**
+   * Get the opponent of the given side.
+   *
+   * @param side {@link #BLACK} or {@link #WHITE}
+   * @return the other side
+   */
+  public static int opponent(int side) {
+    return 3 - side;
+  }
+
+  /**
+   * Make a copy of this board, sharing the geometry.
+   *
+   * @return the copy
+   */
+  public SearchBoard copy() {
+    SearchBoard copy = new SearchBoard(geometry);
+    copy.copyFrom(this);
+    return copy;
+  }
+
+  /**
+   * Overwrite this board with the position of another board of the same geometry.
+   *
+   * @param other the board to copy from
+   */
+  public void copyFrom(SearchBoard other) {
+    System.arraycopy(other.colors, 0, colors, 0, colors.length);
+    System.arraycopy(other.discs, 0, discs, 0, discs.length);
+    System.arraycopy(other.bits[BLACK], 0, bits[BLACK], 0, bits[BLACK].length);
+    System.arraycopy(other.bits[WHITE], 0, bits[WHITE], 0, bits[WHITE].length);
+    empties = other.empties;
+    hash = other.hash;
+    if (other.patterns == null) {
+      patterns = null;
+      patternIndices = null;
+    } else {
+      if (patterns != other.patterns) {
+        patterns = other.patterns;
+        patternIndices = new int[patterns.instanceCount()];
+      }
+      System.arraycopy(other.patternIndices, 0, patternIndices, 0, patternIndices.length);
+    }
+  }
+
+  /**
+   * Start keeping the indices of the given patterns up to date, computing them once from
+   * scratch.
+   *
+   * @param patterns the patterns of this board
+   */
+  void trackPatterns(PatternSet patterns) {
+    if (this.patterns != patterns) {
+      this.patterns = patterns;
+      patternIndices = new int[patterns.instanceCount()];
+      patterns.computeIndices(this, patternIndices);
+    }
+  }
+
+  /**
+   * Get the patterns whose indices are kept up to date.
+   *
+   * @return the patterns, or null if none are tracked
+   */
+  PatternSet trackedPatterns() {
+    return patterns;
+  }
+
+  /**
+   * Get the current index of every tracked pattern instance. Callers must not modify it.
+   *
+   * @return the indices
+   */
+  int[] patternIndices() {
+    return patternIndices;
+  }
+
+  /**
+   * Get the discs of the given side as a bit set, bit i of word i / 64 standing for the mailbox
+   * index i. The bit set is updated in place as moves are made. Callers must not modify it.
+   *
+   * @param side {@link #BLACK} or {@link #WHITE}
+   * @return the bits of the discs of that side
+   */
+  long[] bits(int side) {
+    return bits[side];
+  }
+
+  /**
+   * Add the given change of color of a cell to the indices of its patterns.
+   *
+   * @param index the index of the cell
+   * @param delta the new color minus the old color
+   */
+  private void updatePatterns(int index, int delta) {
+    int[] instances = patterns.cellInstances();
+    int[] powers = patterns.cellPowers();
+    for (int i = patterns.cellStart(index); i < patterns.cellStart(index + 1); i++) {
+      patternIndices[instances[i]] += delta * powers[i];
+    }
+  }
+
+  /**
+   * Put a disc of the given side on an empty cell, without flipping anything.
+   *
+   * @param index the index of the cell
+   * @param side  the side of the disc
+   */
+  void set(int index, int side) {
+    colors[index] = (byte) side;
+    bits[side][index >>> 6] |= 1L << index;
+    discs[side]++;
+    empties--;
+    hash ^= geometry.zobrist(index, side);
+    if (patterns != null) {
+      updatePatterns(index, side);
+    }
+  }
+
+  /**
+   * Get the shape of this board.
+   *
+   * @return the geometry
+   */
+  public BoardGeometry getGeometry() {
+    return geometry;
+  }
+
+  /**
+   * Get the content of the given cell.
+   *
+   * @param index the index of the cell
+   * @return {@link #EMPTY}, {@link #BLACK}, {@link #WHITE} or {@link #BORDER}
+   */
+  public int get(int index) {
+    return colors[index];
+  }
+
+  /**
+   * Get the number of discs of the given side.
+   *
+   * @param side the side
+   * @return the number of discs
+   */
+  public int discs(int side) {
+    return discs[side];
+  }
+
+  /**
+   * Get the number of empty cells.
+   *
+   * @return the number of empty cells
+   */
+  public int empties() {
+    return empties;
+  }
+
+  /**
+   * Get the disc difference from the point of view of the given side.
+   *
+   * @param side the side
+   * @return its discs minus the discs of its opponent
+   */
+  public int discDifference(int side) {
+    return discs[side] - discs[opponent(side)];
+  }
+
+  /**
+   * Get a key identifying the position and the side to move. Equal positions always have
+   * equal keys, and different positions have different keys with very high probability.
+   *
+   * @param sideToMove the side to move
+   * @return the key
+   */
+  public long key(int sideToMove) {
+    return sideToMove == WHITE ? hash ^ geometry.whiteToMoveKey() : hash;
+  }
+
+  /**
+   * Get a key identifying the position up to the rotations and reflections of the board, so
+   * that symmetric positions share the same key. The key of every symmetric image of the
+   * position is computed, and the smallest one is kept.
+   *
+   * @param sideToMove the side to move
+   * @param symmetry   an array receiving, at index 0, the symmetry whose image gave the key
+   * @return the canonical key
+   */
+  long canonicalKey(int sideToMove, int[] symmetry) {
+    int[][] symmetries = geometry.symmetries();
+    long best = 0;
+    int bestSymmetry = -1;
+    for (int i = 0; i < symmetries.length; i++) {
+      int[] image = symmetries[i];
+      long key = sideToMove == WHITE ? geometry.whiteToMoveKey() : 0;
+      for (int index : geometry.cells()) {
+        if (colors[index] != EMPTY) {
+          key ^= geometry.zobrist(image[index], colors[index]);
+        }
+      }
+      if (bestSymmetry < 0 || key < best) {
+        best = key;
+        bestSymmetry = i;
+      }
+    }
+    symmetry[0] = bestSymmetry;
+    return best;
+  }
+
+  /**
+   * Count the discs the given side would flip by playing on the given cell.
+   *
+   * @param index the index of the cell
+   * @param side  the side to play
+   * @return the number of flipped discs, 0 if the move is not legal
+   */
+  public int flipCount(int index, int side) {
+    if (colors[index] != EMPTY) {
+      return 0;
+    }
+    int opponent = opponent(side);
+    int total = 0;
+    for (int offset : geometry.offsets()) {
+      int current = index + offset;
+      int run = 0;
+      while (colors[current] == opponent) {
+        current += offset;
+        run++;
+      }
+      if (run > 0 && colors[current] == side) {
+        total += run;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Check if the given side can play on the given cell.
+   *
+   * @param index the index of the cell
+   * @param side  the side to play
+   * @return true if the move flips at least one disc
+   */
+  public boolean isLegal(int index, int side) {
+    if (colors[index] != EMPTY) {
+      return false;
+    }
+    int opponent = opponent(side);
+    for (int offset : geometry.offsets()) {
+      int current = index + offset;
+      if (colors[current] != opponent) {
+        continue;
+      }
+      do {
+        current += offset;
+      } while (colors[current] == opponent);
+      if (colors[current] == side) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Write the cells on which the given side can play into the given array.
+   *
+   * @param side the side to play
+   * @param out  an array with room for at least {@link #empties()} entries
+   * @return the number of moves written
+   */
+  public int generateMoves(int side, int[] out) {
+    int count = 0;
+    for (int index : geometry.cells()) {
+      if (isLegal(index, side)) {
+        out[count++] = index;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Check if the given side has any legal move.
+   *
+   * @param side the side
+   * @return true if it can play somewhere
+   */
+  public boolean hasMove(int side) {
+    for (int index : geometry.cells()) {
+      if (isLegal(index, side)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check if neither side can play anymore.
+   *
+   * @return true if the game on this board is over
+   */
+  public boolean isGameOver() {
+    return empties == 0 || (!hasMove(BLACK) && !hasMove(WHITE));
+  }
+
+  /**
+   * Play the given side on the given cell, flipping the captured discs. The flipped cells are
+   * written into the buffer so that the move can be taken back with {@link #undo}.
+   *
+   * @param index the index of the cell, which must be a legal move
+   * @param side  the side to play
+   * @param flips the buffer receiving the flipped cells
+   * @param start the first position of the buffer to write to
+   * @return the number of flipped discs
+   */
+  public int play(int index, int side, int[] flips, int start) {
+    int opponent = opponent(side);
+    int count = start;
+    for (int offset : geometry.offsets()) {
+      int current = index + offset;
+      while (colors[current] == opponent) {
+        current += offset;
+      }
+      if (colors[current] != side) {
+        continue;
+      }
+      for (int flip = index + offset; flip != current; flip += offset) {
+        colors[flip] = (byte) side;
+        bits[side][flip >>> 6] |= 1L << flip;
+        bits[opponent][flip >>> 6] &= ~(1L << flip);
+        hash ^= geometry.zobrist(flip, side) ^ geometry.zobrist(flip, opponent);
+        flips[count++] = flip;
+        if (patterns != null) {
+          updatePatterns(flip, side - opponent);
+        }
+      }
+    }
+    int flipped = count - start;
+    discs[side] += flipped;
+    discs[opponent] -= flipped;
+    set(index, side);
+    return flipped;
+  }
+
+  /**
+   * Take back a move made by {@link #play}.
+   *
+   * @param index the cell that was played
+   * @param side  the side that played it
+   * @param flips the buffer holding the flipped cells
+   * @param start the first position of the buffer that was written
+   * @param count the number of flipped discs returned by {@link #play}
+   */
+  public void undo(int index, int side, int[] flips, int start, int count) {
+    int opponent = opponent(side);
+    for (int i = start; i < start + count; i++) {
+      int flip = flips[i];
+      colors[flip] = (byte) opponent;
+      bits[opponent][flip >>> 6] |= 1L << flip;
+      bits[side][flip >>> 6] &= ~(1L << flip);
+      hash ^= geometry.zobrist(flip, side) ^ geometry.zobrist(flip, opponent);
+      if (patterns != null) {
+        updatePatterns(flip, opponent - side);
+      }
+    }
+    discs[side] -= count;
+    discs[opponent] += count;
+    colors[index] = EMPTY;
+    bits[side][index >>> 6] &= ~(1L << index);
+    discs[side]--;
+    empties++;
+    hash ^= geometry.zobrist(index, side);
+    if (patterns != null) {
+      updatePatterns(index, -side);
+    }
+  }
+
+  /**
+   * Get the position of the given cell.
+   *
+   * @param index the index of the cell
+   * @return its row-col pair
+   */
+  public RowColPair pairOf(int index) {
+    return geometry.pairOf(index);
+  }
+}
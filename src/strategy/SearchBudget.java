@@ -0,0 +1,53 @@
+package strategy;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The most a strategy may spend on one decision: a number of positions and a time. A budget is
+ * enforced inside the searches by a {@link BudgetedStrategy}, so that a decision takes about
+ * the same time whatever the size of the board and the phase of the game, instead of searching
+ * a fixed depth whose cost varies by orders of magnitude.
+ */
+public final class SearchBudget {
+  private final long nodes;
+  private final Duration time;
+
+  /**
+   * Construct a budget.
+   *
+   * @param nodes the number of positions the searches may visit
+   * @param time  the time the decision may take
+   * @throws IllegalArgumentException if the number of positions or the time is not positive
+   */
+  public SearchBudget(long nodes, Duration time) {
+    if (nodes <= 0 || Objects.requireNonNull(time).isNegative() || time.isZero()) {
+      throw new IllegalArgumentException("Invalid search budget");
+    }
+    this.nodes = nodes;
+    this.time = time;
+  }
+
+  /**
+   * Get the number of positions the searches may visit.
+   *
+   * @return the number of nodes
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Get the time the decision may take.
+   *
+   * @return the time
+   */
+  public Duration getTime() {
+    return time;
+  }
+
+  @Override
+  public String toString() {
+    return nodes + " nodes in " + time.toMillis() + " ms";
+  }
+}
@@ -0,0 +1,138 @@
+package strategy;
+
+/**
+ * The counts of the decision being measured on the current thread, which the searches add to
+ * once they finish. Searches keep their own counters while they run and report them here at
+ * the end, so that measuring costs nothing per position. When no decision is measured on the
+ * current thread, the reports are ignored.
+ */
+final class SearchCounters {
+  private static final ThreadLocal<SearchCounters> CURRENT = new ThreadLocal<>();
+
+  private long nodes;
+  private int depth;
+  private long betaCutoffs;
+  private long firstMoveCutoffs;
+  private long hashProbes;
+  private long hashHits;
+
+  /**
+   * Start measuring a decision on the current thread.
+   *
+   * @return the counters of the decision measured before, which the new decision is part of,
+   *         or null if there was none
+   */
+  static SearchCounters begin() {
+    SearchCounters outer = CURRENT.get();
+    CURRENT.set(new SearchCounters());
+    return outer;
+  }
+
+  /**
+   * Stop measuring the decision started by the matching {@link #begin}, adding its counts to
+   * the decision measured before, if any.
+   *
+   * @param outer the counters returned by {@link #begin}
+   * @return the counters of the finished decision
+   */
+  static SearchCounters end(SearchCounters outer) {
+    SearchCounters counters = CURRENT.get();
+    if (outer == null) {
+      CURRENT.remove();
+    } else {
+      outer.add(counters);
+      CURRENT.set(outer);
+    }
+    return counters;
+  }
+
+  /**
+   * Report the counts of a decision measured on another thread, whose result is used by the
+   * decision measured on the current thread.
+   *
+   * @param counts the counters of the other decision
+   */
+  static void addAll(SearchCounters counts) {
+    SearchCounters counters = CURRENT.get();
+    if (counters != null) {
+      counters.add(counts);
+    }
+  }
+
+  /**
+   * Add the counts of another decision to these counters.
+   */
+  private void add(SearchCounters counts) {
+    nodes += counts.nodes;
+    depth = Math.max(depth, counts.depth);
+    betaCutoffs += counts.betaCutoffs;
+    firstMoveCutoffs += counts.firstMoveCutoffs;
+    hashProbes += counts.hashProbes;
+    hashHits += counts.hashHits;
+  }
+
+  /**
+   * Report positions looked at.
+   *
+   * @param count the number of positions
+   */
+  static void addNodes(long count) {
+    SearchCounters counters = CURRENT.get();
+    if (counters != null) {
+      counters.nodes += count;
+    }
+  }
+
+  /**
+   * Report a completed search depth.
+   *
+   * @param plies the depth, in plies
+   */
+  static void reachDepth(int plies) {
+    SearchCounters counters = CURRENT.get();
+    if (counters != null) {
+      counters.depth = Math.max(counters.depth, plies);
+    }
+  }
+
+  /**
+   * Report search cutoffs.
+   *
+   * @param cutoffs    the number of beta cutoffs
+   * @param firstMoves the number of those made by the first move searched
+   */
+  static void addCutoffs(long cutoffs, long firstMoves) {
+    SearchCounters counters = CURRENT.get();
+    if (counters != null) {
+      counters.betaCutoffs += cutoffs;
+      counters.firstMoveCutoffs += firstMoves;
+    }
+  }
+
+  /**
+   * Report lookups of known positions.
+   *
+   * @param probes the number of lookups
+   * @param hits   the number of those that found the position
+   */
+  static void addHashProbes(long probes, long hits) {
+    SearchCounters counters = CURRENT.get();
+    if (counters != null) {
+      counters.hashProbes += probes;
+      counters.hashHits += hits;
+    }
+  }
+
+  /**
+   * Build the statistics of the finished decision.
+   *
+   * @param strategy       the name of the strategy
+   * @param nanos          the time spent, in nanoseconds
+   * @param allocatedBytes the memory allocated, or -1 if unknown
+   * @return the statistics
+   */
+  SearchStats toStats(String strategy, long nanos, long allocatedBytes) {
+    return new SearchStats(strategy, nodes, nanos, depth, betaCutoffs, firstMoveCutoffs,
+        hashProbes, hashHits, allocatedBytes);
+  }
+}
@@ -0,0 +1,99 @@
+package strategy;
+
+/**
+ * What is left of the budget of the decision made on the current thread. The searches report
+ * the positions they visit every few thousand positions, and learn then whether the budget is
+ * spent. When no budget applies on the current thread, the reports are ignored.
+ */
+final class SearchDeadline {
+  private static final ThreadLocal<SearchDeadline> CURRENT = new ThreadLocal<>();
+
+  private final long nodes;
+  private final long deadline;
+  private long spent;
+
+  private SearchDeadline(long nodes, long deadline) {
+    this.nodes = nodes;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Start a decision with the given budget on the current thread. Within the decision of an
+   * enclosing budget, the new budget can not go beyond what is left of the enclosing one.
+   *
+   * @param budget the budget of the decision
+   * @return the budget of the enclosing decision, or null if there was none
+   */
+  static SearchDeadline begin(SearchBudget budget) {
+    SearchDeadline outer = CURRENT.get();
+    long nodes = budget.getNodes();
+    long deadline = System.nanoTime() + budget.getTime().toNanos();
+    if (outer != null) {
+      nodes = Math.min(nodes, outer.nodes - outer.spent);
+      deadline = deadline - outer.deadline < 0 ? deadline : outer.deadline;
+    }
+    CURRENT.set(new SearchDeadline(nodes, deadline));
+    return outer;
+  }
+
+  /**
+   * Start a part of the decision made on the current thread, which may only spend a share of
+   * what is left of its budget, so that the rest of the decision still has the other share.
+   * Without a budget on the current thread, the part has no budget either.
+   *
+   * @param share the share of the budget left, between 0 and 1
+   * @return the budget of the enclosing decision, or null if there was none
+   */
+  static SearchDeadline beginShare(double share) {
+    SearchDeadline outer = CURRENT.get();
+    if (outer != null) {
+      long now = System.nanoTime();
+      CURRENT.set(new SearchDeadline((long) ((outer.nodes - outer.spent) * share),
+          now + (long) ((outer.deadline - now) * share)));
+    }
+    return outer;
+  }
+
+  /**
+   * End the decision started by the matching {@link #begin} or {@link #beginShare}, charging
+   * what it spent to the enclosing decision, if any.
+   *
+   * @param outer the budget returned by {@link #begin} or {@link #beginShare}
+   */
+  static void end(SearchDeadline outer) {
+    SearchDeadline inner = CURRENT.get();
+    if (outer == null) {
+      CURRENT.remove();
+    } else {
+      outer.spent += inner.spent;
+      CURRENT.set(outer);
+    }
+  }
+
+  /**
+   * Report positions visited, and check whether the budget is spent.
+   *
+   * @param count the number of positions visited since the last report
+   * @return true if the decision is out of positions or out of time
+   */
+  static boolean spend(long count) {
+    SearchDeadline current = CURRENT.get();
+    if (current == null) {
+      return false;
+    }
+    current.spent += count;
+    return current.spent >= current.nodes || System.nanoTime() - current.deadline >= 0;
+  }
+
+  /**
+   * Thrown by a search to stop once the budget is spent, and caught by the strategy running it,
+   * which then plays the best move it knows.
+   */
+  static final class Exceeded extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    Exceeded() {
+      super("Search budget spent", null, false, false);
+    }
+  }
+}
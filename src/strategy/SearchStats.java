@@ -0,0 +1,149 @@
+package strategy;
+
+/**
+ * The statistics of one decision of a strategy, as measured by an {@link InstrumentedStrategy}.
+ * The time and the allocated memory are measured for every strategy; the other counts are
+ * reported by the searches the strategy runs, and stay at zero for strategies that do not
+ * search or do not use a hash table. A node is one position the strategy looked at: a position
+ * of a game tree, a Monte Carlo playout, or the position whose legal moves a rule-based
+ * strategy listed. The hash counts cover every table of known positions: search hash tables,
+ * opening books, reused Monte Carlo trees and pondered replies.
+ */
+public final class SearchStats {
+  private final String strategy;
+  private final long nodes;
+  private final long nanos;
+  private final int depth;
+  private final long betaCutoffs;
+  private final long firstMoveCutoffs;
+  private final long hashProbes;
+  private final long hashHits;
+  private final long allocatedBytes;
+
+  /**
+   * Construct the statistics of a decision.
+   *
+   * @param strategy         the name of the strategy
+   * @param nodes            the number of positions looked at
+   * @param nanos            the time spent, in nanoseconds
+   * @param depth            the deepest search depth completed, in plies, or 0 if none
+   * @param betaCutoffs      the number of positions whose search stopped on a cutoff
+   * @param firstMoveCutoffs the number of those cutoffs made by the first move searched
+   * @param hashProbes       the number of lookups of known positions
+   * @param hashHits         the number of those lookups that found the position
+   * @param allocatedBytes   the memory allocated by the deciding thread, or -1 if the virtual
+   *                         machine does not measure it
+   */
+  public SearchStats(String strategy, long nodes, long nanos, int depth, long betaCutoffs,
+                     long firstMoveCutoffs, long hashProbes, long hashHits,
+                     long allocatedBytes) {
+    this.strategy = strategy;
+    this.nodes = nodes;
+    this.nanos = nanos;
+    this.depth = depth;
+    this.betaCutoffs = betaCutoffs;
+    this.firstMoveCutoffs = firstMoveCutoffs;
+    this.hashProbes = hashProbes;
+    this.hashHits = hashHits;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * Get the name of the strategy that made the decision.
+   *
+   * @return the name
+   */
+  public String getStrategy() {
+    return strategy;
+  }
+
+  /**
+   * Get the number of positions looked at.
+   *
+   * @return the number of nodes
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Get the number of positions looked at per second.
+   *
+   * @return the speed, or 0 if no time was measured
+   */
+  public double getNodesPerSecond() {
+    return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+  }
+
+  /**
+   * Get the time spent on the decision.
+   *
+   * @return the time, in nanoseconds
+   */
+  public long getNanos() {
+    return nanos;
+  }
+
+  /**
+   * Get the deepest search depth completed.
+   *
+   * @return the depth in plies, or 0 if the strategy did not search
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Get the number of positions whose search stopped early because a move was good enough.
+   *
+   * @return the number of beta cutoffs
+   */
+  public long getBetaCutoffs() {
+    return betaCutoffs;
+  }
+
+  /**
+   * Get the share of the cutoffs made by the first move searched, which tells how good the move
+   * ordering is.
+   *
+   * @return the rate, between 0 and 1, or 0 if there was no cutoff
+   */
+  public double getFirstMoveCutoffRate() {
+    return betaCutoffs == 0 ? 0 : (double) firstMoveCutoffs / betaCutoffs;
+  }
+
+  /**
+   * Get the number of lookups of known positions.
+   *
+   * @return the number of hash probes
+   */
+  public long getHashProbes() {
+    return hashProbes;
+  }
+
+  /**
+   * Get the share of the lookups of known positions that found the position.
+   *
+   * @return the rate, between 0 and 1, or 0 if there was no lookup
+   */
+  public double getHashHitRate() {
+    return hashProbes == 0 ? 0 : (double) hashHits / hashProbes;
+  }
+
+  /**
+   * Get the memory allocated by the deciding thread during the decision.
+   *
+   * @return the number of bytes, or -1 if the virtual machine does not measure it
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %d nodes in %.1f ms (%.0f nodes/s), depth %d, %d cutoffs "
+            + "(%.0f%% on the first move), %d hash probes (%.0f%% hits), %d bytes allocated",
+        strategy, nodes, nanos / 1e6, getNodesPerSecond(), depth, betaCutoffs,
+        100 * getFirstMoveCutoffRate(), hashProbes, 100 * getHashHitRate(), allocatedBytes);
+  }
+}
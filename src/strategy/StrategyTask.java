@@ -0,0 +1,98 @@
+package strategy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * One decision of a strategy run as a task, see
+ * {@link InfallibleStrategy#choosePositionAsync}. The task searches a copy of the model, so that
+ * the game can go on while it runs. When its future is cancelled or its deadline passes, the
+ * thread running the search is interrupted, which stops the searching strategies early.
+ */
+final class StrategyTask implements Runnable {
+  private final InfallibleStrategy strategy;
+  private final ReadOnlyReversiModel model;
+  private final RepresentativeColor player;
+  private final CompletableFuture<RowColPair> future;
+  private Thread runner;
+
+  private StrategyTask(InfallibleStrategy strategy, ReadOnlyReversiModel model,
+                       RepresentativeColor player) {
+    this.strategy = strategy;
+    this.model = model;
+    this.player = player;
+    this.future = new CompletableFuture<>();
+  }
+
+  /**
+   * Start a decision of the given strategy.
+   *
+   * @param strategy the strategy
+   * @param model    the current model, copied before the task starts
+   * @param player   the player to move
+   * @param executor the executor running the search
+   * @param timeout  the time after which the future fails with a
+   *                 {@link java.util.concurrent.TimeoutException}, or null for no deadline
+   * @return the future position
+   */
+  static CompletableFuture<RowColPair> submit(InfallibleStrategy strategy,
+                                              ReadOnlyReversiModel model,
+                                              RepresentativeColor player, Executor executor,
+                                              Duration timeout) {
+    StrategyTask task = new StrategyTask(strategy, model.getDeepCopy(player), player);
+    if (timeout != null) {
+      task.future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    task.future.whenComplete((position, error) -> {
+      if (error != null) {
+        task.interrupt();
+      }
+    });
+    try {
+      executor.execute(task);
+    } catch (RuntimeException e) {
+      task.future.completeExceptionally(e);
+    }
+    return task.future;
+  }
+
+  @Override
+  public void run() {
+    if (future.isDone()) {
+      return;
+    }
+    boolean interrupted = Thread.currentThread().isInterrupted();
+    synchronized (this) {
+      runner = Thread.currentThread();
+    }
+    try {
+      future.complete(strategy.choosePosition(model, player));
+    } catch (RuntimeException e) {
+      // including the CancellationException of a search interrupted by a failed future.
+      future.completeExceptionally(e);
+    } finally {
+      synchronized (this) {
+        runner = null;
+        // an interrupt meant for this search must not reach what the thread runs next.
+        Thread.interrupted();
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Interrupt the search if it is running.
+   */
+  private synchronized void interrupt() {
+    if (runner != null) {
+      runner.interrupt();
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import model.RowColPair;
+
+/**
+ * One of the moves found by an analysis, see {@link AnalysisStrategy}: the move with its score,
+ * and the principal variation, the sequence of moves the search expects both players to play
+ * from there. The variation starts with the move itself and alternates between the players,
+ * except where a player has no legal move and passes, in which case the other player moves
+ * twice in a row. It can be shorter than the search depth when the search did not keep the
+ * rest of it.
+ */
+public final class Variation {
+  private final Move move;
+  private final List<RowColPair> line;
+
+  /**
+   * Construct a variation.
+   *
+   * @param move the move, with its score for the player making it
+   * @param line the principal variation, starting with the position of the move
+   * @throws IllegalArgumentException if the move has no position, or if the line does not
+   *                                  start with it
+   */
+  public Variation(Move move, List<RowColPair> line) {
+    if (move == null || line == null || line.isEmpty()
+        || !line.get(0).equals(move.getPosition())) {
+      throw new IllegalArgumentException("A variation must start with its move");
+    }
+    this.move = move;
+    this.line = Collections.unmodifiableList(new ArrayList<>(line));
+  }
+
+  /**
+   * Get the move of this variation.
+   *
+   * @return the move and its score
+   */
+  public Move getMove() {
+    return move;
+  }
+
+  /**
+   * Get the principal variation.
+   *
+   * @return the moves, starting with the move of this variation
+   */
+  public List<RowColPair> getLine() {
+    return line;
+  }
+}
@@ -0,0 +1,419 @@
+package view;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * A live view of the game in a terminal, for hex and square boards, drawn with ANSI escape
+ * codes. The board is laid out as in the textual views, and printed once; after that, each
+ * update only moves the cursor to the cells that changed since the last frame and prints them
+ * again, together with the status lines when they changed, so that playing over a slow
+ * connection neither re-prints the board nor flickers.
+ * The player moves a cursor over the board with the arrow keys or w, a, s and d, places a
+ * disc with enter or m, passes with space or p, and shows the legal moves, marked with *, with
+ * ?, and q or ctrl-c quit. The keys are read on a thread of their own, started when the view
+ * is displayed, which keeps the program running until the player quits; the terminal should
+ * be in raw mode, such as after stty raw -echo, for the keys to be read as soon as they are
+ * pressed. Several players may share one view, and each key is handed to the
+ * features of all of them, which only act on their own turn.
+ */
+public final class AnsiTerminalView implements IView {
+  private static final String ESCAPE = "\u001b[";
+
+  private final Reader in;
+  private final Appendable out;
+  private final TextBoardRenderer renderer;
+  private final int[] lines;
+  private final int[] columns;
+  private final int boardLines;
+  private final List<Features> features;
+  private final char[] shown;
+  private final boolean[] shownSelected;
+  private String shownStatus;
+  private ReadOnlyReversiModel model;
+  private RepresentativeColor color;
+  private int cursor;
+  private boolean locked;
+  private boolean hints;
+  private boolean started;
+  private boolean updated;
+  private Runnable beforeKeys;
+
+  /**
+   * Construct the view of the given model.
+   *
+   * @param model the model
+   * @param in    where the keys are read from, or null for a view that only shows the game
+   * @param out   the terminal
+   * @throws IllegalArgumentException if the model or the terminal is null, or if the model
+   *                                  is neither a square nor a hex model
+   */
+  public AnsiTerminalView(ReadOnlyReversiModel model, Reader in, Appendable out) {
+    if (model == null || out == null) {
+      throw new IllegalArgumentException("Invalid model or appendable");
+    }
+    this.model = model;
+    this.in = in;
+    this.out = out;
+    this.renderer = TextBoardRenderer.of(model);
+    int count = renderer.getCellCount();
+    lines = new int[count];
+    columns = new int[count];
+    int line = 0;
+    int lineStart = 0;
+    int place = 0;
+    String layout = renderer.render(model);
+    for (int i = 0; i < count; i++) {
+      for (; place < renderer.getPlace(i); place++) {
+        if (layout.charAt(place) == '\n') {
+          line++;
+          lineStart = place + 1;
+        }
+      }
+      lines[i] = line;
+      columns[i] = renderer.getPlace(i) - lineStart;
+      if (renderer.getCell(i).equals(new RowColPair(0, 0))) {
+        cursor = i;
+      }
+    }
+    boardLines = layout.split("\n", -1).length;
+    features = new ArrayList<>();
+    shown = new char[count];
+    shownSelected = new boolean[count];
+  }
+
+  /**
+   * Clear the terminal, draw the whole board, and start reading the keys. The cursor and the
+   * status of the game are drawn at the first update, once the game has started.
+   */
+  @Override
+  public synchronized void display() {
+    if (started) {
+      return;
+    }
+    started = true;
+    write(ESCAPE + "?25l" + ESCAPE + "2J" + ESCAPE + "H");
+    String frame = renderer.render(model);
+    write(frame.replace("\n", "\r\n"));
+    for (int i = 0; i < shown.length; i++) {
+      shown[i] = frame.charAt(renderer.getPlace(i));
+    }
+    write(moveTo(boardLines + 3) + "arrows or w a s d: move   enter or m: place   "
+        + "space or p: pass   ?: legal moves");
+    flush();
+    if (in != null) {
+      new Thread(this::readKeys, "terminal-input").start();
+    }
+  }
+
+  /**
+   * Run a task on the thread of the keys, before any key is acted on, such as starting the
+   * game, so that the moves it leads to are placed by the thread that places the moves of the
+   * keys. A view that reads no keys runs the task at once.
+   *
+   * @param task the task
+   */
+  public void runBeforeKeys(Runnable task) {
+    synchronized (this) {
+      if (in != null) {
+        beforeKeys = task;
+        notifyAll();
+        return;
+      }
+    }
+    task.run();
+  }
+
+  @Override
+  public synchronized void addFeatures(Features features) {
+    this.features.add(features);
+  }
+
+  @Override
+  public synchronized void showMessage(String s) {
+    write(moveTo(boardLines + 2) + ESCAPE + "K" + s);
+    flush();
+  }
+
+  /**
+   * Stop the keys from moving the cursor and acting, since the player of this view is not a
+   * human.
+   */
+  @Override
+  public synchronized void lockInteractionWithViewForNonHumanPlayer() {
+    locked = true;
+    redraw();
+  }
+
+  /**
+   * Show or hide the legal moves for a player. On a view shared by several players, each key
+   * asks for the hints of all of them, so only the player to move toggles them.
+   *
+   * @param color the player asking for the hints
+   */
+  @Override
+  public synchronized void showHints(RepresentativeColor color) {
+    if (this.color == color
+        || this.color == null && color == RenderSnapshot.of(model).getTurn()) {
+      hints = !hints;
+      redraw();
+    }
+  }
+
+  @Override
+  public synchronized void setColor(RepresentativeColor color) {
+    this.color = color;
+  }
+
+  /**
+   * Draw the cells and the status lines that changed since the last frame.
+   *
+   * @param model  the current model
+   * @param player the player of this view
+   */
+  @Override
+  public synchronized void update(ReadOnlyReversiModel model, RepresentativeColor player) {
+    this.model = model;
+    updated = true;
+    notifyAll();
+    redraw();
+  }
+
+  /**
+   * Draw what changed since the last frame: the cells, in the order they are laid out, then
+   * the status line. Nothing is drawn before the view is displayed and first updated.
+   */
+  private void redraw() {
+    if (!started || !updated) {
+      return;
+    }
+    RenderSnapshot snapshot = RenderSnapshot.of(model);
+    String frame = renderer.render(model);
+    StringBuilder changes = new StringBuilder();
+    for (int i = 0; i < shown.length; i++) {
+      char c = frame.charAt(renderer.getPlace(i));
+      if (hints && snapshot.getMoves().containsKey(renderer.getCell(i))) {
+        c = '*';
+      }
+      boolean selected = i == cursor && !locked && !snapshot.isGameOver();
+      if (c != shown[i] || selected != shownSelected[i]) {
+        shown[i] = c;
+        shownSelected[i] = selected;
+        changes.append(ESCAPE).append(lines[i] + 1).append(';').append(columns[i] + 1)
+            .append('H');
+        if (selected) {
+          changes.append(ESCAPE).append("7m").append(c).append(ESCAPE).append("0m");
+        } else {
+          changes.append(c);
+        }
+      }
+    }
+    String status = status(snapshot);
+    if (!status.equals(shownStatus)) {
+      shownStatus = status;
+      changes.append(moveTo(boardLines + 1)).append(ESCAPE).append('K').append(status);
+    }
+    if (changes.length() > 0) {
+      write(changes.toString());
+      flush();
+    }
+  }
+
+  /**
+   * Describe the state of the game in one line.
+   */
+  private String status(RenderSnapshot snapshot) {
+    String scores = "Black: " + snapshot.getScore(RepresentativeColor.BLACK) + "  White: "
+        + snapshot.getScore(RepresentativeColor.WHITE) + "  ";
+    if (snapshot.isGameOver()) {
+      RepresentativeColor winner = snapshot.getWinner();
+      return scores + (winner == null ? "Game is over, Tie Game"
+          : "Game is over, winner is " + winner);
+    }
+    return scores + "Current turn: " + snapshot.getTurn().getName()
+        + (snapshot.hasToPass() ? ", can only pass" : "");
+  }
+
+  /**
+   * Read the keys until the player quits or the input ends, and act on each of them, then
+   * show the cursor of the terminal again below the game.
+   */
+  private void readKeys() {
+    try {
+      Runnable task;
+      synchronized (this) {
+        while (!updated && beforeKeys == null) {
+          wait();
+        }
+        task = beforeKeys;
+        beforeKeys = null;
+      }
+      if (task != null) {
+        task.run();
+      }
+      synchronized (this) {
+        // the keys pressed before the game started are acted on once it has started.
+        while (!updated) {
+          wait();
+        }
+      }
+      int key;
+      while ((key = in.read()) != -1 && key != 'q' && key != 3) {
+        if (key == 27) {
+          if (in.read() != '[') {
+            continue;
+          }
+          key = in.read();
+          switch (key) {
+            case 'A':
+              key = 'w';
+              break;
+            case 'B':
+              key = 's';
+              break;
+            case 'C':
+              key = 'd';
+              break;
+            case 'D':
+              key = 'a';
+              break;
+            default:
+              continue;
+          }
+        }
+        press(key);
+      }
+    } catch (IOException e) {
+      showMessage("Can not read the keys any more");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      write(moveTo(boardLines + 4) + ESCAPE + "?25h");
+      flush();
+    }
+  }
+
+  /**
+   * Act on one key: move the cursor, or hand the action to the features.
+   *
+   * @param key the key
+   */
+  private void press(int key) {
+    List<Features> targets;
+    RowColPair selected;
+    synchronized (this) {
+      if (locked) {
+        return;
+      }
+      switch (key) {
+        case 'w':
+          moveVertically(-1);
+          return;
+        case 's':
+          moveVertically(1);
+          return;
+        case 'a':
+          moveHorizontally(-1);
+          return;
+        case 'd':
+          moveHorizontally(1);
+          return;
+        default:
+          break;
+      }
+      targets = new ArrayList<>(features);
+      selected = renderer.getCell(cursor);
+    }
+    // the features change the model, which updates this view, so they are called unlocked.
+    for (Features feature : targets) {
+      if (key == '\r' || key == 'm') {
+        feature.placeMove(selected);
+      } else if (key == ' ' || key == 'p') {
+        feature.makePass();
+      } else if (key == '?') {
+        feature.showHints();
+      }
+    }
+  }
+
+  /**
+   * Move the cursor to the nearest cell on the line above or below.
+   *
+   * @param step -1 to move up, 1 to move down
+   */
+  private void moveVertically(int step) {
+    int best = -1;
+    for (int i = 0; i < lines.length; i++) {
+      if (lines[i] == lines[cursor] + step && (best < 0
+          || Math.abs(columns[i] - columns[cursor]) < Math.abs(columns[best] - columns[cursor]))) {
+        best = i;
+      }
+    }
+    moveCursor(best);
+  }
+
+  /**
+   * Move the cursor to the next cell on its line.
+   *
+   * @param step -1 to move left, 1 to move right
+   */
+  private void moveHorizontally(int step) {
+    int next = cursor + step;
+    moveCursor(next >= 0 && next < lines.length && lines[next] == lines[cursor] ? next : -1);
+  }
+
+  /**
+   * Move the cursor to the given cell, and draw the two cells again.
+   *
+   * @param index the index of the cell, or -1 to stay
+   */
+  private void moveCursor(int index) {
+    if (index >= 0) {
+      cursor = index;
+      redraw();
+    }
+  }
+
+  /**
+   * Get the code moving the cursor to the start of a line of the terminal.
+   *
+   * @param line the line, counted from 1
+   * @return the code
+   */
+  private static String moveTo(int line) {
+    return ESCAPE + line + ";1H";
+  }
+
+  /**
+   * Write to the terminal.
+   *
+   * @throws IllegalStateException if the terminal can not be written to
+   */
+  private void write(String s) {
+    try {
+      out.append(s);
+    } catch (IOException e) {
+      throw new IllegalStateException("Can not write to the terminal", e);
+    }
+  }
+
+  /**
+   * Send what was written to the terminal at once.
+   */
+  private void flush() {
+    if (out instanceof Flushable) {
+      try {
+        ((Flushable) out).flush();
+      } catch (IOException e) {
+        throw new IllegalStateException("Can not write to the terminal", e);
+      }
+    }
+  }
+}
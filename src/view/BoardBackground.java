@@ -0,0 +1,76 @@
+package view;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+import javax.swing.JComponent;
+
+/**
+ * An image of the part of a board that does not change during a game: the background, and
+ * every cell drawn as if it were empty. The image is drawn once for the current size of the
+ * panel and scale of the screen, and then copied at each paint, so that only the discs and
+ * the selected cell are drawn again. It is drawn again when the panel is resized or moved to a
+ * screen with another scale.
+ */
+final class BoardBackground {
+  private final Consumer<Graphics2D> painter;
+  private BufferedImage image;
+  private int width;
+  private int height;
+  private double scaleX;
+  private double scaleY;
+
+  /**
+   * Construct the background of a board.
+   *
+   * @param painter paints the background, in the logical coordinates of the board
+   */
+  BoardBackground(Consumer<Graphics2D> painter) {
+    this.painter = painter;
+  }
+
+  /**
+   * Copy the background onto a panel, drawing it first if the panel changed size or scale.
+   * The image is opaque and made for the screen of the panel, so copying it is a plain copy of
+   * pixels: the parts of the panel outside the board are filled with the background color of
+   * the panel.
+   *
+   * @param g         the graphics of the panel, in physical coordinates
+   * @param panel     the panel
+   * @param transform the transformation from the logical coordinates of the board to the
+   *                  physical coordinates of the panel
+   */
+  void paint(Graphics2D g, JComponent panel, AffineTransform transform) {
+    int width = panel.getWidth();
+    int height = panel.getHeight();
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+    AffineTransform device = g.getTransform();
+    double sx = device.getScaleX();
+    double sy = device.getScaleY();
+    if (image == null || width != this.width || height != this.height
+        || sx != scaleX || sy != scaleY) {
+      this.width = width;
+      this.height = height;
+      scaleX = sx;
+      scaleY = sy;
+      int imageWidth = (int) Math.ceil(width * sx);
+      int imageHeight = (int) Math.ceil(height * sy);
+      GraphicsConfiguration configuration = g.getDeviceConfiguration();
+      image = configuration == null
+          ? new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB)
+          : configuration.createCompatibleImage(imageWidth, imageHeight);
+      Graphics2D imageGraphics = image.createGraphics();
+      imageGraphics.setColor(panel.getBackground());
+      imageGraphics.fillRect(0, 0, imageWidth, imageHeight);
+      imageGraphics.scale(sx, sy);
+      imageGraphics.transform(transform);
+      painter.accept(imageGraphics);
+      imageGraphics.dispose();
+    }
+    g.drawImage(image, 0, 0, width, height, null);
+  }
+}
@@ -4,6 +4,7 @@ import java.awt.Graphics2D;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.FlowLayout;
 import java.awt.event.MouseEvent;
 import java.awt.geom.AffineTransform;
@@ -28,6 +29,7 @@ public class HexBoardPanel extends JPanel implements IPanel {
    */
   private final ReadOnlyReversiModel model;
   private final HexGrid hexGrid;
+  private final BoardBackground background;
   private RowColPair selectedPosition;
   private boolean mouseLock = false;
 
@@ -49,6 +51,7 @@ public class HexBoardPanel extends JPanel implements IPanel {
       boardSize -= 6;
     }
     hexGrid = new HexGrid(model, preferWidth, preferHeight, model.getSize());
+    background = new BoardBackground(hexGrid::paintBackground);
   }
 
 
@@ -87,10 +90,9 @@ public class HexBoardPanel extends JPanel implements IPanel {
   }
 
   /**
-   * first, get the coordinators for the middle point(0,0), use its coordinators to get the point
-   * surround it, then if the hexagon was unoccupied(the color is none or cyan), we will fill the
-   * hexagon, otherwise draw a circle in that hexagon based on the coordinators for its topping
-   * point.
+   * first, copy the empty board from the image of the background, then if the hexagon was
+   * selected(the color is cyan), we will fill the hexagon, otherwise if it is occupied draw a
+   * circle in that hexagon based on the coordinators for its topping point.
    *
    * @param g the <code>Graphics</code> object to protect
    */
@@ -99,18 +101,35 @@ public class HexBoardPanel extends JPanel implements IPanel {
     super.paintComponent(g);
     this.setLayout(new FlowLayout());
     Graphics2D g2d = (Graphics2D) g.create();
-    g2d.transform(transformLogicalToPhysical());
+    AffineTransform transform = transformLogicalToPhysical();
+    background.paint(g2d, this, transform);
+    g2d.transform(transform);
     hexGrid.paintComponent(g2d);
+    g2d.dispose();
   }
 
   /**
    * update the current model game state to the view.
    *
-   * @param model the current model state
+   * @param snapshot the snapshot of the current model state
    */
-  public void resetGrid(ReadOnlyReversiModel model) {
-    hexGrid.update(model.getBoard());
-    repaint();
+  public void resetGrid(RenderSnapshot snapshot) {
+    for (RowColPair pair : hexGrid.update(snapshot.copyBoard())) {
+      repaintCell(pair);
+    }
+  }
+
+  /**
+   * Ask Swing to paint one cell again, and only the area of that cell.
+   *
+   * @param pair the cell to paint again
+   */
+  private void repaintCell(RowColPair pair) {
+    Rectangle area = transformLogicalToPhysical()
+        .createTransformedShape(hexGrid.getCellBounds(pair)).getBounds();
+    // the border of the hexagon is drawn half outside of it, and the bounds are rounded.
+    area.grow(2, 2);
+    repaint(area);
   }
 
   /**
@@ -167,6 +186,16 @@ public class HexBoardPanel extends JPanel implements IPanel {
     return selectedPosition;
   }
 
+  @Override
+  public Map<RowColPair, Point2D> getCellCenters() {
+    Map<RowColPair, Point2D> centers = hexGrid.getCellCenters();
+    AffineTransform transform = transformLogicalToPhysical();
+    for (Map.Entry<RowColPair, Point2D> entry : centers.entrySet()) {
+      entry.setValue(transform.transform(entry.getValue(), null));
+    }
+    return centers;
+  }
+
   @Override
   public JPanel getPanel() {
     return this;
@@ -203,23 +232,23 @@ public class HexBoardPanel extends JPanel implements IPanel {
           return;
         }
         hexGrid.setColor(selectedPosition, RepresentativeColor.NONE);
+        repaintCell(selectedPosition);
         selectedPosition = null;
-        repaint();
         return;
       }
       if (hexGrid.getColor(selected) == RepresentativeColor.NONE) {
         if (selectedPosition != null && hexGrid.getColor(selectedPosition)
             == RepresentativeColor.CYAN) {
           hexGrid.setColor(selectedPosition, RepresentativeColor.NONE);
+          repaintCell(selectedPosition);
         }
         selectedPosition = selected;
         hexGrid.setColor(selected, RepresentativeColor.CYAN);
-        repaint();
       } else if (hexGrid.getColor(selected) == RepresentativeColor.CYAN) {
         hexGrid.setColor(selected, RepresentativeColor.NONE);
         selectedPosition = null;
       }
-      repaint();
+      repaintCell(selected);
     }
 
     @Override
@@ -3,29 +3,43 @@ package view;
 import java.awt.Graphics2D;
 import java.awt.Graphics;
 import java.awt.Polygon;
+import java.awt.Rectangle;
 import java.awt.Color;
 import java.awt.BasicStroke;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import model.CellPiece;
+import model.HexDirection;
 import model.ReadOnlyReversiModel;
 import model.RepresentativeColor;
 import model.RowColPair;
 
 /**
- * a HexGrid represents the assemble of hexagons.
+ * a HexGrid represents the assemble of hexagons. The hexagons and the circles inside them are
+ * computed once, in logical coordinates, when the grid is made: the size of the board never
+ * changes and the zoom is only a transformation of the graphics, so painting the board only
+ * fills the cached shapes. The empty board is painted on its own, so that the panel can keep
+ * it as an image, and painting the rest skips the cells outside the clip, so that repainting
+ * the few cells changed by a move does not paint the whole board again.
  */
 public final class HexGrid {
   private final int size;
   private Map<RowColPair, CellPiece> hexagons;
+  private final Map<RowColPair, Polygon> polygons;
   private final Map<RowColPair, Ellipse2D> center;
+  private final Map<RowColPair, Rectangle2D> bounds;
+  private final List<RowColPair> order;
+  private final BasicStroke stroke;
   private Map<RowColPair, RowColPair> number;
   private final int width;
   private final int height;
@@ -45,19 +59,40 @@ public final class HexGrid {
     width = preferWidth;
     height = preferHeight;
     hexagons = model.getBoard();
+    polygons = new HashMap<>();
     center = new HashMap<>();
+    bounds = new HashMap<>();
     this.size = size;
-    number = new HashMap<>();
+    float strokeWidth = 0.1f;
+    int currentSize = size;
+    while (currentSize > 6) {
+      strokeWidth += 0.2;
+      currentSize -= 6;
+    }
+    stroke = new BasicStroke(strokeWidth);
+    makeHexagons();
+    order = new ArrayList<>(hexagons.keySet());
+    Collections.sort(order);
+    number = findDrawingNumbers();
   }
 
   /**
    * update the current model board state to the view.
    *
    * @param board the current model
+   * @return the cells whose color changed, which are the only ones to paint again
    */
-  public void update(Map<RowColPair, CellPiece> board) {
+  public Set<RowColPair> update(Map<RowColPair, CellPiece> board) {
+    Set<RowColPair> changed = new HashSet<>();
+    for (Map.Entry<RowColPair, CellPiece> entry : board.entrySet()) {
+      CellPiece old = hexagons.get(entry.getKey());
+      if (old == null || old.getColor() != entry.getValue().getColor()) {
+        changed.add(entry.getKey());
+      }
+    }
     hexagons = new HashMap<>(board);
-    number = new HashMap<>();
+    number = findDrawingNumbers();
+    return changed;
   }
 
 
@@ -70,51 +105,26 @@ public final class HexGrid {
    */
   private void fillHexagon(Graphics2D g2d, Polygon polygon, RepresentativeColor color) {
     g2d.setColor(Color.BLACK);
-    float strokeWidth = 0.1f;
-    int currentSize = size;
-    while (currentSize > 6) {
-      strokeWidth += 0.2;
-      currentSize -= 6;
-    }
-    g2d.setStroke(new BasicStroke(strokeWidth));
-    if (polygon != null) {
-      g2d.draw(polygon);
-      g2d.setColor(color.getActualColor());
-      if (color == RepresentativeColor.BLACK || color == RepresentativeColor.WHITE) {
-        g2d.setColor(RepresentativeColor.NONE.getActualColor());
-      }
-      g2d.fillPolygon(polygon);
+    g2d.draw(polygon);
+    g2d.setColor(color.getActualColor());
+    if (color == RepresentativeColor.BLACK || color == RepresentativeColor.WHITE) {
+      g2d.setColor(RepresentativeColor.NONE.getActualColor());
     }
+    g2d.fillPolygon(polygon);
   }
 
   /**
    * first, get the coordinators for the middle point(0,0), use its coordinators to get the point
-   * surround it, then if the hexagon was unoccupied(the color is none or cyan), we will fill the
-   * hexagon, otherwise draw a circle in that hexagon based on the coordinators for its topping
-   * point.
+   * surround it, then make the hexagon of every cell and the circle drawn inside it when the
+   * cell is occupied, based on the coordinators for its topping point.
    */
   private void makeHexagons() {
     List<List<Integer>> originalPoint = new ArrayList<>();
-    Polygon polygon = new Polygon();
-    RowColPair startPair = new RowColPair(0, 0);
     for (int i = 0; i < 6; i++) {
       int x1 = (int) (0 + hexagonLength * Math.sin(theta * i));
       int y1 = (int) (0 + hexagonLength * Math.cos(theta * i));
-      polygon.addPoint(x1, y1);
       originalPoint.add(Arrays.asList(x1, y1));
     }
-    RepresentativeColor currentColor = hexagons.get(startPair).getColor();
-    hexagons.get(startPair).setPoly(polygon);
-    int centerX = originalPoint.get(0).get(0);
-    int centerY = originalPoint.get(0).get(1);
-    if (currentColor == RepresentativeColor.BLACK || currentColor == RepresentativeColor.WHITE) {
-      double circleRadius = hexagonLength / Math.sqrt(3);
-      center.put(new RowColPair(0, 0),
-          new Ellipse2D.Double(centerX - circleRadius, centerY - 8,
-            circleRadius * 2, circleRadius * 2));
-    } else if (currentColor == RepresentativeColor.NONE && !model.isGameOver()) {
-      number.put(new RowColPair(0, 0), new RowColPair(centerX, centerY));
-    }
     for (RowColPair pair : hexagons.keySet()) {
       drawHexagon(originalPoint, pair);
     }
@@ -129,78 +139,165 @@ public final class HexGrid {
    */
   private void drawHexagon(List<List<Integer>> originalPoint, RowColPair pair) {
     Polygon polygon = new Polygon();
-    if (pair.getCol() == 0 && pair.getRow() == 0) {
-      return;
-    }
     int fixY = 2 * pair.getRow();
     int fixX = 3 * pair.getCol() + 4 * pair.getRow();
-    int centerX = 0;
-    int centerY = 0;
-    for (int i = 0; i < originalPoint.size(); i++) {
-      List<Integer> side = originalPoint.get(i);
-      int x = side.get(0);
-      int y = side.get(1);
-      x += (pair.getCol() * hexagonLength) + fixX;
-      y -= (pair.getRow() * hexagonLength) + fixY;
+    for (List<Integer> side : originalPoint) {
+      int x = side.get(0) + (pair.getCol() * hexagonLength) + fixX;
+      int y = side.get(1) - ((pair.getRow() * hexagonLength) + fixY);
       polygon.addPoint(x, y);
-      if (i == 0) {
-        centerX = x;
-        centerY = y;
-      }
     }
-    hexagons.get(pair).setPoly(polygon);
-    RepresentativeColor currentColor = hexagons.get(pair).getColor();
-    if (currentColor == RepresentativeColor.BLACK || currentColor == RepresentativeColor.WHITE) {
-      double circleRadius = hexagonLength / Math.sqrt(3);
-      center.put(pair,
-          new Ellipse2D.Double(centerX - circleRadius, centerY - 8,
-            circleRadius * 2, circleRadius * 2));
-    } else if (currentColor == RepresentativeColor.NONE && !model.isGameOver()
-        && model.getColorAt(pair) == RepresentativeColor.NONE) {
-      number.put(pair, new RowColPair(centerX, centerY));
+    int centerX = polygon.xpoints[0];
+    int centerY = polygon.ypoints[0];
+    double circleRadius = hexagonLength / Math.sqrt(3);
+    Ellipse2D circle = new Ellipse2D.Double(centerX - circleRadius, centerY - 8,
+        circleRadius * 2, circleRadius * 2);
+    polygons.put(pair, polygon);
+    center.put(pair, circle);
+    bounds.put(pair, polygon.getBounds2D().createUnion(circle.getBounds2D()));
+  }
+
+  /**
+   * Find the topping point of every empty cell, while the game is not over.
+   *
+   * @return the topping points of the empty cells
+   */
+  private Map<RowColPair, RowColPair> findDrawingNumbers() {
+    Map<RowColPair, RowColPair> numbers = new HashMap<>();
+    if (model.isGameOver()) {
+      return numbers;
+    }
+    for (Map.Entry<RowColPair, CellPiece> entry : hexagons.entrySet()) {
+      if (entry.getValue().getColor() == RepresentativeColor.NONE) {
+        Polygon polygon = polygons.get(entry.getKey());
+        numbers.put(entry.getKey(), new RowColPair(polygon.xpoints[0], polygon.ypoints[0]));
+      }
     }
+    return numbers;
   }
 
   /**
-   * Paint the hexagons and all the circles represent the color inside it.
+   * Paint the part of the board that never changes: the background, and every hexagon as if
+   * it was empty.
    *
    * @param g the <code>Graphics</code> object to protect
    */
-  public void paintComponent(Graphics g) {
-    makeHexagons();
+  public void paintBackground(Graphics g) {
     Graphics2D g2d = (Graphics2D) g.create();
     g2d.setColor(Color.DARK_GRAY);
     g2d.fillRect(-width / 2, -height / 2, width, height);
-    List<RowColPair> list = new ArrayList<>(hexagons.keySet());
-    Collections.sort(list);
-    for (RowColPair pair : list) {
-      Polygon polygon = hexagons.get(pair).getPolygon();
-      fillHexagon(g2d, polygon, hexagons.get(pair).getColor());
+    g2d.setStroke(stroke);
+    for (RowColPair pair : order) {
+      fillHexagon(g2d, polygons.get(pair), RepresentativeColor.NONE);
     }
-    for (RowColPair pair : center.keySet()) {
+    g2d.dispose();
+  }
+
+  /**
+   * Paint what changes over the board painted by {@link #paintBackground}: the selected
+   * hexagon, and all the circles represent the color inside the occupied ones, skipping the
+   * cells outside the clip of the graphics. An occupied hexagon is filled like an empty one,
+   * so only its circle is painted.
+   *
+   * @param g the <code>Graphics</code> object to protect
+   */
+  public void paintComponent(Graphics g) {
+    Graphics2D g2d = (Graphics2D) g.create();
+    Rectangle clip = g2d.getClipBounds();
+    g2d.setStroke(stroke);
+    List<RowColPair> occupied = new ArrayList<>();
+    for (RowColPair pair : order) {
+      if (clip != null && !clip.intersects(bounds.get(pair))) {
+        continue;
+      }
+      RepresentativeColor color = hexagons.get(pair).getColor();
+      if (color == RepresentativeColor.BLACK || color == RepresentativeColor.WHITE) {
+        occupied.add(pair);
+      } else if (color != RepresentativeColor.NONE) {
+        fillHexagon(g2d, polygons.get(pair), color);
+      }
+    }
+    for (RowColPair pair : occupied) {
       g2d.setColor(hexagons.get(pair).getColor().getActualColor());
       g2d.fill(center.get(pair));
     }
+    g2d.dispose();
   }
 
   /**
-   * Check if the given point is inside any of the hexagon.
+   * Get the area a cell is painted in, in logical coordinates.
+   *
+   * @param pair the cell
+   * @return the bounds of the hexagon and of the circle inside it
+   */
+  public Rectangle2D getCellBounds(RowColPair pair) {
+    return (Rectangle2D) bounds.get(pair).clone();
+  }
+
+  /**
+   * Check if the given point is inside any of the hexagon. The point is turned back into the
+   * fractional coordinators of a cell, by inverting the layout of the hexagons, and rounded to
+   * the nearest cell in cube coordinators. The hexagons are not exactly regular, since their
+   * corners are rounded to whole numbers, so only that cell and its neighbours are then checked
+   * against the point, whatever the size of the board.
    *
    * @param p the given point
    * @return the coordinators in rowcol system that represent the position or null means
    *        the given position doesn't in any hexagons
    */
   public RowColPair getPoint(Point2D p) {
-    for (RowColPair pair : hexagons.keySet()) {
-      CellPiece cellPiece = hexagons.get(pair);
-      Polygon part = cellPiece.getPolygon();
-      if (part.contains(p)) {
-        return pair;
+    // the center of a hexagon moves by (hexagonLength + 3, 0) from one column to the next,
+    // and by (4, -(hexagonLength + 2)) from one row to the next.
+    double row = -p.getY() / (hexagonLength + 2);
+    double col = (p.getX() - 4 * row) / (hexagonLength + 3);
+    RowColPair nearest = roundToCell(row, col);
+    if (contains(nearest, p)) {
+      return nearest;
+    }
+    for (HexDirection direction : HexDirection.values()) {
+      RowColPair next = new RowColPair(nearest.getRow() + direction.getRowOffset(),
+          nearest.getCol() + direction.getLeftColOffset());
+      if (contains(next, p)) {
+        return next;
       }
     }
     return null;
   }
 
+  /**
+   * Round fractional coordinators to the nearest cell, as cube coordinators whose three parts
+   * add up to zero: the part that moved the most when rounded is fixed from the two others.
+   *
+   * @param row the fractional row
+   * @param col the fractional column
+   * @return the nearest cell
+   */
+  private static RowColPair roundToCell(double row, double col) {
+    double third = -row - col;
+    long roundRow = Math.round(row);
+    long roundCol = Math.round(col);
+    long roundThird = Math.round(third);
+    double rowDiff = Math.abs(roundRow - row);
+    double colDiff = Math.abs(roundCol - col);
+    if (colDiff > rowDiff && colDiff > Math.abs(roundThird - third)) {
+      roundCol = -roundRow - roundThird;
+    } else if (rowDiff > Math.abs(roundThird - third)) {
+      roundRow = -roundCol - roundThird;
+    }
+    return new RowColPair((int) roundRow, (int) roundCol);
+  }
+
+  /**
+   * Check if the hexagon of a cell contains a point.
+   *
+   * @param pair the cell, which may be outside the board
+   * @param p    the point
+   * @return true if the cell is on the board and its hexagon contains the point
+   */
+  private boolean contains(RowColPair pair, Point2D p) {
+    Polygon polygon = polygons.get(pair);
+    return polygon != null && polygon.contains(p);
+  }
+
   /**
    * set the hexagon in give position to given color.
    *
@@ -230,4 +327,18 @@ public final class HexGrid {
   public Map<RowColPair, RowColPair> getThePositionForDrawingNumber() {
     return new HashMap<>(number);
   }
+
+  /**
+   * Get the center of each hexagon, in logical coordinates.
+   *
+   * @return the centers
+   */
+  public Map<RowColPair, Point2D> getCellCenters() {
+    Map<RowColPair, Point2D> centers = new HashMap<>();
+    for (Map.Entry<RowColPair, Polygon> entry : polygons.entrySet()) {
+      Rectangle2D box = entry.getValue().getBounds2D();
+      centers.put(entry.getKey(), new Point2D.Double(box.getCenterX(), box.getCenterY()));
+    }
+    return centers;
+  }
 }
@@ -2,40 +2,41 @@ package view;
 
 import java.awt.Graphics2D;
 import java.awt.Graphics;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Color;
 import java.util.Map;
 import javax.swing.JPanel;
 
-import model.ModelDirection;
-import model.ReadOnlyReversiModel;
 import model.RepresentativeColor;
 import model.RowColPair;
 
 /**
- * The HintDecorator class represents a decorator for enhancing a graphical panel with hint
- * functionality. Hints can be enabled or disabled for a specific player independently.
+ * The HintPanel class represents a layer painted over a board panel with the hints of a
+ * player: the number of cells each legal move would flip, in green for the best moves when the
+ * moves are ranked. The hints come from a {@link HintService}, which computes them once per
+ * state of the model, so painting them never asks the model anything. Hints can be enabled or
+ * disabled for a specific player independently.
  */
 public class HintPanel extends JPanel {
-  private final ReadOnlyReversiModel model;
+  private final HintService service;
+  private final IPanel panel;
   private boolean hint;
   private RepresentativeColor color;
-  private Map<RowColPair, RowColPair> location;
-  private final HexBoardPanel panel;
 
   /**
-   * Constructs a HintDecorator for the given Reversi model.
+   * Constructs a HintPanel painting the hints of the given service over the given board.
    *
-   * @param model The ReadOnlyReversiModel to associate with the decorator.
+   * @param service The service computing the hints.
+   * @param panel   The board panel the hints are painted over.
    */
-  public HintPanel(ReadOnlyReversiModel model, HexBoardPanel panel) {
+  public HintPanel(HintService service, IPanel panel) {
     hint = false;
-    this.model = model;
+    this.service = service;
     this.panel = panel;
     setOpaque(false);
-    setPreferredSize(panel.getPreferredSize());
+    setPreferredSize(panel.getPanel().getPreferredSize());
   }
 
   /**
@@ -58,51 +59,37 @@ public class HintPanel extends JPanel {
     repaint();
   }
 
+  /**
+   * Check whether the hints are turned on for the player of this panel.
+   *
+   * @return true if the hints are shown
+   */
+  public boolean isShowingHints() {
+    return hint && color != null;
+  }
+
   @Override
   protected void paintComponent(Graphics g) {
     super.paintComponent(g);
-    Graphics2D g2d = (Graphics2D) g.create();
-    g2d.transform(panel.transformLogicalToPhysical());
-    location = panel.getDrawingPoints();
-    paint(g2d, panel.getSelectedPosition());
-  }
-
-  /**
-   * Paint the number on the specific hexagon represents the number of cells that the current
-   * player placed here can be flipped.
-   */
-  public void paint(Graphics2D g2d, RowColPair pair) {
-    if (pair == null) {
+    HintService.Hints hints = service.getHints();
+    if (!hint || color == null || hints.getPlayer() != color) {
       return;
     }
-    if (!model.isGameOver() && color == model.getTurn() && hint) {
-      Font font = new Font("Arial", Font.PLAIN, 4);
-      g2d.setFont(font);
-      g2d.scale(1, -1);
-      g2d.setColor(Color.gray);
-      Map<ModelDirection, Integer> values = model.checkMove(pair, model.getTurn());
-      int value = 0;
-      for (int i : values.values()) {
-        value += i;
+    Graphics2D g2d = (Graphics2D) g.create();
+    g2d.setFont(new Font("Arial", Font.BOLD, 18));
+    FontMetrics metrics = g2d.getFontMetrics();
+    Map<RowColPair, Point2D> centers = panel.getCellCenters();
+    for (Map.Entry<RowColPair, Integer> entry : hints.getFlips().entrySet()) {
+      Point2D center = centers.get(entry.getKey());
+      if (center == null) {
+        continue;
       }
-      Point2D p2d = new Point2D.Double(location.get(pair).getRow(),
-          location.get(pair).getCol() - 6);
-      g2d.drawString(String.valueOf(value),
-          (int) inverse().transform(p2d, null).getX(),
-          (int) inverse().transform(p2d, null).getY());
+      Integer rank = hints.getRanks().get(entry.getKey());
+      g2d.setColor(rank != null && rank == 1 ? new Color(0, 128, 0) : Color.gray);
+      String text = String.valueOf(entry.getValue());
+      g2d.drawString(text, (int) (center.getX() - metrics.stringWidth(text) / 2.0),
+          (int) (center.getY() + metrics.getAscent() / 2.0));
     }
-  }
-
-  /**
-   * Flipping the graphics vertically by applying a scaling transformation with
-   * a scaling factor of 1 along the x-axis (no change) and a scaling factor of -1
-   * along the y-axis.
-   *
-   * @return the transformation after flipping
-   */
-  private AffineTransform inverse() {
-    AffineTransform ret = new AffineTransform();
-    ret.scale(1, -1);
-    return ret;
+    g2d.dispose();
   }
 }
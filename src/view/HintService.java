@@ -0,0 +1,183 @@
+package view;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+import strategy.AnalysisStrategy;
+import strategy.Variation;
+
+/**
+ * Computes the hints of a player once per position, in the background. Each time the service is
+ * updated with a new model state, if it is the turn of the player, the service takes the cells
+ * each legal move would flip from the snapshot of the state, and optionally copies the model
+ * and ranks the moves with a shallow search on a background thread. Until the new hints are
+ * ready, the service has none, so stale hints are never shown, and painting the hints only
+ * reads the finished result: it never asks the model anything. Views only update the service
+ * while their hints are shown, and clear it otherwise, so that no search competes with the
+ * players while nobody looks at the hints.
+ */
+public final class HintService {
+  private final AnalysisStrategy strategy;
+  private final ExecutorService executor;
+  private volatile Hints hints;
+  private Future<?> pending;
+  private long version;
+
+  /**
+   * Construct a service that only counts the flipped cells.
+   */
+  public HintService() {
+    this(null);
+  }
+
+  /**
+   * Construct a service that also ranks the moves with the given strategy.
+   *
+   * @param strategy the strategy ranking the moves, or null to only count the flipped cells
+   */
+  public HintService(AnalysisStrategy strategy) {
+    this.strategy = strategy;
+    this.executor = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "hints");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.hints = Hints.NONE;
+  }
+
+  /**
+   * Start computing the hints of the given player for the new state of the model. The hints of
+   * the previous state are dropped at once, and their computation is stopped if it is still
+   * running. The flipped cells are taken from the snapshot of the state, so only the ranking
+   * is computed in the background.
+   *
+   * @param model    the model, copied before this method returns if the moves are ranked
+   * @param snapshot the snapshot of the current state of the model
+   * @param player   the player to give hints to, who only gets some on their turn
+   * @param onReady  called on the background thread once the new hints are ready
+   */
+  public synchronized void update(ReadOnlyReversiModel model, RenderSnapshot snapshot,
+                                  RepresentativeColor player, Runnable onReady) {
+    clear();
+    long current = version;
+    if (snapshot.isGameOver() || snapshot.getTurn() != player) {
+      return;
+    }
+    ReadOnlyReversiModel copy = strategy == null ? null : model.getDeepCopy(player);
+    pending = executor.submit(() -> {
+      Hints computed = compute(copy, player, snapshot.getMoves());
+      synchronized (this) {
+        if (version != current) {
+          return;
+        }
+        hints = computed;
+      }
+      onReady.run();
+    });
+  }
+
+  /**
+   * Drop the hints, and stop their computation if it is still running, such as when nobody
+   * looks at them: no hints are computed until the next update.
+   */
+  public synchronized void clear() {
+    version++;
+    hints = Hints.NONE;
+    if (pending != null) {
+      pending.cancel(true);
+      pending = null;
+    }
+  }
+
+  /**
+   * Get the hints of the current state of the model.
+   *
+   * @return the hints, or no hints if they are not ready yet
+   */
+  public Hints getHints() {
+    return hints;
+  }
+
+  /**
+   * Stop the background thread of this service.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Rank the moves of the player on a copy of the model.
+   */
+  private Hints compute(ReadOnlyReversiModel copy, RepresentativeColor player,
+                        Map<RowColPair, Integer> flips) {
+    Map<RowColPair, Integer> ranks = new HashMap<>();
+    if (strategy != null && !flips.isEmpty()) {
+      List<Variation> variations = strategy.analyze(copy, player, flips.size());
+      int rank = 0;
+      double previous = Double.NaN;
+      for (int i = 0; i < variations.size(); i++) {
+        double value = variations.get(i).getMove().getValue();
+        if (value != previous) {
+          rank = i + 1;
+          previous = value;
+        }
+        ranks.put(variations.get(i).getMove().getPosition(), rank);
+      }
+    }
+    return new Hints(player, flips, ranks);
+  }
+
+  /**
+   * The hints of one player for one state of the model.
+   */
+  public static final class Hints {
+    private static final Hints NONE = new Hints(null, Collections.emptyMap(),
+        Collections.emptyMap());
+
+    private final RepresentativeColor player;
+    private final Map<RowColPair, Integer> flips;
+    private final Map<RowColPair, Integer> ranks;
+
+    private Hints(RepresentativeColor player, Map<RowColPair, Integer> flips,
+                  Map<RowColPair, Integer> ranks) {
+      this.player = player;
+      this.flips = Collections.unmodifiableMap(flips);
+      this.ranks = Collections.unmodifiableMap(ranks);
+    }
+
+    /**
+     * Get the player these hints are for.
+     *
+     * @return the player, or null if there are no hints
+     */
+    public RepresentativeColor getPlayer() {
+      return player;
+    }
+
+    /**
+     * Get the number of cells each legal move would flip.
+     *
+     * @return the legal moves and their number of flipped cells
+     */
+    public Map<RowColPair, Integer> getFlips() {
+      return flips;
+    }
+
+    /**
+     * Get the rank of each legal move according to the search, 1 for the best moves. Moves
+     * with the same score share the same rank.
+     *
+     * @return the ranks, or an empty map if the moves were not searched
+     */
+    public Map<RowColPair, Integer> getRanks() {
+      return ranks;
+    }
+  }
+}
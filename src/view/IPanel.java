@@ -1,7 +1,8 @@
 package view;
 
+import java.awt.geom.Point2D;
+import java.util.Map;
 import javax.swing.JPanel;
-import model.ReadOnlyReversiModel;
 import model.RowColPair;
 
 /**
@@ -20,9 +21,9 @@ public interface IPanel {
   /**
    * Updates the current model game state to the view by resetting the hexagonal grid.
    *
-   * @param model The current model state to update the view.
+   * @param snapshot The snapshot of the current model state to update the view.
    */
-  void resetGrid(ReadOnlyReversiModel model);
+  void resetGrid(RenderSnapshot snapshot);
 
   /**
    * Resets the selected position to null and resets its color.
@@ -36,6 +37,14 @@ public interface IPanel {
    */
   RowColPair getSelectedPosition();
 
+  /**
+   * Gets the center of each cell of the board, in the coordinates of the panel, for the layers
+   * painted over the board. The shapes of all the cells are made with the panel.
+   *
+   * @return The centers of all the cells.
+   */
+  Map<RowColPair, Point2D> getCellCenters();
+
   /**
    * Returns the JPanel associated with this view.
    *
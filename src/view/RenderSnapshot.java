@@ -0,0 +1,185 @@
+package view;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import model.CellPiece;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * Everything the views show about one version of a model: the colors of the cells, the
+ * scores, the turn, whether the game is over and who won, and the legal moves of the player
+ * to move with the number of cells each of them flips. A snapshot is computed once per version
+ * of a model and shared by all the views of that model, however many there are, so that
+ * showing a change does not ask the model the same questions once per view. Snapshots never
+ * change once made.
+ */
+public final class RenderSnapshot {
+  private static final Map<ReadOnlyReversiModel, RenderSnapshot> LATEST = new WeakHashMap<>();
+
+  private final long version;
+  private final Map<RowColPair, RepresentativeColor> colors;
+  private final int blackScore;
+  private final int whiteScore;
+  private final boolean gameOver;
+  private final RepresentativeColor turn;
+  private final RepresentativeColor winner;
+  private final Map<RowColPair, Integer> moves;
+
+  /**
+   * Compute the snapshot of the current version of a model.
+   *
+   * @param model the model, whose game has started
+   */
+  private RenderSnapshot(ReadOnlyReversiModel model) {
+    version = model.getVersion();
+    Map<RowColPair, RepresentativeColor> cells = new HashMap<>();
+    int black = 0;
+    int white = 0;
+    for (Map.Entry<RowColPair, CellPiece> entry : model.getBoard().entrySet()) {
+      RepresentativeColor color = entry.getValue().getColor();
+      cells.put(entry.getKey(), color);
+      if (color == RepresentativeColor.BLACK) {
+        black++;
+      } else if (color == RepresentativeColor.WHITE) {
+        white++;
+      }
+    }
+    colors = Collections.unmodifiableMap(cells);
+    blackScore = black;
+    whiteScore = white;
+    gameOver = model.isGameOver();
+    Map<RowColPair, Integer> flips = new HashMap<>();
+    if (gameOver) {
+      turn = null;
+      winner = model.getWinner();
+    } else {
+      turn = model.getTurn();
+      winner = null;
+      for (Map.Entry<RowColPair, RepresentativeColor> entry : cells.entrySet()) {
+        if (entry.getValue() != RepresentativeColor.NONE) {
+          continue;
+        }
+        int flipped = 0;
+        for (int count : model.checkMove(entry.getKey(), turn).values()) {
+          flipped += count;
+        }
+        if (flipped > 0) {
+          flips.put(entry.getKey(), flipped);
+        }
+      }
+    }
+    moves = Collections.unmodifiableMap(flips);
+  }
+
+  /**
+   * Get the snapshot of the current version of a model, computing it only if no view asked
+   * for this version yet.
+   *
+   * @param model the model, whose game has started
+   * @return the snapshot
+   */
+  public static RenderSnapshot of(ReadOnlyReversiModel model) {
+    synchronized (LATEST) {
+      RenderSnapshot snapshot = LATEST.get(model);
+      if (snapshot == null || snapshot.version != model.getVersion()) {
+        snapshot = new RenderSnapshot(model);
+        LATEST.put(model, snapshot);
+      }
+      return snapshot;
+    }
+  }
+
+  /**
+   * Get the version of the model this snapshot was taken of.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Get the color of every cell of the board.
+   *
+   * @return the colors of the cells
+   */
+  public Map<RowColPair, RepresentativeColor> getColors() {
+    return colors;
+  }
+
+  /**
+   * Get a new board with the colors of this snapshot, which the caller may change.
+   *
+   * @return the cells of the board
+   */
+  public Map<RowColPair, CellPiece> copyBoard() {
+    Map<RowColPair, CellPiece> board = new HashMap<>();
+    for (Map.Entry<RowColPair, RepresentativeColor> entry : colors.entrySet()) {
+      board.put(entry.getKey(), new CellPiece(entry.getValue()));
+    }
+    return board;
+  }
+
+  /**
+   * Get the score of a player.
+   *
+   * @param color the color of the player
+   * @return the number of cells of that color
+   */
+  public int getScore(RepresentativeColor color) {
+    if (color == RepresentativeColor.BLACK) {
+      return blackScore;
+    }
+    return color == RepresentativeColor.WHITE ? whiteScore : 0;
+  }
+
+  /**
+   * Check if the game is over.
+   *
+   * @return true if the game is over
+   */
+  public boolean isGameOver() {
+    return gameOver;
+  }
+
+  /**
+   * Get the player to move.
+   *
+   * @return the color of the player to move, or null if the game is over
+   */
+  public RepresentativeColor getTurn() {
+    return turn;
+  }
+
+  /**
+   * Get the winner of a finished game.
+   *
+   * @return the winner, or null if the game is a tie or is not over
+   */
+  public RepresentativeColor getWinner() {
+    return winner;
+  }
+
+  /**
+   * Check if the player to move has no legal move and can only pass.
+   *
+   * @return true if the game is not over and the player to move has to pass
+   */
+  public boolean hasToPass() {
+    return !gameOver && moves.isEmpty();
+  }
+
+  /**
+   * Get the legal moves of the player to move.
+   *
+   * @return the legal moves and the number of cells each of them flips, empty if the game
+   *         is over
+   */
+  public Map<RowColPair, Integer> getMoves() {
+    return moves;
+  }
+}
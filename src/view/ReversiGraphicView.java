@@ -13,23 +13,35 @@ import javax.swing.JPanel;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import java.awt.BorderLayout;
 import model.RepresentativeColor;
+import strategy.PvsStrategy;
 
 /**
  * Represents a graphic view for the reversi game, it will contains a board to show the
  * current states for the model and a panel that shows the current score for both black
  * and white players, and the hasToPassWarning. It also has a hint button used to determin
- * whether the player wants to get some hints.
+ * whether the player wants to get some hints, which are computed in the background by a
+ * {@link HintService} each time the model changes while they are shown, and painted over the
+ * board. A change of the model only repaints the cells that changed and the status line.
  */
 public class ReversiGraphicView extends JFrame implements IView {
+  /**
+   * The depth of the search ranking the moves in the hints, shallow enough to be ready at once.
+   */
+  private static final int HINT_DEPTH = 2;
+
   private final IPanel panel;
-  private final HintDecorator hintDecorator;
+  private final HintService hintService;
+  private final HintPanel hintPanel;
   private final JLabel whiteScore;
   private final JLabel blackScore;
   private final JLabel turn;
   private final JLabel hasToPassWarning;
   private final JButton hint;
+  private final JPanel northPan;
+  private ReadOnlyReversiModel model;
 
   /**
    * construct the ReversiView with the given parameter. Register the current
@@ -42,26 +54,24 @@ public class ReversiGraphicView extends JFrame implements IView {
    */
   public ReversiGraphicView(ReadOnlyReversiModel model) {
     if (model.checkType() == ReadOnlyReversiModel.ModelType.HEX) {
-      this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-      this.setLayout(new BorderLayout());
       panel = new HexBoardPanel(model);
-      this.setSize(panel.getPanel().getPreferredSize());
-      JLayeredPane pane = new JLayeredPane();
-      pane.setPreferredSize(new Dimension(getWidth(), getHeight()));
-      panel.getPanel().setBounds(new Rectangle(getWidth(), getHeight()));
-      panel.getPanel().setOpaque(true);
-      this.hintDecorator = new HintDecorator(model, (HexBoardPanel) panel);
-      hintDecorator.setBounds(new Rectangle(getWidth(), getHeight()));
-      pane.add(panel.getPanel(), JLayeredPane.DEFAULT_LAYER);
-      pane.add(hintDecorator, JLayeredPane.PALETTE_LAYER);
-      this.add(pane);
     } else if (model.checkType() == ReadOnlyReversiModel.ModelType.SQUARE) {
-      this.panel = new SquareBoardPanel(model);
-      this.add(panel.getPanel());
-      hintDecorator = null;
+      panel = new SquareBoardPanel(model);
     } else {
       throw new IllegalArgumentException("Mock model can not be visualized");
     }
+    this.setLayout(new BorderLayout());
+    this.setSize(panel.getPanel().getPreferredSize());
+    JLayeredPane pane = new JLayeredPane();
+    pane.setPreferredSize(new Dimension(getWidth(), getHeight()));
+    panel.getPanel().setBounds(new Rectangle(getWidth(), getHeight()));
+    panel.getPanel().setOpaque(true);
+    this.hintService = new HintService(new PvsStrategy(HINT_DEPTH));
+    this.hintPanel = new HintPanel(hintService, panel);
+    hintPanel.setBounds(new Rectangle(getWidth(), getHeight()));
+    pane.add(panel.getPanel(), JLayeredPane.DEFAULT_LAYER);
+    pane.add(hintPanel, JLayeredPane.PALETTE_LAYER);
+    this.add(pane);
     setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     hint = new JButton("Hint");
     hint.setFocusable(false);
@@ -69,10 +79,9 @@ public class ReversiGraphicView extends JFrame implements IView {
     blackScore = new JLabel("Black: " + model.getScore(RepresentativeColor.BLACK));
     turn = new JLabel("");
     hasToPassWarning = new JLabel("");
-    JPanel northPan = new JPanel();
-    if (model.checkType() == ReadOnlyReversiModel.ModelType.HEX) {
-      northPan.add(hint);
-    }
+    this.model = model;
+    northPan = new JPanel();
+    northPan.add(hint);
     northPan.add(whiteScore);
     northPan.add(blackScore);
     northPan.add(turn);
@@ -83,9 +92,7 @@ public class ReversiGraphicView extends JFrame implements IView {
 
   @Override
   public void setColor(RepresentativeColor color) {
-    if (hintDecorator != null) {
-      hintDecorator.setColor(color);
-    }
+    hintPanel.setColor(color);
   }
 
   /**
@@ -128,13 +135,14 @@ public class ReversiGraphicView extends JFrame implements IView {
   /**
    * update the current game state to the drawing board.
    *
-   * @param model the current model
+   * @param snapshot the snapshot of the current model
    */
-  private void resetPanel(ReadOnlyReversiModel model) {
-    panel.resetGrid(model);
-    resetScore(model.getScore(RepresentativeColor.BLACK),
-        model.getScore(RepresentativeColor.WHITE));
-    this.repaint();
+  private void resetPanel(RenderSnapshot snapshot) {
+    panel.resetGrid(snapshot);
+    resetScore(snapshot.getScore(RepresentativeColor.BLACK),
+        snapshot.getScore(RepresentativeColor.WHITE));
+    // the board repaints the cells that changed, only the status line is repainted here.
+    northPan.repaint();
   }
 
   /**
@@ -212,22 +220,36 @@ public class ReversiGraphicView extends JFrame implements IView {
     }
   }
 
+  /**
+   * Show the current game state. What is shown is read from the snapshot of the current
+   * version of the model, which is shared with the other views of the model.
+   *
+   * @param model  the current model
+   * @param player the player of this view
+   */
   @Override
   public void update(ReadOnlyReversiModel model, RepresentativeColor player) {
-    resetPanel(model);
+    this.model = model;
+    RenderSnapshot snapshot = RenderSnapshot.of(model);
+    if (hintPanel.isShowingHints()) {
+      updateHints(snapshot, player);
+      // the hints of the previous state are erased from every cell, not only the changed ones.
+      hintPanel.repaint();
+    }
+    resetPanel(snapshot);
     resetSelectedPosition();
-    if (model.isGameOver()) {
-      RepresentativeColor winner = model.getWinner();
+    if (snapshot.isGameOver()) {
+      RepresentativeColor winner = snapshot.getWinner();
       boolean win = winner == player;
-      setGameOverState(model.getWinner(), win);
+      setGameOverState(winner, win);
       showMessage("Game is over Winner is " + winner);
       return;
     }
     resetSelectedPosition();
     setColor(player);
-    boolean yourTurn = model.getTurn() == player;
-    toggleTurn(model.getTurn(), yourTurn);
-    setHasToPassWarning(model.hasToPass(), yourTurn);
+    boolean yourTurn = snapshot.getTurn() == player;
+    toggleTurn(snapshot.getTurn(), yourTurn);
+    setHasToPassWarning(snapshot.hasToPass(), yourTurn);
   }
 
   /**
@@ -249,8 +271,23 @@ public class ReversiGraphicView extends JFrame implements IView {
 
   @Override
   public void showHints(RepresentativeColor color) {
-    hintDecorator.setFunctionality(color);
-    repaint();
+    hintPanel.setFunctionality(color);
+    if (hintPanel.isShowingHints()) {
+      updateHints(RenderSnapshot.of(model), color);
+    } else {
+      hintService.clear();
+    }
+  }
+
+  /**
+   * Start computing the hints of the player for the given state, which are painted once ready.
+   *
+   * @param snapshot the snapshot of the current state of the model
+   * @param player   the player of this view
+   */
+  private void updateHints(RenderSnapshot snapshot, RepresentativeColor player) {
+    hintService.update(model, snapshot, player,
+        () -> SwingUtilities.invokeLater(hintPanel::repaint));
   }
 
   @Override
@@ -1,21 +1,21 @@
 package view;
 
 import java.io.IOException;
-import java.util.Map;
-import model.CellPiece;
 import model.ReadOnlyReversiModel;
 import model.RepresentativeColor;
-import model.RowColPair;
 
 /**
  * class used to display the model in textual. using _ for empty cells,
- * X for black player, and O for white player.
+ * X for black player, and O for white player. The board is written by a
+ * {@link TextBoardRenderer}, straight to the appendable.
  */
 public class ReversiTextualView implements IView {
   private final ReadOnlyReversiModel model;
 
   private final Appendable out;
 
+  private final TextBoardRenderer renderer;
+
   /**
    * construct the ReversiTextualView with given model and appendable.
    *
@@ -28,6 +28,7 @@ public class ReversiTextualView implements IView {
     }
     this.model = model;
     this.out = out;
+    this.renderer = TextBoardRenderer.hex(model.getSize());
   }
 
   /**
@@ -41,6 +42,7 @@ public class ReversiTextualView implements IView {
     }
     this.model = model;
     this.out = null;
+    this.renderer = TextBoardRenderer.hex(model.getSize());
   }
 
   /**
@@ -52,71 +54,7 @@ public class ReversiTextualView implements IView {
    */
   @Override
   public String toString() {
-    Map<RowColPair, CellPiece> board = model.getBoard();
-    StringBuilder builder = new StringBuilder();
-    int size = model.getSize();
-    int row = 2 * size - 1;
-    int half = row - size;
-    int upHalfStarter = 0;
-    for (int i = half; i > 0; i--) {
-      int blankLine = Math.abs(i);
-      builder.append(" ".repeat(blankLine));
-      for (int j = upHalfStarter; j <= half; j++) {
-        draw(board, builder, -i, j);
-      }
-      builder.append("\n");
-      upHalfStarter--;
-    }
-    for (int i = -half; i <= half; i++) {
-      RepresentativeColor color = board.get(new RowColPair(0, i)).getColor();
-      drawGraph(builder, color);
-    }
-    builder.append("\n");
-    int downHalfStarter = half;
-    for (int i = 1; i <= half; i++) {
-      int blankLine = Math.abs(i);
-      builder.append(" ".repeat(blankLine));
-      for (int j = -half; j < downHalfStarter; j++) {
-        draw(board, builder, i, j);
-      }
-      if (i != half) {
-        builder.append("\n");
-      }
-      downHalfStarter--;
-    }
-    return builder.toString();
-  }
-
-  /**
-   * Drawing _ for empty cells, X for black player, and O for white player.
-   *
-   * @param builder the current string builder
-   * @param color the color of the player
-   */
-  private void drawGraph(StringBuilder builder, RepresentativeColor color) {
-    if (color == RepresentativeColor.NONE) {
-      builder.append("_");
-      builder.append(" ");
-    } else if (color == RepresentativeColor.BLACK) {
-      builder.append("X");
-      builder.append(" ");
-    } else {
-      builder.append("O");
-      builder.append(" ");
-    }
-  }
-
-  /**
-   * Draw the graph in the color in the given position in given board.
-   *
-   * @param board the current board
-   * @param builder the current builder
-   * @param i the row coordinator
-   * @param j the column coordinator
-   */
-  private void draw(Map<RowColPair, CellPiece> board, StringBuilder builder, int i, int j) {
-    RepresentativeColor color = board.get(new RowColPair(i, j)).getColor();
-    drawGraph(builder, color);
+    return renderer.render(model);
   }
 
   /**
@@ -130,7 +68,7 @@ public class ReversiTextualView implements IView {
       throw new IllegalArgumentException();
     }
     try {
-      out.append(toString());
+      renderer.render(model, out);
     } catch (IOException e) {
       throw new IllegalArgumentException();
     }
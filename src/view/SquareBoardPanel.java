@@ -8,6 +8,7 @@ import java.awt.FlowLayout;
 import java.awt.event.MouseEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
+import java.util.Map;
 import java.util.Objects;
 import javax.swing.JPanel;
 import javax.swing.event.MouseInputAdapter;
@@ -27,6 +28,7 @@ public class SquareBoardPanel extends JPanel implements IPanel {
    */
   private final ReadOnlyReversiModel model;
   private final SquareGrid squareGrid;
+  private final BoardBackground background;
   private RowColPair selectedPosition;
   private boolean mouseLock = false;
 
@@ -48,6 +50,7 @@ public class SquareBoardPanel extends JPanel implements IPanel {
       boardSize -= 6;
     }
     squareGrid = new SquareGrid(model, preferWidth, preferHeight, model.getSize());
+    background = new BoardBackground(squareGrid::paintBackground);
   }
 
   /**
@@ -85,10 +88,9 @@ public class SquareBoardPanel extends JPanel implements IPanel {
   }
 
   /**
-   * first, get the coordinators for the middle point(0,0), use its coordinators to get the point
-   * surround it, then if the hexagon was unoccupied(the color is none or cyan), we will fill the
-   * hexagon, otherwise draw a circle in that hexagon based on the coordinators for its topping
-   * point.
+   * first, copy the empty board from the image of the background, then if the square was
+   * selected(the color is cyan), we will fill the square, otherwise if it is occupied draw a
+   * circle in that square.
    *
    * @param g the <code>Graphics</code> object to protect
    */
@@ -97,17 +99,20 @@ public class SquareBoardPanel extends JPanel implements IPanel {
     super.paintComponent(g);
     this.setLayout(new FlowLayout());
     Graphics2D g2d = (Graphics2D) g.create();
-    g2d.transform(transformLogicalToPhysical());
+    AffineTransform transform = transformLogicalToPhysical();
+    background.paint(g2d, this, transform);
+    g2d.transform(transform);
     squareGrid.paintComponent(g2d);
+    g2d.dispose();
   }
 
   /**
    * update the current model game state to the view.
    *
-   * @param model the current model state
+   * @param snapshot the snapshot of the current model state
    */
-  public void resetGrid(ReadOnlyReversiModel model) {
-    squareGrid.update(model.getBoard());
+  public void resetGrid(RenderSnapshot snapshot) {
+    squareGrid.update(snapshot.copyBoard());
     repaint();
   }
 
@@ -159,6 +164,16 @@ public class SquareBoardPanel extends JPanel implements IPanel {
     return selectedPosition;
   }
 
+  @Override
+  public Map<RowColPair, Point2D> getCellCenters() {
+    Map<RowColPair, Point2D> centers = squareGrid.getCellCenters();
+    AffineTransform transform = transformLogicalToPhysical();
+    for (Map.Entry<RowColPair, Point2D> entry : centers.entrySet()) {
+      entry.setValue(transform.transform(entry.getValue(), null));
+    }
+    return centers;
+  }
+
   @Override
   public JPanel getPanel() {
     return this;
@@ -7,6 +7,7 @@ import java.awt.Color;
 import java.awt.BasicStroke;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -19,12 +20,19 @@ import model.RepresentativeColor;
 import model.RowColPair;
 
 /**
- * a HexGrid represents the assemble of hexagons.
+ * a SquareGrid represents the assemble of squares. The squares and the circles inside them are
+ * computed once, in logical coordinates, when the grid is made, since the size of the board
+ * never changes and the zoom is only a transformation of the graphics. The empty board is
+ * painted on its own, so that the panel can keep it as an image, and only the selected square
+ * and the circles are painted over it each time.
  */
 public final class SquareGrid {
   private final int size;
   private Map<RowColPair, CellPiece> hexagons;
+  private final Map<RowColPair, Polygon> polygons;
   private final Map<RowColPair, Ellipse2D> center;
+  private final List<RowColPair> order;
+  private final BasicStroke stroke;
   private Map<RowColPair, RowColPair> number;
   private final int width;
   private final int height;
@@ -43,9 +51,22 @@ public final class SquareGrid {
     width = preferWidth;
     height = preferHeight;
     hexagons = model.getBoard();
+    polygons = new HashMap<>();
     center = new HashMap<>();
     this.size = size;
-    number = new HashMap<>();
+    float strokeWidth = 0.1f;
+    int currentSize = size;
+    while (currentSize > 8) {
+      strokeWidth += 0.2;
+      currentSize -= 8;
+    }
+    stroke = new BasicStroke(strokeWidth);
+    for (RowColPair pair : hexagons.keySet()) {
+      drawSquare(pair);
+    }
+    order = new ArrayList<>(hexagons.keySet());
+    Collections.sort(order);
+    number = findDrawingNumbers();
   }
 
   /**
@@ -55,7 +76,7 @@ public final class SquareGrid {
    */
   public void update(Map<RowColPair, CellPiece> board) {
     hexagons = new HashMap<>(board);
-    number = new HashMap<>();
+    number = findDrawingNumbers();
   }
 
 
@@ -68,21 +89,12 @@ public final class SquareGrid {
    */
   private void fillHexagon(Graphics2D g2d, Polygon polygon, RepresentativeColor color) {
     g2d.setColor(Color.BLACK);
-    float strokeWidth = 0.1f;
-    int currentSize = size;
-    while (currentSize > 8) {
-      strokeWidth += 0.2;
-      currentSize -= 8;
-    }
-    g2d.setStroke(new BasicStroke(strokeWidth));
-    if (polygon != null) {
-      g2d.draw(polygon);
-      g2d.setColor(color.getActualColor());
-      if (color == RepresentativeColor.BLACK || color == RepresentativeColor.WHITE) {
-        g2d.setColor(RepresentativeColor.NONE.getActualColor());
-      }
-      g2d.fillPolygon(polygon);
+    g2d.draw(polygon);
+    g2d.setColor(color.getActualColor());
+    if (color == RepresentativeColor.BLACK || color == RepresentativeColor.WHITE) {
+      g2d.setColor(RepresentativeColor.NONE.getActualColor());
     }
+    g2d.fillPolygon(polygon);
   }
 
   /**
@@ -98,98 +110,100 @@ public final class SquareGrid {
     return new Polygon(pointX, pointY, 4);
   }
 
-  /**
-   * first, get the coordinators for the middle point(0,0), use its coordinators to get the point
-   * surround it, then if the hexagon was unoccupied(the color is none or cyan), we will fill the
-   * hexagon, otherwise draw a circle in that hexagon based on the coordinators for its topping
-   * point.
-   */
-  private void makeSquare() {
-    Polygon polygon = new Polygon();
-    RowColPair startPair = new RowColPair(0, 0);
-    polygon = createSquare(-2 * size, -2 * size + size);
-    RepresentativeColor currentColor = hexagons.get(startPair).getColor();
-    hexagons.get(startPair).setPoly(polygon);
-    int centerX = -2 * size;
-    int centerY = -2 * size;
-    if (currentColor == RepresentativeColor.BLACK || currentColor == RepresentativeColor.WHITE) {
-      double circleRadius = hexagonLength / Math.sqrt(2);
-      center.put(new RowColPair(0, 0),
-          new Ellipse2D.Double(centerY - hexagonLength,
-          centerX - circleRadius + hexagonLength,
-          circleRadius, circleRadius));
-    } else if (currentColor == RepresentativeColor.NONE && !model.isGameOver()) {
-      number.put(new RowColPair(0, 0), new RowColPair(centerX, centerY));
-    }
-    for (RowColPair pair : hexagons.keySet()) {
-      drawSquare(pair);
-    }
-  }
-
   /**
    * use the coordinators for the middle point to find the coordinators for other
-   * point.
+   * point, and make the square of the given cell and the circle drawn inside it when the cell
+   * is occupied.
    *
    * @param pair          the current point
    */
   private void drawSquare(RowColPair pair) {
-    Polygon polygon = new Polygon();
     int fixY = pair.getRow() * hexagonLength - pair.getRow();
     int fixX = pair.getCol() * hexagonLength - pair.getCol();
-    polygon = createSquare(pair.getCol() + fixX - size, pair.getRow() + fixY - 2 *  size + size);
-    hexagons.get(pair).setPoly(polygon);
-    RepresentativeColor currentColor = hexagons.get(pair).getColor();
-    if (currentColor == RepresentativeColor.BLACK || currentColor == RepresentativeColor.WHITE) {
-      double circleRadius = hexagonLength / Math.sqrt(2);
-      center.put(pair,
-          new Ellipse2D.Double(pair.getCol() + fixX - size + 1,
-          pair.getRow() + fixY - size + 1,
-          circleRadius, circleRadius));
-    } else if (currentColor == RepresentativeColor.NONE && !model.isGameOver()
-        && model.getColorAt(pair) == RepresentativeColor.NONE) {
-      number.put(pair, new RowColPair(pair.getRow() + fixY - 2 *  size,
-          pair.getCol() + fixX - size));
+    polygons.put(pair, createSquare(pair.getCol() + fixX - size,
+        pair.getRow() + fixY - 2 *  size + size));
+    double circleRadius = hexagonLength / Math.sqrt(2);
+    center.put(pair, new Ellipse2D.Double(pair.getCol() + fixX - size + 1,
+        pair.getRow() + fixY - size + 1, circleRadius, circleRadius));
+  }
+
+  /**
+   * Find the position of every empty cell, while the game is not over.
+   *
+   * @return the positions of the empty cells
+   */
+  private Map<RowColPair, RowColPair> findDrawingNumbers() {
+    Map<RowColPair, RowColPair> numbers = new HashMap<>();
+    if (model.isGameOver()) {
+      return numbers;
     }
+    for (Map.Entry<RowColPair, CellPiece> entry : hexagons.entrySet()) {
+      if (entry.getValue().getColor() == RepresentativeColor.NONE) {
+        RowColPair pair = entry.getKey();
+        numbers.put(pair, new RowColPair(pair.getRow() * hexagonLength - 2 * size,
+            pair.getCol() * hexagonLength - size));
+      }
+    }
+    return numbers;
   }
 
   /**
-   * Paint the hexagons and all the circles represent the color inside it.
+   * Paint the part of the board that never changes: the background, and every square as if
+   * it was empty.
    *
    * @param g the <code>Graphics</code> object to protect
    */
-  public void paintComponent(Graphics g) {
-    makeSquare();
+  public void paintBackground(Graphics g) {
     Graphics2D g2d = (Graphics2D) g.create();
     g2d.setColor(Color.DARK_GRAY);
     g2d.fillRect(-width / 2, -height / 2, width, height);
-    List<RowColPair> list = new ArrayList<>(hexagons.keySet());
-    Collections.sort(list);
-    for (RowColPair pair : list) {
-      Polygon polygon = hexagons.get(pair).getPolygon();
-      fillHexagon(g2d, polygon, hexagons.get(pair).getColor());
+    g2d.setStroke(stroke);
+    for (RowColPair pair : order) {
+      fillHexagon(g2d, polygons.get(pair), RepresentativeColor.NONE);
+    }
+    g2d.dispose();
+  }
+
+  /**
+   * Paint what changes over the board painted by {@link #paintBackground}: the selected
+   * square, and all the circles represent the color inside the occupied ones. An occupied
+   * square is filled like an empty one, so only its circle is painted.
+   *
+   * @param g the <code>Graphics</code> object to protect
+   */
+  public void paintComponent(Graphics g) {
+    Graphics2D g2d = (Graphics2D) g.create();
+    g2d.setStroke(stroke);
+    List<RowColPair> occupied = new ArrayList<>();
+    for (RowColPair pair : order) {
+      RepresentativeColor color = hexagons.get(pair).getColor();
+      if (color == RepresentativeColor.BLACK || color == RepresentativeColor.WHITE) {
+        occupied.add(pair);
+      } else if (color != RepresentativeColor.NONE) {
+        fillHexagon(g2d, polygons.get(pair), color);
+      }
     }
-    for (RowColPair pair : center.keySet()) {
+    for (RowColPair pair : occupied) {
       g2d.setColor(hexagons.get(pair).getColor().getActualColor());
       g2d.fill(center.get(pair));
     }
+    g2d.dispose();
   }
 
   /**
-   * Check if the given point is inside any of the hexagon.
+   * Check if the given point is inside any of the squares. The squares are laid out edge to
+   * edge, hexagonLength apart, so the cell is found from the point by dividing, whatever the
+   * size of the board.
    *
    * @param p the given point
    * @return the coordinators in rowcol system that represent the position or null means
-   *        the given position doesn't in any hexagons
+   *        the given position doesn't in any squares
    */
   public RowColPair getPoint(Point2D p) {
-    for (RowColPair pair : hexagons.keySet()) {
-      CellPiece cellPiece = hexagons.get(pair);
-      Polygon part = cellPiece.getPolygon();
-      if (part.contains(p)) {
-        return pair;
-      }
-    }
-    return null;
+    // the square of a cell starts at (col, row) * hexagonLength - (size, size).
+    RowColPair pair = new RowColPair((int) Math.floor((p.getY() + size) / hexagonLength),
+        (int) Math.floor((p.getX() + size) / hexagonLength));
+    return hexagons.containsKey(pair) ? pair : null;
   }
 
   /**
@@ -221,4 +235,18 @@ public final class SquareGrid {
   public Map<RowColPair, RowColPair> getThePositionForDrawingNumber() {
     return new HashMap<>(number);
   }
+
+  /**
+   * Get the center of each square, in logical coordinates.
+   *
+   * @return the centers
+   */
+  public Map<RowColPair, Point2D> getCellCenters() {
+    Map<RowColPair, Point2D> centers = new HashMap<>();
+    for (Map.Entry<RowColPair, Polygon> entry : polygons.entrySet()) {
+      Rectangle2D bounds = entry.getValue().getBounds2D();
+      centers.put(entry.getKey(), new Point2D.Double(bounds.getCenterX(), bounds.getCenterY()));
+    }
+    return centers;
+  }
 }
@@ -4,17 +4,19 @@ import java.io.IOException;
 
 import model.ReadOnlyReversiModel;
 import model.RepresentativeColor;
-import model.RowColPair;
 
 /**
  * The SquareTextualView class represents a textual view for a square-based model.
- * It implements the IView interface to provide a text-based representation of the model.
+ * It implements the IView interface to provide a text-based representation of the model,
+ * written by a {@link TextBoardRenderer}.
  */
 public class SquareTextualView implements IView {
   private final ReadOnlyReversiModel model;
 
   private final Appendable out;
 
+  private final TextBoardRenderer renderer;
+
   /**
    * construct the ReversiTextualView with given model and appendable.
    *
@@ -27,6 +29,7 @@ public class SquareTextualView implements IView {
     }
     this.model = model;
     this.out = out;
+    this.renderer = TextBoardRenderer.square(model.getSize());
   }
 
   /**
@@ -40,29 +43,12 @@ public class SquareTextualView implements IView {
     }
     this.model = model;
     this.out = null;
+    this.renderer = TextBoardRenderer.square(model.getSize());
   }
 
   @Override
   public String toString() {
-    StringBuilder builder = new StringBuilder();
-    int start = - (model.getSize() / 2 - 1);
-    for (int row = start; row < model.getSize() + start; row++) {
-      for (int col = start; col < model.getSize() + start; col++) {
-        RepresentativeColor color = model.getColorAt(new RowColPair(row, col));
-        if (color == RepresentativeColor.BLACK) {
-          builder.append("X");
-        } else if (color == RepresentativeColor.WHITE) {
-          builder.append("O");
-        } else {
-          builder.append("_");
-        }
-        if (col != model.getSize() - 1) {
-          builder.append(" ");
-        }
-      }
-      builder.append("\n");
-    }
-    return builder.toString();
+    return renderer.render(model);
   }
 
   /**
@@ -76,7 +62,7 @@ public class SquareTextualView implements IView {
       throw new IllegalArgumentException();
     }
     try {
-      out.append(toString());
+      renderer.render(model, out);
     } catch (IOException e) {
       throw new IllegalArgumentException();
     }
@@ -0,0 +1,227 @@
+package view;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.RowColPair;
+
+/**
+ * Writes boards as text, using _ for empty cells, X for black player, and O for white player,
+ * in the layout of the textual views. The layout of a board only depends on its type and
+ * size, so it is laid out once: the spaces and line breaks are kept in a buffer together with
+ * the place of every cell in it, and rendering a board only reads the color of each cell from
+ * the model into that buffer and writes the buffer out. Rendering neither copies the board nor
+ * makes a coordinator per cell, so millions of positions can be written, from a batch run for
+ * instance, without producing garbage. As the buffer is reused, a renderer should only be used
+ * by one thread at a time.
+ */
+public final class TextBoardRenderer {
+  private final ReadOnlyReversiModel.ModelType type;
+  private final int size;
+  private final RowColPair[] cells;
+  private final int[] places;
+  private final char[] buffer;
+  private final CharBuffer text;
+
+  /**
+   * Construct the renderer from a layout.
+   *
+   * @param type   the type of the boards
+   * @param size   the size of the boards
+   * @param layout the text of an empty board, with the cells in the order they were laid out
+   */
+  private TextBoardRenderer(ReadOnlyReversiModel.ModelType type, int size, Layout layout) {
+    this.type = type;
+    this.size = size;
+    cells = layout.cells.toArray(new RowColPair[0]);
+    places = new int[cells.length];
+    for (int i = 0; i < places.length; i++) {
+      places[i] = layout.places.get(i);
+    }
+    buffer = new char[layout.text.length()];
+    layout.text.getChars(0, buffer.length, buffer, 0);
+    text = CharBuffer.wrap(buffer);
+  }
+
+  /**
+   * Make a renderer for the boards of the same type and size as the given model.
+   *
+   * @param model the model
+   * @return the renderer
+   * @throws IllegalArgumentException if the model is neither a square nor a hex model
+   */
+  public static TextBoardRenderer of(ReadOnlyReversiModel model) {
+    switch (model.checkType()) {
+      case SQUARE:
+        return square(model.getSize());
+      case HEX:
+        return hex(model.getSize());
+      default:
+        throw new IllegalArgumentException("Mock model can not be rendered");
+    }
+  }
+
+  /**
+   * Make a renderer for hex boards, one line per row, every row shifted to the right by its
+   * distance to the middle row.
+   *
+   * @param size the side length of the boards
+   * @return the renderer
+   */
+  public static TextBoardRenderer hex(int size) {
+    Layout layout = new Layout();
+    int row = 2 * size - 1;
+    int half = row - size;
+    int upHalfStarter = 0;
+    for (int i = half; i > 0; i--) {
+      layout.text.append(" ".repeat(i));
+      for (int j = upHalfStarter; j <= half; j++) {
+        layout.cell(-i, j).append(" ");
+      }
+      layout.text.append("\n");
+      upHalfStarter--;
+    }
+    for (int i = -half; i <= half; i++) {
+      layout.cell(0, i).append(" ");
+    }
+    layout.text.append("\n");
+    int downHalfStarter = half;
+    for (int i = 1; i <= half; i++) {
+      layout.text.append(" ".repeat(i));
+      for (int j = -half; j < downHalfStarter; j++) {
+        layout.cell(i, j).append(" ");
+      }
+      if (i != half) {
+        layout.text.append("\n");
+      }
+      downHalfStarter--;
+    }
+    return new TextBoardRenderer(ReadOnlyReversiModel.ModelType.HEX, size, layout);
+  }
+
+  /**
+   * Make a renderer for square boards, one line per row.
+   *
+   * @param size the side length of the boards
+   * @return the renderer
+   */
+  public static TextBoardRenderer square(int size) {
+    Layout layout = new Layout();
+    int start = -(size / 2 - 1);
+    for (int row = start; row < size + start; row++) {
+      for (int col = start; col < size + start; col++) {
+        layout.cell(row, col);
+        if (col != size - 1) {
+          layout.text.append(" ");
+        }
+      }
+      layout.text.append("\n");
+    }
+    return new TextBoardRenderer(ReadOnlyReversiModel.ModelType.SQUARE, size, layout);
+  }
+
+  /**
+   * Write the board of a model.
+   *
+   * @param model the model, of the type and size of this renderer
+   * @param out   where to write the board
+   * @throws IOException              if writing fails
+   * @throws IllegalArgumentException if the model does not have the type and size of this
+   *                                  renderer
+   */
+  public void render(ReadOnlyReversiModel model, Appendable out) throws IOException {
+    fill(model);
+    if (out instanceof Writer) {
+      ((Writer) out).write(buffer, 0, buffer.length);
+    } else {
+      out.append(text, 0, buffer.length);
+    }
+  }
+
+  /**
+   * Get the board of a model as a string.
+   *
+   * @param model the model, of the type and size of this renderer
+   * @return the board as text
+   * @throws IllegalArgumentException if the model does not have the type and size of this
+   *                                  renderer
+   */
+  public String render(ReadOnlyReversiModel model) {
+    fill(model);
+    return new String(buffer);
+  }
+
+  /**
+   * Get the number of cells of the boards of this renderer.
+   *
+   * @return the number of cells
+   */
+  int getCellCount() {
+    return cells.length;
+  }
+
+  /**
+   * Get a cell, in the order the cells are written.
+   *
+   * @param index the index of the cell in that order
+   * @return the cell
+   */
+  RowColPair getCell(int index) {
+    return cells[index];
+  }
+
+  /**
+   * Get the place of a cell in the rendered text.
+   *
+   * @param index the index of the cell in the order the cells are written
+   * @return the index of the character of the cell in the text
+   */
+  int getPlace(int index) {
+    return places[index];
+  }
+
+  /**
+   * Read the color of every cell of a model into the buffer.
+   */
+  private void fill(ReadOnlyReversiModel model) {
+    if (model.checkType() != type || model.getSize() != size) {
+      throw new IllegalArgumentException("The renderer is made for another board");
+    }
+    for (int i = 0; i < cells.length; i++) {
+      RepresentativeColor color = model.getColorAt(cells[i]);
+      if (color == RepresentativeColor.BLACK) {
+        buffer[places[i]] = 'X';
+      } else if (color == RepresentativeColor.WHITE) {
+        buffer[places[i]] = 'O';
+      } else {
+        buffer[places[i]] = '_';
+      }
+    }
+  }
+
+  /**
+   * The text of an empty board being laid out, and the place of each cell in it.
+   */
+  private static final class Layout {
+    private final StringBuilder text = new StringBuilder();
+    private final List<RowColPair> cells = new ArrayList<>();
+    private final List<Integer> places = new ArrayList<>();
+
+    /**
+     * Lay out a cell at the end of the text.
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the text, to lay out what follows the cell
+     */
+    private StringBuilder cell(int row, int col) {
+      cells.add(new RowColPair(row, col));
+      places.add(text.length());
+      return text.append('_');
+    }
+  }
+}
@@ -0,0 +1,53 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import model.MutableReversiModel;
+import model.ReadOnlyReversiModel;
+import model.RepresentativeColor;
+import model.ReversiModelStatus;
+import strategy.InfallibleStrategy;
+
+/**
+ * A test class for the batches of games played without a view.
+ */
+public class TestBatchGames {
+
+  /**
+   * Two games of easy against medium on a small board, played on two threads, end as the same
+   * games played one after the other, the difficulties taking turns at playing black.
+   */
+  @Test(timeout = 30000)
+  public void testBatchCountsTheResultsAndMovesOfEveryGame() {
+    BatchGames.Results results = new BatchGames(ReadOnlyReversiModel.ModelType.SQUARE, 6,
+        ReversiGame.Difficulty.EASY, ReversiGame.Difficulty.MEDIUM, 2, 2).play();
+    int[] outcomes = new int[3];
+    int[] moves = new int[2];
+    for (RepresentativeColor easyColor : new RepresentativeColor[] {RepresentativeColor.BLACK,
+        RepresentativeColor.WHITE}) {
+      MutableReversiModel model = ModelCreator.create(ReadOnlyReversiModel.ModelType.SQUARE, 6,
+          new ReversiModelStatus());
+      model.startGame();
+      InfallibleStrategy easy = ReversiGame.Difficulty.EASY.newStrategy();
+      InfallibleStrategy medium = ReversiGame.Difficulty.MEDIUM.newStrategy();
+      while (!model.isGameOver()) {
+        RepresentativeColor turn = model.getTurn();
+        if (model.hasToPass()) {
+          model.makePass(turn);
+        } else {
+          moves[turn == easyColor ? 0 : 1]++;
+          model.placeMove((turn == easyColor ? easy : medium).choosePosition(model, turn), turn);
+        }
+      }
+      int margin = model.getScore(easyColor) - model.getScore(easyColor.getOpposite());
+      outcomes[margin > 0 ? 0 : margin == 0 ? 1 : 2]++;
+    }
+    Assert.assertEquals(outcomes[0], results.getWins());
+    Assert.assertEquals(outcomes[1], results.getDraws());
+    Assert.assertEquals(outcomes[2], results.getLosses());
+    Assert.assertEquals(2, results.getWins() + results.getDraws() + results.getLosses());
+    Assert.assertEquals(moves[0], results.getMoves(true));
+    Assert.assertEquals(moves[1], results.getMoves(false));
+    // the discs of both players fill at most the cells left empty at the start.
+    Assert.assertTrue(moves[0] > 0 && moves[1] > 0 && moves[0] + moves[1] <= 2 * (36 - 4));
+  }
+}
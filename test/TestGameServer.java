@@ -0,0 +1,166 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import model.ReadOnlyReversiModel;
+
+/**
+ * A test class for the game server, played over the loopback interface.
+ */
+public class TestGameServer {
+  GameServer server;
+  Thread serving;
+
+  /**
+   * start the server on a free port.
+   */
+  @Before
+  public void setUp() throws IOException {
+    server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    serving = new Thread(() -> {
+      try {
+        server.serve();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    serving.start();
+  }
+
+  /**
+   * stop the server.
+   */
+  @After
+  public void tearDown() throws InterruptedException {
+    server.stop();
+    serving.join();
+  }
+
+  @Test(timeout = 10000)
+  public void testPlayersSpeakTheProtocol() throws IOException {
+    try (Socket first = connect(); Socket second = connect()) {
+      BufferedReader firstIn = reader(first);
+      PrintWriter firstOut = writer(first);
+      BufferedReader secondIn = reader(second);
+      PrintWriter secondOut = writer(second);
+      firstOut.println("NEW SQUARE 100000");
+      Assert.assertEquals("ERROR Boards are at most 64 cells wide", firstIn.readLine());
+      firstOut.println("NEW SQUARE 8");
+      Assert.assertEquals("GAME 1", firstIn.readLine());
+      firstOut.println("MOVE 1 0 0");
+      Assert.assertTrue(firstIn.readLine().startsWith("ERROR"));
+      // the player who started the game plays both colors until another player joins.
+      firstOut.println("MOVE 1 0 2");
+      Assert.assertEquals("MOVED 1 0 2", firstIn.readLine());
+      firstOut.println("BOARD 1");
+      Assert.assertEquals("BOARD 1 _ _ _ _ _ _ _ _ /_ _ _ _ _ _ _ _ /_ _ _ _ _ _ _ _ /"
+          + "_ _ _ X X X _ _ /_ _ _ O X _ _ _ /_ _ _ _ _ _ _ _ /_ _ _ _ _ _ _ _ /"
+          + "_ _ _ _ _ _ _ _ /", firstIn.readLine());
+      secondOut.println("JOIN 1");
+      Assert.assertEquals("JOINED 1", firstIn.readLine());
+      Assert.assertEquals("JOINED 1", secondIn.readLine());
+      // white is now played by the second player only.
+      firstOut.println("MOVE 1 -1 2");
+      Assert.assertEquals("ERROR It's not your turn", firstIn.readLine());
+      secondOut.println("MOVE 1 -1 2");
+      Assert.assertEquals("MOVED 1 -1 2", firstIn.readLine());
+      Assert.assertEquals("MOVED 1 -1 2", secondIn.readLine());
+      // the second player leaves.
+      second.shutdownOutput();
+      Assert.assertEquals("LEFT 1", firstIn.readLine());
+      firstOut.println("BOARD 1");
+      Assert.assertEquals("ERROR No game 1", firstIn.readLine());
+    }
+  }
+
+  @Test(timeout = 30000)
+  public void testPlayerWhoDoesNotReadIsDropped() throws IOException {
+    try (Socket flooding = connect()) {
+      PrintWriter out = writer(flooding);
+      out.println("NEW SQUARE 64");
+      for (int i = 0; i < 2000; i++) {
+        out.println("BOARD 1");
+      }
+      // the answers wait for the player until there are far too many of them.
+      InputStream in = flooding.getInputStream();
+      byte[] buffer = new byte[8192];
+      try {
+        while (in.read(buffer) >= 0) {
+          // the answers sent before the player was dropped are skipped.
+        }
+      } catch (IOException e) {
+        // the connection was reset, which drops it as well.
+      }
+    }
+    // the other players are still served.
+    try (Socket other = connect()) {
+      writer(other).println("NEW HEX 4");
+      Assert.assertEquals("GAME 2", reader(other).readLine());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testPlayerTakesPartInBoundedGames() throws IOException {
+    try (Socket first = connect(); Socket second = connect()) {
+      BufferedReader firstIn = reader(first);
+      PrintWriter firstOut = writer(first);
+      BufferedReader secondIn = reader(second);
+      PrintWriter secondOut = writer(second);
+      for (int i = 1; i <= GameServer.MAX_GAMES; i++) {
+        firstOut.println("NEW SQUARE 4");
+        Assert.assertEquals("GAME " + i, firstIn.readLine());
+      }
+      firstOut.println("NEW SQUARE 4");
+      Assert.assertEquals("ERROR At most " + GameServer.MAX_GAMES + " games at a time",
+          firstIn.readLine());
+      // joining a game counts as well.
+      for (int i = 1; i <= GameServer.MAX_GAMES; i++) {
+        secondOut.println("JOIN " + i);
+        Assert.assertEquals("JOINED " + i, secondIn.readLine());
+      }
+      secondOut.println("NEW SQUARE 4");
+      Assert.assertTrue(secondIn.readLine().startsWith("ERROR At most"));
+      // the games closed when the other player leaves make room for new ones.
+      first.shutdownOutput();
+      for (int i = 1; i <= GameServer.MAX_GAMES; i++) {
+        Assert.assertEquals("LEFT " + i, secondIn.readLine());
+      }
+      secondOut.println("NEW SQUARE 4");
+      Assert.assertEquals("GAME " + (GameServer.MAX_GAMES + 1), secondIn.readLine());
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testLoadPlaysEveryGameToItsEnd() throws IOException {
+    LoadGenerator.Results results = new LoadGenerator(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()),
+        ReadOnlyReversiModel.ModelType.HEX, 4, 4, 5).run();
+    Assert.assertEquals(20, results.getGames());
+    // every game is played to its end, which takes more than one move per player.
+    Assert.assertTrue(results.getMoves() > 20 * 2);
+  }
+
+  private Socket connect() throws IOException {
+    return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+  }
+
+  private BufferedReader reader(Socket socket) throws IOException {
+    return new BufferedReader(new InputStreamReader(socket.getInputStream(),
+        StandardCharsets.US_ASCII));
+  }
+
+  private PrintWriter writer(Socket socket) throws IOException {
+    return new PrintWriter(socket.getOutputStream(), true);
+  }
+}
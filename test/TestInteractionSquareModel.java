@@ -2,7 +2,18 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.geom.Point2D;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import controller.Controller;
 import controller.ControllerListeners;
@@ -17,11 +28,17 @@ import model.ReversiHumanPlayer;
 import model.ReversiModelStatus;
 import model.RowColPair;
 import model.SquareReversiModel;
+import strategy.AnalysisStrategy;
 import strategy.CaptureMaxPieces;
 import strategy.CompleteStrategy;
 import strategy.MinimaxStrategy;
+import strategy.PvsStrategy;
+import view.AnsiTerminalView;
+import view.HintService;
 import view.IView;
 import view.MockView;
+import view.RenderSnapshot;
+import view.SquareGrid;
 
 /**
  * A test class for the if the controller interact with the view and model as we expected.
@@ -126,6 +143,213 @@ public class TestInteractionSquareModel {
     Assert.assertFalse(builder2.toString().contains("Lock the mouse"));
   }
 
+  @Test
+  public void testAiMoveIsPlacedThroughTheMoveExecutor() {
+    status = new ReversiModelStatus();
+    model = new SquareReversiModel.ModelBuilder().setStatus(status).build();
+    List<Runnable> queue = new ArrayList<>();
+    controller1 = new Controller(model, new MockView(new StringBuilder()), new ReversiAiPlayer(
+        new CompleteStrategy(new CaptureMaxPieces())), status, queue::add);
+    controller2 = new Controller(model, new MockView(new StringBuilder()),
+        new ReversiHumanPlayer(), status);
+    ControllerListeners listeners = new ControllerListeners();
+    listeners.register(controller1);
+    listeners.register(controller2);
+    model.addListener(listeners);
+    model.startGame();
+    // the move is chosen, but not placed until the executor runs it.
+    Assert.assertEquals(RepresentativeColor.BLACK, model.getTurn());
+    Assert.assertEquals(1, queue.size());
+    controller1.tryToPlace();
+    Assert.assertEquals(1, queue.size());
+    queue.remove(0).run();
+    Assert.assertEquals(RepresentativeColor.WHITE, model.getTurn());
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testAiGameOnLargeBoardIsPlayedInALoop() {
+    status = new ReversiModelStatus();
+    model = new SquareReversiModel.ModelBuilder().setStatus(status).setSize(40).build();
+    builder1 = new StringBuilder();
+    controller1 = new Controller(model, new MockView(builder1), new ReversiAiPlayer(
+        new CompleteStrategy(new CaptureMaxPieces())), status);
+    controller2 = new Controller(model, new MockView(new StringBuilder()), new ReversiAiPlayer(
+        new CompleteStrategy(new CaptureMaxPieces())), status);
+    ControllerListeners listeners = new ControllerListeners();
+    listeners.register(controller1);
+    listeners.register(controller2);
+    model.addListener(listeners);
+    model.startGame();
+    // the whole game is played without overflowing the stack.
+    Assert.assertTrue(model.isGameOver());
+    Assert.assertTrue(builder1.toString().contains("Show game over winner"));
+  }
+
+  @Test
+  public void testViewsShareOneSnapshotPerVersion() {
+    RenderSnapshot snapshot = RenderSnapshot.of(model);
+    Assert.assertSame(snapshot, RenderSnapshot.of(model));
+    Assert.assertEquals(model.getScore(RepresentativeColor.BLACK),
+        snapshot.getScore(RepresentativeColor.BLACK));
+    Assert.assertEquals(model.getScore(RepresentativeColor.WHITE),
+        snapshot.getScore(RepresentativeColor.WHITE));
+    Assert.assertEquals(model.getTurn(), snapshot.getTurn());
+    Assert.assertEquals(model.hasToPass(), snapshot.hasToPass());
+    Assert.assertEquals(4, snapshot.getMoves().size());
+    for (Map.Entry<RowColPair, Integer> entry : snapshot.getMoves().entrySet()) {
+      Assert.assertEquals(Integer.valueOf(1), entry.getValue());
+    }
+    controller1.placeMove(snapshot.getMoves().keySet().iterator().next());
+    RenderSnapshot next = RenderSnapshot.of(model);
+    Assert.assertNotSame(snapshot, next);
+    Assert.assertEquals(model.getScore(RepresentativeColor.BLACK),
+        next.getScore(RepresentativeColor.BLACK));
+    Assert.assertEquals(RepresentativeColor.WHITE, next.getTurn());
+    // the snapshot of the previous version does not change.
+    Assert.assertEquals(RepresentativeColor.BLACK, snapshot.getTurn());
+  }
+
+  @Test
+  public void testTerminalViewOnlyRedrawsTheChangedCells() {
+    StringBuilder terminal = new StringBuilder();
+    AnsiTerminalView view = new AnsiTerminalView(model, null, terminal);
+    view.display();
+    view.update(model, RepresentativeColor.BLACK);
+    Assert.assertTrue(terminal.toString().contains("_ _ _ O X _ _ _ \r\n"));
+    // the cursor starts on the cell (0, 0), which is drawn in reverse video.
+    Assert.assertTrue(terminal.toString().contains("\u001b[4;7H\u001b[7mX\u001b[0m"));
+    Assert.assertTrue(terminal.toString().contains("Current turn: Black"));
+    terminal.setLength(0);
+    view.update(model, RepresentativeColor.BLACK);
+    // nothing changed, so nothing is drawn.
+    Assert.assertEquals("", terminal.toString());
+    controller1.placeMove(new RowColPair(0, 2));
+    view.update(model, RepresentativeColor.BLACK);
+    // only the placed and the flipped cells, and the status line, are drawn again.
+    String frame = terminal.toString();
+    Assert.assertTrue(frame.startsWith("\u001b[4;9HX\u001b[4;11HX\u001b[10;1H\u001b[K"));
+    Assert.assertTrue(frame.contains("Black: 4  White: 1  Current turn: White"));
+    Assert.assertFalse(frame.contains("\n"));
+  }
+
+  @Test(timeout = 5000)
+  public void testTerminalViewRunsTheStartOnTheThreadOfTheKeys() throws InterruptedException,
+      ExecutionException {
+    AnsiTerminalView view = new AnsiTerminalView(model, new StringReader("q"),
+        new StringBuffer());
+    CompletableFuture<String> started = new CompletableFuture<>();
+    view.runBeforeKeys(() -> {
+      started.complete(Thread.currentThread().getName());
+      // the keys are acted on once the game has started and the view is updated.
+      view.update(model, RepresentativeColor.BLACK);
+    });
+    view.display();
+    Assert.assertEquals("terminal-input", started.get());
+  }
+
+  @Test
+  public void testSquareGridFindsTheCellUnderAPoint() {
+    SquareGrid grid = new SquareGrid(model, 800, 800, 8);
+    Map<RowColPair, Point2D> centers = grid.getCellCenters();
+    Assert.assertEquals(64, centers.size());
+    for (Map.Entry<RowColPair, Point2D> entry : centers.entrySet()) {
+      RowColPair pair = entry.getKey();
+      Point2D center = entry.getValue();
+      // the center and the corners inside a square belong to its cell.
+      Assert.assertEquals(pair, grid.getPoint(center));
+      Assert.assertEquals(pair, grid.getPoint(new Point2D.Double(center.getX() - 3.4,
+          center.getY() - 3.4)));
+      Assert.assertEquals(pair, grid.getPoint(new Point2D.Double(center.getX() + 3.4,
+          center.getY() + 3.4)));
+      // the edge shared with the next cell on the right or below belongs to that cell.
+      RowColPair right = new RowColPair(pair.getRow(), pair.getCol() + 1);
+      Assert.assertEquals(centers.containsKey(right) ? right : null,
+          grid.getPoint(new Point2D.Double(center.getX() + 3.5, center.getY())));
+      RowColPair below = new RowColPair(pair.getRow() + 1, pair.getCol());
+      Assert.assertEquals(centers.containsKey(below) ? below : null,
+          grid.getPoint(new Point2D.Double(center.getX(), center.getY() + 3.5)));
+    }
+    Assert.assertNull(grid.getPoint(new Point2D.Double(1000, 1000)));
+    Assert.assertNull(grid.getPoint(new Point2D.Double(-1000, 0)));
+  }
+
+  @Test(timeout = 10000)
+  public void testHintServiceComputesTheHintsOncePerVersion() throws InterruptedException {
+    AtomicInteger searches = new AtomicInteger();
+    CountDownLatch searching = new CountDownLatch(1);
+    AnalysisStrategy pvs = new PvsStrategy(2);
+    AnalysisStrategy strategy = (copy, player, count) -> {
+      if (searches.incrementAndGet() == 1) {
+        // the first search only ends when it is stopped.
+        searching.countDown();
+        try {
+          new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return pvs.analyze(copy, player, count);
+    };
+    HintService service = new HintService(strategy);
+    try {
+      BlockingQueue<HintService.Hints> ready = new LinkedBlockingQueue<>();
+      RenderSnapshot snapshot = RenderSnapshot.of(model);
+      service.update(model, snapshot, RepresentativeColor.BLACK,
+          () -> ready.add(service.getHints()));
+      Assert.assertNull(service.getHints().getPlayer());
+      searching.await();
+      // a new version drops the hints of the previous one, which are never reported.
+      service.update(model, snapshot, RepresentativeColor.BLACK,
+          () -> ready.add(service.getHints()));
+      Assert.assertNull(service.getHints().getPlayer());
+      HintService.Hints hints = ready.take();
+      Assert.assertSame(hints, service.getHints());
+      Assert.assertEquals(RepresentativeColor.BLACK, hints.getPlayer());
+      Assert.assertEquals(snapshot.getMoves(), hints.getFlips());
+      Assert.assertEquals(snapshot.getMoves().keySet(), hints.getRanks().keySet());
+      Assert.assertTrue(hints.getRanks().containsValue(1));
+      Assert.assertNull(ready.poll(200, TimeUnit.MILLISECONDS));
+      Assert.assertEquals(2, searches.get());
+      // the other player has no hints, and nothing is computed for them.
+      service.update(model, snapshot, RepresentativeColor.WHITE,
+          () -> ready.add(service.getHints()));
+      Assert.assertNull(service.getHints().getPlayer());
+      Assert.assertNull(ready.poll(200, TimeUnit.MILLISECONDS));
+      Assert.assertEquals(2, searches.get());
+      // hints that nobody looks at are dropped, and nothing is computed until the next update.
+      service.update(model, snapshot, RepresentativeColor.BLACK,
+          () -> ready.add(service.getHints()));
+      Assert.assertEquals(RepresentativeColor.BLACK, ready.take().getPlayer());
+      service.clear();
+      Assert.assertNull(service.getHints().getPlayer());
+      Assert.assertEquals(3, searches.get());
+    } finally {
+      service.shutdown();
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void testTerminalViewSharedByTwoPlayersShowsTheHints() throws InterruptedException {
+    status = new ReversiModelStatus();
+    model = new SquareReversiModel.ModelBuilder().setStatus(status).build();
+    StringBuffer terminal = new StringBuffer();
+    AnsiTerminalView view = new AnsiTerminalView(model, new StringReader("?q"), terminal);
+    ControllerListeners listeners = new ControllerListeners();
+    listeners.register(new Controller(model, view, new ReversiHumanPlayer(), status));
+    listeners.register(new Controller(model, view, new ReversiHumanPlayer(), status));
+    model.addListener(listeners);
+    view.runBeforeKeys(model::startGame);
+    // the cursor of the terminal is shown again once the keys are all read.
+    while (!terminal.toString().endsWith("\u001b[?25h")) {
+      Thread.sleep(10);
+    }
+    String frames = terminal.toString();
+    // the four legal moves of black are marked once, and stay marked.
+    Assert.assertEquals(4, frames.chars().filter(c -> c == '*').count());
+    Assert.assertFalse(frames.substring(frames.lastIndexOf('*')).contains("_"));
+  }
+
   @Test
   public void testReSetSelectedPositionAfterMove() {
     controller1.placeMove(new RowColPair(-1, 2));
@@ -2,11 +2,14 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.Map;
 
 import controller.Controller;
 import controller.ControllerListeners;
 import model.CellPiece;
+import model.HexDirection;
 import model.ModelStatus;
 import model.MutableReversiModel;
 import model.Player;
@@ -19,6 +22,7 @@ import model.RowColPair;
 import strategy.CaptureMaxPieces;
 import strategy.CompleteStrategy;
 import strategy.MinimaxStrategy;
+import view.HexGrid;
 import view.MockView;
 import view.IView;
 
@@ -348,6 +352,45 @@ public class TestInteractionsHexModel {
     Assert.assertFalse(builder2.toString().contains("show hints"));
   }
 
+  @Test
+  public void testHexGridFindsTheCellUnderAPoint() {
+    HexGrid grid = new HexGrid(model, 800, 800, 6);
+    Map<RowColPair, Point2D> centers = grid.getCellCenters();
+    Rectangle2D board = null;
+    for (Map.Entry<RowColPair, Point2D> entry : centers.entrySet()) {
+      // the center of a cell is inside its hexagon.
+      Assert.assertEquals(entry.getKey(), grid.getPoint(entry.getValue()));
+      // the middle of an edge shared with a neighbour belongs to one of the two cells.
+      for (HexDirection direction : HexDirection.values()) {
+        RowColPair next = new RowColPair(entry.getKey().getRow() + direction.getRowOffset(),
+            entry.getKey().getCol() + direction.getLeftColOffset());
+        if (centers.containsKey(next)) {
+          Point2D middle = new Point2D.Double(
+              (entry.getValue().getX() + centers.get(next).getX()) / 2,
+              (entry.getValue().getY() + centers.get(next).getY()) / 2);
+          RowColPair found = grid.getPoint(middle);
+          Assert.assertTrue(entry.getKey().equals(found) || next.equals(found));
+        }
+      }
+      Rectangle2D bounds = grid.getCellBounds(entry.getKey());
+      board = board == null ? bounds : board.createUnion(bounds);
+    }
+    // every point found is in the cell it is found in, and the points off the board are in
+    // no cell.
+    for (double x = board.getMinX() - 10; x <= board.getMaxX() + 10; x += 0.5) {
+      for (double y = board.getMinY() - 10; y <= board.getMaxY() + 10; y += 0.5) {
+        Point2D point = new Point2D.Double(x, y);
+        RowColPair found = grid.getPoint(point);
+        Assert.assertTrue(found == null || grid.getCellBounds(found).contains(point));
+        if (!board.contains(point)) {
+          Assert.assertNull(found);
+        }
+      }
+    }
+    Assert.assertNull(grid.getPoint(new Point2D.Double(1000, 1000)));
+    Assert.assertNull(grid.getPoint(new Point2D.Double(-1000, 0)));
+  }
+
   @Test
   public void testViewShowGameOverMessageHasWinner() {
     controller1.placeMove(new RowColPair(-1, 2));
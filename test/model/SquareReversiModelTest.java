@@ -4,6 +4,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,6 +20,7 @@ import model.SquareDirection;
 import model.SquareReversiModel;
 import view.ReversiTextualView;
 import view.SquareTextualView;
+import view.TextBoardRenderer;
 
 import static org.junit.Assert.assertThrows;
 
@@ -534,5 +537,60 @@ public final class SquareReversiModelTest extends AbstractModelTest {
             unstartedModel.placeMove(new RowColPair(0,3), RepresentativeColor.BLACK));
   }
 
+  @Test
+  public void testRendererWritesTheTextualView() throws IOException {
+    MutableReversiModel model = new SquareReversiModel.ModelBuilder().setSize(4).build();
+    model.startGame();
+    TextBoardRenderer renderer = TextBoardRenderer.of(model);
+    StringWriter writer = new StringWriter();
+    renderer.render(model, writer);
+    Assert.assertEquals("_ _ _ _ \n_ X O _ \n_ O X _ \n_ _ _ _ \n", writer.toString());
+    model.placeMove(new RowColPair(-1, 1), RepresentativeColor.BLACK);
+    // the renderer is reused for the next position.
+    StringBuilder builder = new StringBuilder();
+    renderer.render(model, builder);
+    Assert.assertEquals(new SquareTextualView(model).toString(), builder.toString());
+    Assert.assertEquals(builder.toString(), renderer.render(model));
+    assertThrows(IllegalArgumentException.class, () -> renderer.render(
+        new SquareReversiModel.ModelBuilder().setSize(6).build()));
+  }
+
+  @Test
+  public void testVersionCountsEveryChange() {
+    MutableReversiModel model = new SquareReversiModel.ModelBuilder().build();
+    Assert.assertEquals(0, model.getVersion());
+    model.startGame();
+    Assert.assertEquals(1, model.getVersion());
+    model.placeMove(new RowColPair(-1, 1), RepresentativeColor.BLACK);
+    Assert.assertEquals(2, model.getVersion());
+    model.makePass(RepresentativeColor.WHITE);
+    Assert.assertEquals(3, model.getVersion());
+    // an invalid move changes nothing.
+    assertThrows(IllegalStateException.class,
+        () -> model.placeMove(new RowColPair(-3, -3), RepresentativeColor.BLACK));
+    Assert.assertEquals(3, model.getVersion());
+    // reading the model changes nothing either.
+    model.hasToPass();
+    model.getDeepCopy(RepresentativeColor.BLACK);
+    Assert.assertEquals(3, model.getVersion());
+  }
+
+  @Test
+  public void testBitboardMovesAndFlips() {
+    long[] discs = SquareBitboards.of(model.getBoard());
+    long expected = 0;
+    for (RowColPair pair : new RowColPair[]{new RowColPair(-1, 1), new RowColPair(0, 2),
+        new RowColPair(1, -1), new RowColPair(2, 0)}) {
+      expected |= 1L << SquareBitboards.index(pair);
+    }
+    Assert.assertEquals(expected, SquareBitboards.moves(discs[0], discs[1]));
+    model.placeMove(new RowColPair(0, 2), RepresentativeColor.BLACK);
+    Map<ModelDirection, Integer> flips = model.checkMove(new RowColPair(-1, 2),
+        RepresentativeColor.WHITE);
+    Assert.assertEquals(1, (int) flips.get(SquareDirection.SQUARELEFTDOWN));
+    Assert.assertEquals(0, (int) flips.get(SquareDirection.SQUAREDOWN));
+    Assert.assertFalse(model.hasToPass());
+  }
+
 
 }
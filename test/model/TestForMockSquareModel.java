@@ -10,9 +10,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import strategy.AnyOpenTileStrategy;
+import strategy.AvoidCellsNextToCornersStrategy;
 import strategy.CaptureMaxPieces;
+import strategy.CompositeStrategy;
 import strategy.CornerStrategy;
 import strategy.FallibleStrategy;
 
@@ -166,6 +169,26 @@ public class TestForMockSquareModel extends AbstractModelTest {
     }
   }
 
+  /**
+   * The strategies of a chain share the legal moves of the decision: even though the corner
+   * strategy finds no corner and the next strategy has to look at every move again, every cell
+   * is checked by the model only once.
+   */
+  @Test
+  public void chainedStrategiesCheckEachCellOnce() {
+    StringBuilder builder = new StringBuilder();
+    FallibleStrategy strategy = new CompositeStrategy(new CompositeStrategy(new CornerStrategy(),
+        new AvoidCellsNextToCornersStrategy()), new CaptureMaxPieces());
+    MockModel mock = new MockModel(model, builder, new ArrayList<>());
+    Assert.assertTrue(strategy.choosePosition(mock, RepresentativeColor.BLACK).isPresent());
+    for (RowColPair pair : mock.getBoard().keySet()) {
+      String pairString = "Checking" + "(" + pair.getRow() + "," + pair.getCol() + ")\n";
+      int checks = builder.toString().split(Pattern.quote(pairString), -1)
+          .length - 1;
+      Assert.assertEquals(mock.getColorAt(pair) == RepresentativeColor.NONE ? 1 : 0, checks);
+    }
+  }
+
   @Test
   public void cornerStrategyDoesNotCheckNonCornerCells() {
     StringBuilder builder = new StringBuilder();
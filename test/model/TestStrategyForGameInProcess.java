@@ -3,20 +3,52 @@ package model;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import strategy.AvoidCellsNextToCornersStrategy;
+import strategy.BudgetedStrategy;
 import strategy.CaptureMaxPieces;
 import strategy.CompleteStrategy;
 import strategy.CompositeStrategy;
 import strategy.CornerStrategy;
+import strategy.DiscFeatures;
+import strategy.EndgameSolver;
+import strategy.EndgameStrategy;
+import strategy.EvaluationStrategy;
+import strategy.EvaluationTuner;
 import strategy.InfallibleStrategy;
+import strategy.InstrumentedStrategy;
+import strategy.MctsStrategy;
 import strategy.MinimaxStrategy;
+import strategy.Move;
+import strategy.OpeningBook;
+import strategy.OpeningBookBuilder;
+import strategy.OpeningBookStrategy;
+import strategy.PatternEvaluator;
+import strategy.PonderingStrategy;
+import strategy.PvsSearch;
+import strategy.PvsStrategy;
+import strategy.SearchBoard;
+import strategy.SearchBudget;
+import strategy.SearchStats;
+import strategy.Variation;
 import strategy.FallibleStrategy;
 
 import static org.junit.Assert.assertFalse;
@@ -403,4 +435,524 @@ public class TestStrategyForGameInProcess {
       }
     }
   }
+
+  /**
+   * At the beginning of the game on the square board, the monte carlo strategy should always
+   * find one of the four valid moves within its budget.
+   */
+  @Test
+  public void testMctsChooseValidMove() {
+    MutableReversiModel model = new SquareReversiModel.ModelBuilder().build();
+    model.startGame();
+    FallibleStrategy strategy = new MctsStrategy(50, 2);
+    Optional<RowColPair> pair = strategy.choosePosition(model, RepresentativeColor.BLACK);
+    assertTrue(pair.isPresent());
+    int flipped = 0;
+    for (int i : model.checkMove(pair.get(), RepresentativeColor.BLACK).values()) {
+      flipped += i;
+    }
+    assertTrue(flipped > 0);
+    // the second decision reuses the tree of the first one and still finds a valid move.
+    model.placeMove(pair.get(), RepresentativeColor.BLACK);
+    assertTrue(strategy.choosePosition(model, RepresentativeColor.WHITE).isPresent());
+  }
+
+  /**
+   * After black and white have both moved, the monte carlo strategy finds the position in the
+   * tree of its previous decision and keeps growing it, which is reported as a hit of its
+   * lookup. A search that is interrupted throws its trees away, so the next decision starts
+   * from scratch.
+   */
+  @Test
+  public void testMctsReusesTheTreeOfThePreviousDecision() {
+    MutableReversiModel model = new SquareReversiModel.ModelBuilder().build();
+    model.startGame();
+    InstrumentedStrategy strategy = new InstrumentedStrategy("mcts",
+        new MctsStrategy(60_000, 1, 2000));
+    RowColPair first = strategy.choosePosition(model, RepresentativeColor.BLACK).get();
+    Assert.assertEquals(0, strategy.getLastStats().get().getHashHitRate(), 0);
+    Assert.assertEquals(2000, strategy.getLastStats().get().getNodes());
+    model.placeMove(first, RepresentativeColor.BLACK);
+    model.placeMove(new CaptureMaxPieces().choosePosition(model, RepresentativeColor.WHITE)
+        .get(), RepresentativeColor.WHITE);
+    assertTrue(strategy.choosePosition(model, RepresentativeColor.BLACK).isPresent());
+    Assert.assertEquals(1, strategy.getLastStats().get().getHashHitRate(), 0);
+    MutableReversiModel again = new SquareReversiModel.ModelBuilder().build();
+    again.startGame();
+    again.placeMove(first, RepresentativeColor.BLACK);
+    Thread.currentThread().interrupt();
+    try {
+      strategy.choosePosition(again, RepresentativeColor.WHITE);
+      Assert.fail("The search should be cancelled");
+    } catch (CancellationException e) {
+      assertTrue(Thread.interrupted());
+    }
+    assertTrue(strategy.choosePosition(model, RepresentativeColor.BLACK).isPresent());
+    Assert.assertEquals(0, strategy.getLastStats().get().getHashHitRate(), 0);
+  }
+
+  /**
+   * The hexagon board with side length 2 has no valid move at all, the monte carlo strategy
+   * should not make a choice.
+   */
+  @Test
+  public void testMctsNoValidMove() {
+    MutableReversiModel model = new HexReversiModel.ModelBuilder().setSize(2).build();
+    FallibleStrategy strategy = new MctsStrategy(50, 1);
+    assertTrue(strategy.choosePosition(model, RepresentativeColor.BLACK).isEmpty());
+  }
+
+  /**
+   * make the square board from the given rows, using _ for empty cells, X for black cells and O
+   * for white cells, separated by spaces.
+   *
+   * @param rows the rows of the board, from top to bottom
+   * @return the map represent the board
+   */
+  private Map<RowColPair, CellPiece> makeSquareBoard(String... rows) {
+    Map<RowColPair, CellPiece> board = new HashMap<>();
+    int offset = rows.length / 2 - 1;
+    for (int row = 0; row < rows.length; row++) {
+      String[] cells = rows[row].split(" ");
+      for (int col = 0; col < cells.length; col++) {
+        RepresentativeColor color = RepresentativeColor.NONE;
+        if (cells[col].equals("X")) {
+          color = RepresentativeColor.BLACK;
+        } else if (cells[col].equals("O")) {
+          color = RepresentativeColor.WHITE;
+        }
+        board.put(new RowColPair(row - offset, col - offset), new CellPiece(color));
+      }
+    }
+    return board;
+  }
+
+  /**
+   * O O O O O _
+   * O O X O O _
+   * O X O X _ O
+   * X X X O O O
+   * X X O X O _
+   * X X X A X _
+   * Only 6 cells are left, so the endgame strategy solves the rest of the game instead of asking
+   * the capture max pieces strategy, which would flip the most cells at (0,2) and lose the
+   * game. Placing at A is the only move that wins for black.
+   */
+  @Test
+  public void testEndgameStrategyFindsTheOnlyWinningMove() {
+    Map<RowColPair, CellPiece> board = makeSquareBoard(
+        "O O O O O _",
+        "O O X O O _",
+        "O X O X _ O",
+        "X X X O O O",
+        "X X O X O _",
+        "X X X _ X _");
+    MutableReversiModel model = new SquareReversiModel(board, 6, RepresentativeColor.BLACK);
+    Assert.assertEquals(Optional.of(new RowColPair(0, 2)),
+        new CaptureMaxPieces().choosePosition(model, RepresentativeColor.BLACK));
+    FallibleStrategy strategy = new EndgameStrategy(new CaptureMaxPieces());
+    Assert.assertEquals(Optional.of(new RowColPair(3, 1)),
+        strategy.choosePosition(model, RepresentativeColor.BLACK));
+  }
+
+  /**
+   * The same position as above, searched by the principal variation search deep enough to
+   * reach the end of every line, passes included: it finds the same winning move and the same
+   * final margin as the exact solver.
+   */
+  @Test
+  public void testPvsSearchAgreesWithTheEndgameSolver() {
+    Map<RowColPair, CellPiece> board = makeSquareBoard(
+        "O O O O O _",
+        "O O X O O _",
+        "O X O X _ O",
+        "X X X O O O",
+        "X X O X O _",
+        "X X X _ X _");
+    MutableReversiModel model = new SquareReversiModel(board, 6, RepresentativeColor.BLACK);
+    Assert.assertEquals(Optional.of(new RowColPair(3, 1)),
+        new PvsStrategy(7).choosePosition(model, RepresentativeColor.BLACK));
+    SearchBoard position = SearchBoard.of(model);
+    Move solved = new EndgameSolver().solve(position, SearchBoard.BLACK);
+    Move searched = new PvsSearch().search(position, SearchBoard.BLACK, 7);
+    Assert.assertEquals(PvsSearch.WIN + solved.getValue(), searched.getValue(), 0);
+  }
+
+  /**
+   * The same position again, analyzed by the principal variation search: the winning move comes
+   * first, and every move returned has the exact score of its own line, as solved after it.
+   */
+  @Test
+  public void testAnalysisRanksTheBestMovesWithTheirLines() {
+    Map<RowColPair, CellPiece> board = makeSquareBoard(
+        "O O O O O _",
+        "O O X O O _",
+        "O X O X _ O",
+        "X X X O O O",
+        "X X O X O _",
+        "X X X _ X _");
+    MutableReversiModel model = new SquareReversiModel(board, 6, RepresentativeColor.BLACK);
+    List<Variation> variations = new PvsStrategy(7).analyze(model, RepresentativeColor.BLACK, 3);
+    Assert.assertEquals(3, variations.size());
+    Assert.assertEquals(new RowColPair(3, 1), variations.get(0).getMove().getPosition());
+    for (int i = 0; i < variations.size(); i++) {
+      Move move = variations.get(i).getMove();
+      MutableReversiModel after = model.getDeepCopy(RepresentativeColor.BLACK);
+      after.placeMove(move.getPosition(), RepresentativeColor.BLACK);
+      int margin = -(int) new EndgameSolver().solve(SearchBoard.of(after), SearchBoard.WHITE)
+          .getValue();
+      Assert.assertEquals(Integer.signum(margin) * PvsSearch.WIN + margin, move.getValue(), 0);
+      Assert.assertEquals(move.getPosition(), variations.get(i).getLine().get(0));
+      if (i > 0) {
+        assertTrue(move.getValue() <= variations.get(i - 1).getMove().getValue());
+      }
+    }
+    assertTrue(variations.get(0).getLine().size() > 1);
+  }
+
+  /**
+   * At the beginning of the game there are too many empty cells to solve, the endgame strategy
+   * leaves the choice to its midgame strategy.
+   */
+  @Test
+  public void testEndgameStrategyUsesMidgameStrategyEarly() {
+    MutableReversiModel model = new HexReversiModel.ModelBuilder().build();
+    FallibleStrategy strategy = new EndgameStrategy(new CaptureMaxPieces());
+    Assert.assertEquals(new CaptureMaxPieces().choosePosition(model, RepresentativeColor.BLACK),
+        strategy.choosePosition(model, RepresentativeColor.BLACK));
+  }
+
+  /**
+   * Build a book of the first two moves on the 6 x 6 board. The four first moves of black are
+   * symmetric, so the book only holds two positions, and white must still get a valid book move
+   * after each of them. Out of the book, the choice is left to the other strategy. The builder
+   * reports the size of the book after each move.
+   */
+  @Test
+  public void testOpeningBookCoversSymmetricPositions() throws IOException,
+      InterruptedException {
+    Path directory = Files.createTempDirectory("books");
+    Path file = directory.resolve("square-6.book");
+    try {
+      List<Integer> done = new ArrayList<>();
+      new OpeningBookBuilder(ReadOnlyReversiModel.ModelType.SQUARE, 6, 2, CaptureMaxPieces::new)
+          .build(file, 2, (move, positions, searched, entries) -> done.add(entries));
+      Assert.assertEquals(Arrays.asList(1, 2), done);
+      OpeningBook book = OpeningBook.open(file);
+      Assert.assertEquals(2, book.size());
+      FallibleStrategy strategy = new OpeningBookStrategy(book,
+          (model, player) -> Optional.empty());
+      MutableReversiModel start = new SquareReversiModel.ModelBuilder().setSize(6).build();
+      start.startGame();
+      List<RowColPair> firstMoves = new ArrayList<>();
+      for (RowColPair pair : start.getBoard().keySet()) {
+        if (start.getColorAt(pair) == RepresentativeColor.NONE
+            && flipped(start, pair, RepresentativeColor.BLACK) > 0) {
+          firstMoves.add(pair);
+        }
+      }
+      Assert.assertEquals(4, firstMoves.size());
+      assertTrue(strategy.choosePosition(start, RepresentativeColor.BLACK).isPresent());
+      for (RowColPair first : firstMoves) {
+        MutableReversiModel model = new SquareReversiModel.ModelBuilder().setSize(6).build();
+        model.startGame();
+        model.placeMove(first, RepresentativeColor.BLACK);
+        Optional<RowColPair> reply = strategy.choosePosition(model, RepresentativeColor.WHITE);
+        assertTrue(reply.isPresent());
+        assertTrue(flipped(model, reply.get(), RepresentativeColor.WHITE) > 0);
+        model.placeMove(reply.get(), RepresentativeColor.WHITE);
+        assertTrue(strategy.choosePosition(model, RepresentativeColor.BLACK).isEmpty());
+      }
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(directory);
+    }
+  }
+
+  /**
+   * The pondering strategy searches the position after the expected reply of white while white
+   * is moving. When white plays that reply, the next move of black comes from the background
+   * search, and the caller does not search at all. When white plays something else, black
+   * searches the position itself, and still finds the same move as without pondering.
+   */
+  @Test
+  public void testPonderingReusesTheSearchOfThePredictedReply() {
+    Thread caller = Thread.currentThread();
+    AtomicInteger foregroundSearches = new AtomicInteger();
+    FallibleStrategy capture = new CaptureMaxPieces();
+    FallibleStrategy counted = (model, player) -> {
+      if (Thread.currentThread() == caller) {
+        foregroundSearches.incrementAndGet();
+      }
+      return capture.choosePosition(model, player);
+    };
+    FallibleStrategy strategy = new PonderingStrategy(counted, capture);
+    for (boolean predicted : new boolean[]{true, false}) {
+      foregroundSearches.set(0);
+      MutableReversiModel model = new SquareReversiModel.ModelBuilder().build();
+      model.startGame();
+      RowColPair first = strategy.choosePosition(model, RepresentativeColor.BLACK).get();
+      model.placeMove(first, RepresentativeColor.BLACK);
+      RowColPair reply = capture.choosePosition(model, RepresentativeColor.WHITE).get();
+      if (!predicted) {
+        for (RowColPair pair : model.getBoard().keySet()) {
+          if (!pair.equals(reply) && model.getColorAt(pair) == RepresentativeColor.NONE
+              && flipped(model, pair, RepresentativeColor.WHITE) > 0) {
+            reply = pair;
+            break;
+          }
+        }
+      }
+      model.placeMove(reply, RepresentativeColor.WHITE);
+      Assert.assertEquals(capture.choosePosition(model, RepresentativeColor.BLACK),
+          strategy.choosePosition(model, RepresentativeColor.BLACK));
+      Assert.assertEquals(predicted ? 1 : 2, foregroundSearches.get());
+    }
+  }
+
+  /**
+   * _ O X _ _ _
+   * _ _ _ _ _ _
+   * X O O O A _
+   * _ _ _ _ _ _
+   * _ _ _ _ _ _
+   * _ _ _ _ _ _
+   * Capturing the most discs means playing A, but the pattern evaluation prefers the corner on
+   * the top left, which only captures one disc.
+   */
+  @Test
+  public void testEvaluationStrategyPrefersTheCorner() {
+    Map<RowColPair, CellPiece> board = makeSquareBoard(
+        "_ O X _ _ _",
+        "_ _ _ _ _ _",
+        "X O O O _ _",
+        "_ _ _ _ _ _",
+        "_ _ _ _ _ _",
+        "_ _ _ _ _ _");
+    MutableReversiModel model = new SquareReversiModel(board, 6, RepresentativeColor.BLACK);
+    Assert.assertEquals(Optional.of(new RowColPair(0, 2)),
+        new CaptureMaxPieces().choosePosition(model, RepresentativeColor.BLACK));
+    Assert.assertEquals(Optional.of(new RowColPair(-2, -2)),
+        new EvaluationStrategy().choosePosition(model, RepresentativeColor.BLACK));
+  }
+
+  /**
+   * Weights tuned on a few self-play games evaluate the same after a round trip through a
+   * weights file, and choose legal moves. The tuner reports the error of every step.
+   */
+  @Test
+  public void testTunedWeightsSurviveAWeightsFile() throws IOException, InterruptedException {
+    Path directory = Files.createTempDirectory("weights");
+    Path dataset = directory.resolve("square-6.data");
+    Path file = directory.resolve(PatternEvaluator.fileName(ReadOnlyReversiModel.ModelType.SQUARE,
+        6));
+    try {
+      EvaluationTuner tuner = new EvaluationTuner(ReadOnlyReversiModel.ModelType.SQUARE, 6, 2,
+          EvaluationTuner.DEFAULT_PHASES);
+      assertTrue(tuner.generate(dataset, 10, 42) > 0);
+      List<Double> errors = new ArrayList<>();
+      PatternEvaluator tuned = tuner.fit(dataset, 5, (epoch, error) -> errors.add(error));
+      Assert.assertEquals(5, errors.size());
+      tuned.save(file);
+      PatternEvaluator loaded = PatternEvaluator.load(file);
+      MutableReversiModel model = new SquareReversiModel.ModelBuilder().setSize(6).build();
+      model.startGame();
+      Assert.assertEquals(tuned.evaluate(model, RepresentativeColor.BLACK),
+          loaded.evaluate(model, RepresentativeColor.BLACK));
+      RowColPair move = new EvaluationStrategy(loaded)
+          .choosePosition(model, RepresentativeColor.BLACK).get();
+      assertTrue(flipped(model, move, RepresentativeColor.BLACK) > 0);
+    } finally {
+      Files.deleteIfExists(dataset);
+      Files.deleteIfExists(file);
+      Files.delete(directory);
+    }
+  }
+
+  /**
+   * X X X O _ _
+   * X X _ _ _ _
+   * X _ _ _ _ _
+   * _ _ _ _ _ _
+   * _ _ _ _ _ _
+   * _ _ _ _ _ _
+   * The black discs grow from the corner along the edges and can never be flipped, while the
+   * white disc can still be taken from the right.
+   */
+  @Test
+  public void testDiscFeatures() {
+    MutableReversiModel start = new SquareReversiModel.ModelBuilder().build();
+    start.startGame();
+    SearchBoard board = SearchBoard.of(start);
+    int black = SearchBoard.BLACK;
+    Assert.assertEquals(4, DiscFeatures.mobility(board, black));
+    Assert.assertEquals(10, DiscFeatures.potentialMobility(board, black));
+    Assert.assertEquals(2, DiscFeatures.frontier(board, black));
+    Assert.assertEquals(0, DiscFeatures.stable(board, black));
+    Map<RowColPair, CellPiece> corner = makeSquareBoard(
+        "X X X O _ _",
+        "X X _ _ _ _",
+        "X _ _ _ _ _",
+        "_ _ _ _ _ _",
+        "_ _ _ _ _ _",
+        "_ _ _ _ _ _");
+    board = SearchBoard.of(new SquareReversiModel(corner, 6, RepresentativeColor.BLACK));
+    Assert.assertEquals(6, DiscFeatures.stable(board, black));
+    Assert.assertEquals(5, DiscFeatures.frontier(board, black));
+    Assert.assertEquals(0, DiscFeatures.stable(board, SearchBoard.WHITE));
+  }
+
+  /**
+   * An instrumented search reports the nodes, depth, cutoffs and hash probes of each decision,
+   * a chain of simple strategies counts as one node. A move taken from a pondered search
+   * reports the background search that found it.
+   */
+  @Test
+  public void testInstrumentedStrategyReportsTheSearch() {
+    MutableReversiModel model = new SquareReversiModel.ModelBuilder().build();
+    model.startGame();
+    List<SearchStats> logged = new ArrayList<>();
+    InstrumentedStrategy search = new InstrumentedStrategy("pvs", new PvsStrategy(4),
+        logged::add);
+    assertTrue(search.choosePosition(model, RepresentativeColor.BLACK).isPresent());
+    Assert.assertEquals(1, logged.size());
+    SearchStats stats = logged.get(0);
+    Assert.assertEquals(stats, search.getLastStats().get());
+    Assert.assertEquals("pvs", stats.getStrategy());
+    Assert.assertEquals(4, stats.getDepth());
+    assertTrue(stats.getNodes() > 0);
+    assertTrue(stats.getBetaCutoffs() > 0);
+    assertTrue(stats.getHashProbes() > 0);
+    assertTrue(stats.getNanos() > 0);
+    InstrumentedStrategy chain = new InstrumentedStrategy("chain", new CompositeStrategy(
+        new CornerStrategy(), new CaptureMaxPieces()));
+    assertTrue(chain.choosePosition(model, RepresentativeColor.BLACK).isPresent());
+    Assert.assertEquals(1, chain.getLastStats().get().getNodes());
+    Assert.assertEquals(0, chain.getLastStats().get().getDepth());
+    FallibleStrategy capture = new CaptureMaxPieces();
+    InstrumentedStrategy pondering = new InstrumentedStrategy("ponder",
+        new PonderingStrategy(new PvsStrategy(4), capture));
+    model.placeMove(pondering.choosePosition(model, RepresentativeColor.BLACK).get(),
+        RepresentativeColor.BLACK);
+    model.placeMove(capture.choosePosition(model, RepresentativeColor.WHITE).get(),
+        RepresentativeColor.WHITE);
+    assertTrue(pondering.choosePosition(model, RepresentativeColor.BLACK).isPresent());
+    assertTrue(pondering.getLastStats().get().getNodes() > 0);
+    Assert.assertEquals(4, pondering.getLastStats().get().getDepth());
+  }
+
+  /**
+   * An asynchronous search on the calling thread is done at once, a search past its deadline
+   * fails with a timeout, and a cancelled search is interrupted, so both free their executor.
+   */
+  @Test
+  public void testAsyncStrategyStopsAtItsDeadline() throws InterruptedException,
+      ExecutionException {
+    MutableReversiModel model = new SquareReversiModel.ModelBuilder().build();
+    model.startGame();
+    InfallibleStrategy quick = new CompleteStrategy(new PvsStrategy(3));
+    CompletableFuture<RowColPair> direct = quick.choosePositionAsync(model,
+        RepresentativeColor.BLACK, Runnable::run, null);
+    assertTrue(direct.isDone());
+    Assert.assertEquals(quick.choosePosition(model, RepresentativeColor.BLACK), direct.get());
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // a search of the whole game, which only ends when it is interrupted.
+      InfallibleStrategy endless = new CompleteStrategy(new PvsStrategy(60));
+      CompletableFuture<RowColPair> late = endless.choosePositionAsync(model,
+          RepresentativeColor.BLACK, executor, Duration.ofMillis(50));
+      try {
+        late.get();
+        Assert.fail("The search should run out of time");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof TimeoutException);
+      }
+      CompletableFuture<RowColPair> cancelled = endless.choosePositionAsync(model,
+          RepresentativeColor.BLACK, executor, null);
+      assertTrue(cancelled.cancel(true));
+      // both searches were stopped, so the executor is free again for the next one.
+      Assert.assertEquals(direct.get(), quick.choosePositionAsync(model,
+          RepresentativeColor.BLACK, executor, null).get());
+    } finally {
+      executor.shutdownNow();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+  }
+
+  /**
+   * Cancelling the move asked from an Ai player stops its search, so the executor of the player
+   * is free again for the next move.
+   */
+  @Test
+  public void testCancellingTheMoveOfAnAiPlayerStopsItsSearch() throws InterruptedException,
+      ExecutionException, TimeoutException {
+    MutableReversiModel model = new SquareReversiModel.ModelBuilder().build();
+    model.startGame();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      ReversiAiPlayer endless = new ReversiAiPlayer(
+          new CompleteStrategy(new PvsStrategy(60)), executor, null);
+      endless.assignColor(RepresentativeColor.BLACK);
+      CompletableFuture<Optional<RowColPair>> cancelled = endless.chooseNextMoveAsync(model);
+      assertTrue(cancelled.cancel(true));
+      ReversiAiPlayer quick = new ReversiAiPlayer(new CompleteStrategy(new PvsStrategy(3)),
+          executor, null);
+      quick.assignColor(RepresentativeColor.BLACK);
+      // the next search only runs once the cancelled one has stopped.
+      assertTrue(quick.chooseNextMoveAsync(model).get(5, TimeUnit.SECONDS).isPresent());
+    } finally {
+      executor.shutdownNow();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+  }
+
+  /**
+   * A search with a budget of positions or of time stops close to it on square and hex boards,
+   * and still reaches some depth. An endgame solver that runs out of its budget leaves the
+   * choice to the other strategy, which keeps half of the budget for its own search.
+   */
+  @Test
+  public void testBudgetedSearchStaysWithinItsBudget() {
+    MutableReversiModel square = new SquareReversiModel.ModelBuilder().setSize(12).build();
+    square.startGame();
+    MutableReversiModel hex = new HexReversiModel.ModelBuilder().setSize(9).build();
+    hex.startGame();
+    for (MutableReversiModel model : Arrays.asList(square, hex)) {
+      InstrumentedStrategy byNodes = new InstrumentedStrategy("nodes", new BudgetedStrategy(
+          new PvsStrategy(PvsStrategy.MAX_DEPTH),
+          new SearchBudget(50_000, Duration.ofSeconds(60))));
+      assertTrue(byNodes.choosePosition(model, RepresentativeColor.BLACK).isPresent());
+      SearchStats stats = byNodes.getLastStats().get();
+      // the budget is checked every 4096 positions.
+      assertTrue(stats.getNodes() <= 50_000 + 2 * 4096);
+      assertTrue(stats.getDepth() >= 2);
+      InstrumentedStrategy byTime = new InstrumentedStrategy("time", new BudgetedStrategy(
+          new PvsStrategy(PvsStrategy.MAX_DEPTH),
+          new SearchBudget(Long.MAX_VALUE, Duration.ofMillis(100))));
+      assertTrue(byTime.choosePosition(model, RepresentativeColor.BLACK).isPresent());
+      assertTrue(byTime.getLastStats().get().getNanos() < TimeUnit.SECONDS.toNanos(2));
+    }
+    // the game is far too long to solve in 1000 positions, the other strategy decides.
+    FallibleStrategy endgame = new BudgetedStrategy(
+        new EndgameStrategy(new CaptureMaxPieces(), 150),
+        new SearchBudget(1000, Duration.ofSeconds(60)));
+    Assert.assertEquals(new CaptureMaxPieces().choosePosition(square, RepresentativeColor.BLACK),
+        endgame.choosePosition(square, RepresentativeColor.BLACK));
+    // the solver only spends half of the budget, the search after it still has the rest.
+    InstrumentedStrategy search = new InstrumentedStrategy("pvs",
+        new PvsStrategy(PvsStrategy.MAX_DEPTH));
+    new BudgetedStrategy(new EndgameStrategy(search, 150),
+        new SearchBudget(100_000, Duration.ofSeconds(60)))
+        .choosePosition(square, RepresentativeColor.BLACK);
+    assertTrue(search.getLastStats().get().getNodes() >= 40_000);
+    assertTrue(search.getLastStats().get().getDepth() >= 2);
+  }
+
+  private int flipped(MutableReversiModel model, RowColPair pair, RepresentativeColor color) {
+    int flipped = 0;
+    for (int i : model.checkMove(pair, color).values()) {
+      flipped += i;
+    }
+    return flipped;
+  }
 }